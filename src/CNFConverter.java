@@ -0,0 +1,50 @@
+import dataStructure.CNFSnapshot;
+import dimacs.parser.DIMACSFormula;
+import dimacs.parser.DIMACSParseException;
+import dimacs.parser.DIMACSStreamParser;
+
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+
+/**
+ * Converts between DIMACS files and binary CNF snapshots, see {@link CNFSnapshot}.
+ * The direction is chosen by the extension of the input file.
+ */
+public class CNFConverter {
+    private static final String SNAPSHOT_FILE_EXTENSION = ".bcnf";
+
+    /**
+     * Main function
+     *
+     * @param args input file and output file
+     */
+    public static void main(String[] args) {
+        if (args.length != 2) {
+            System.out.print("USAGE: \n" +
+                    "CNFConverter <file.cnf[.gz]> <file" + SNAPSHOT_FILE_EXTENSION + ">: DIMACS to snapshot\n" +
+                    "CNFConverter <file" + SNAPSHOT_FILE_EXTENSION + "> <file.cnf>: snapshot to DIMACS\n");
+            System.exit(1);
+        }
+        try {
+            if (args[0].endsWith(SNAPSHOT_FILE_EXTENSION)) {
+                Writer out = new OutputStreamWriter(new FileOutputStream(args[1]), "US-ASCII");
+                try {
+                    CNFSnapshot.toDimacs(args[0], out);
+                } finally {
+                    out.close();
+                }
+            } else {
+                DIMACSFormula formula = new DIMACSStreamParser().parse(args[0]);
+                CNFSnapshot.write(formula, args[1]);
+            }
+        } catch (DIMACSParseException e) {
+            System.err.println("Could not parse " + args[0] + ": " + e.getMessage());
+            System.exit(1);
+        } catch (IOException e) {
+            System.err.println("Conversion failed: " + e.getMessage());
+            System.exit(1);
+        }
+    }
+}
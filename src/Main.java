@@ -1,8 +1,16 @@
 import dataStructure.CDCL;
 import dataStructure.ClauseSet;
+import dataStructure.CubeAndConquer;
+import dataStructure.Portfolio;
+import dataStructure.Preprocessor;
+import dimacs.parser.DIMACSParseException;
+import dimacs.parser.DIMACSStreamParser;
 
 import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
 
 /**
@@ -10,6 +18,9 @@ import java.util.List;
  */
 public class Main {
     private static final String DIMACS_FILE_EXTENSION = ".cnf";
+    private static final String PREPROCESS_OPTION = "-p";
+    private static final String THREADS_OPTION = "-t";
+    private static final String CUBE_OPTION = "-c";
     private static final String PRINT_SEPERATOR = "-----------------------------------------" +
             "---------------------------------------";
 
@@ -20,6 +31,29 @@ public class Main {
      * @param args Input arguments
      */
     public static void main(String[] args) {
+        boolean preprocess = false;
+        boolean cube = false;
+        int threads = 1;
+        int first = 0;
+        while (first < args.length) {
+            if (args[first].equals(PREPROCESS_OPTION)) {
+                preprocess = true;
+                first++;
+            } else if (args[first].equals(CUBE_OPTION)) {
+                cube = true;
+                first++;
+            } else if (args[first].equals(THREADS_OPTION) && first + 1 < args.length) {
+                threads = parseThreads(args[first + 1]);
+                first += 2;
+            } else {
+                break;
+            }
+        }
+        if (preprocess && (threads > 1 || cube)) {
+            System.err.println("Preprocessing is not supported with more than one thread or cubes");
+            System.exit(1);
+        }
+        args = Arrays.copyOfRange(args, first, args.length);
         List<String> filePaths = getParams(args);
 
 
@@ -30,14 +64,61 @@ public class Main {
 
         for (String filePath : filePaths) {
             System.out.println("Processing: " + filePath);
-            ClauseSet clauseSet = new ClauseSet(filePath);
-            CDCL cdcl = new CDCL(clauseSet);
-            cdcl.solve();
+            ClauseSet clauseSet = null;
+            Portfolio portfolio = null;
+            CubeAndConquer cubeAndConquer = null;
+            try {
+                if (cube) {
+                    cubeAndConquer = new CubeAndConquer(new DIMACSStreamParser().parse(filePath), threads);
+                } else if (threads > 1) {
+                    portfolio = new Portfolio(new DIMACSStreamParser().parse(filePath), threads);
+                } else if (preprocess) {
+                    Preprocessor preprocessor = new Preprocessor(new DIMACSStreamParser().parse(filePath));
+                    clauseSet = preprocessor.preprocess();
+                    System.out.println(preprocessor);
+                } else {
+                    clauseSet = new ClauseSet(filePath);
+                }
+            } catch (DIMACSParseException e) {
+                System.err.println("Could not parse " + filePath + ": " + e.getMessage());
+                continue;
+            } catch (UncheckedIOException e) {
+                System.err.println("Could not read " + filePath + ": " + e.getCause().getMessage());
+                continue;
+            } catch (IOException e) {
+                System.err.println("Could not read " + filePath + ": " + e.getMessage());
+                continue;
+            }
+            if (cubeAndConquer != null) {
+                cubeAndConquer.solve();
+                System.out.println(cubeAndConquer);
+            } else if (portfolio != null) {
+                portfolio.solve();
+                System.out.println(portfolio);
+            } else {
+                CDCL cdcl = new CDCL(clauseSet);
+                cdcl.solve();
+                System.out.println(cdcl.getStatistics());
+            }
             System.out.println(PRINT_SEPERATOR);
         }
 
     }
 
+    private static int parseThreads(String value) {
+        try {
+            int threads = Integer.parseInt(value);
+            if (threads >= 1) {
+                return threads;
+            }
+        } catch (NumberFormatException e) {
+            //reported below
+        }
+        System.err.println("Invalid number of threads: " + value);
+        System.exit(1);
+        return 1;
+    }
+
     private static List<String> getParams(String[] args) {
         List<String> listOfFiles = new ArrayList<String>();
         if (args.length != 0) {
@@ -49,8 +130,10 @@ public class Main {
                 return listOfFiles;
             } else {
                 String USAGE_INSTRUCTION = "USAGE: \n" +
-                        "Main <Path to File> : " +
-                        "CDCL on single file\n" +
+                        "Main [-p] [-c] [-t <Threads>] <Path to File> : " +
+                        "CDCL on single file, -p simplifies the formula first, " +
+                        "-t runs a portfolio of differently configured solvers in parallel, " +
+                        "-c splits the formula into cubes that are solved by the threads\n" +
                         "OR\n" +
                         "Main <No Parameter>: program searches for folder small_aim and tests all contained files.\n";
                 System.out.print(USAGE_INSTRUCTION);
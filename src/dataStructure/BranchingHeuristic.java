@@ -0,0 +1,51 @@
+package dataStructure;
+
+/**
+ * Strategy that picks the next decision variable.
+ * The solver reports assignments, unassignments, conflicts and learned clauses,
+ * so an implementation can keep its scores up to date.
+ */
+public interface BranchingHeuristic {
+
+    /**
+     * Called once before the first decision.
+     *
+     * @param instance clause set the solver works on
+     */
+    void init(ClauseSet instance);
+
+    /**
+     * Returns the next decision variable.
+     *
+     * @return ID of an OPEN variable or 0 if all variables are assigned
+     */
+    int pickBranchVariable();
+
+    /**
+     * Called for every assigned variable after unit propagation, in trail order.
+     *
+     * @param var variable ID
+     */
+    void onAssign(int var);
+
+    /**
+     * Called for every variable that becomes unassigned on backtrack.
+     *
+     * @param var variable ID
+     */
+    void onUnassign(int var);
+
+    /**
+     * Called once per conflict after the analysis, before the solver jumps back.
+     *
+     * @param conflictVariables IDs of all variables resolved or collected during the analysis
+     */
+    void onConflict(IntVec conflictVariables);
+
+    /**
+     * Called for every learned clause, while the assignment of the conflict is still on the trail.
+     *
+     * @param literals encoded literals of the learned clause
+     */
+    void onLearnedClause(IntVec literals);
+}
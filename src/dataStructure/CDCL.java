@@ -1,8 +1,6 @@
 package dataStructure;
 
-import java.util.ArrayList;
-import java.util.Stack;
-import java.util.Vector;
+import java.util.Random;
 
 /**
  * Created by Benjamin Vollmer 3590766 und Kien-Van Quang 3746183 on 12.12.16.
@@ -12,10 +10,94 @@ public class CDCL {
     //set this flag, if you want more output in your tests
     public boolean verboseOutput;
 
-    protected Stack<Variable> stack;
+    /* Outcomes of a search, UNKNOWN if it was interrupted or reached the iteration limit */
+    public enum Result {
+        SAT, UNSAT, UNKNOWN
+    }
+
+    /* Messages of the results, also printed by solvers that combine the results of several CDCL searches */
+    static final String MODEL_FOUND = "Model for DIMACS equation was found!";
+    static final String EMPTY_CLAUSE_UNSAT = "Could not find a solution for empty clause: UNSAT";
+
+    /* Share of decisions on a random variable, if a random seed is set */
+    private static final double RANDOM_DECISION_FREQUENCY = 0.01;
+
     protected ClauseSet instance;
-    private Vector<Clause> learnedClauses;
-    private boolean DEFAULT_ASSING = false;
+
+    /* Keeps the learned clauses of the instance bounded */
+    private LearnedClauseDatabase clauseDatabase;
+
+    /* Reusable buffer for the clause learned in conflict analysis */
+    private IntVec learned;
+
+    /* Marks variables already visited in conflict analysis, indexed by ID */
+    private boolean[] seen;
+
+    /* Modes of learned clause minimization */
+    public enum MinimizationMode {
+        NONE, LOCAL, RECURSIVE
+    }
+
+    private MinimizationMode minimizationMode = MinimizationMode.RECURSIVE;
+
+    /* Literals marked in seen during analysis and minimization, to be cleared afterwards */
+    private IntVec analyseToClear;
+
+    /* Work stack of the recursive minimization */
+    private IntVec minimizeStack;
+
+    /* Variables seen in the last conflict analysis */
+    private IntVec conflictVariables;
+
+    /* Strategy for decisions, initialized on the first call of solve */
+    private BranchingHeuristic heuristic = HeuristicType.EVSIDS.create();
+    private boolean heuristicInitialized = false;
+
+    /* Simplifies the clause set at level 0 during search */
+    private Inprocessor inprocessor;
+
+    /* Decides when to jump back to level 0 */
+    private RestartPolicy restartPolicy = RestartStrategy.LUBY.create();
+
+    /* Stamp per decision level, used to count the distinct levels of a learned clause */
+    private long[] levelStamps;
+    private long lbdStamp = 0;
+
+    /* Trail position up to which the heuristic was told about assignments */
+    private int notifiedTrailSize = 0;
+
+    /* Check the model against all original clauses before reporting SAT */
+    private boolean verifyModel = true;
+
+    /* Source of random decisions, null for none */
+    private Random random;
+
+    /* Suppresses the messages about the result of every call of solve */
+    private boolean quiet = false;
+
+    /* Outcome of the last call of solve */
+    private Result result = Result.UNKNOWN;
+
+    /* Set by another thread to stop the search */
+    private volatile boolean interrupted = false;
+
+    /* Learned clauses shared with other solvers on the same formula, null if none */
+    private ClauseExchange exchange;
+    private int exchangeIndex;
+
+    /* Reusable buffer for imported clauses */
+    private IntVec imported;
+
+    /* Encoded literals assumed in the current call of solve, decided first and in this order */
+    private int[] assumptions = new int[0];
+
+    /* Assumptions that cannot be true together, as DIMACS literals, after UNSAT under assumptions */
+    private IntVec finalConflict;
+
+    /* Conflicts allowed per call of solve, negative for no limit */
+    private long conflictBudget = -1;
+    private long conflictLimit;
+
     private int MAX_ITERATIONS = 10000;
     private int iterationCounter = 0;
 
@@ -27,62 +109,182 @@ public class CDCL {
      */
     public CDCL(ClauseSet instance) {
         this.instance = instance;
-        this.stack = new Stack<Variable>();
-        this.learnedClauses = new Stack<Clause>();
+        this.clauseDatabase = new LearnedClauseDatabase(instance);
+        this.inprocessor = new Inprocessor(instance);
+        this.learned = new IntVec();
+        this.analyseToClear = new IntVec();
+        this.minimizeStack = new IntVec();
+        this.conflictVariables = new IntVec();
+        this.imported = new IntVec();
+        this.finalConflict = new IntVec();
+        this.seen = new boolean[instance.getVariableTable().getVarNum() + 1];
+        this.levelStamps = new long[instance.getVariableTable().getVarNum() + 1];
     }
 
     /**
      * Performs CDCL on given instance.
+     * The outcome is kept, see {@link #getResult()}: false can also mean that the search was interrupted.
      *
      * @return Returns true if SAT
      */
     public boolean solve() {
-        stack = new Stack<Variable>();
+        return solve(new int[0]);
+    }
+
+    /**
+     * Performs CDCL on given instance under assumptions. The assumptions are decided first, in the given
+     * order, so they hold only for this call. Learned clauses, activities and saved phases are kept
+     * between calls, the iteration limit applies to every call on its own. After a result other than SAT
+     * the solver is back at level 0.
+     *
+     * @param assumptions DIMACS literals that have to be true in the model
+     * @return Returns true if SAT, false if UNSAT under the assumptions or the search was stopped
+     */
+    public boolean solve(int[] assumptions) {
+        int varNum = instance.getVariableTable().getVarNum();
+        this.assumptions = new int[assumptions.length];
+        for (int i = 0; i < assumptions.length; i++) {
+            if (assumptions[i] == 0 || Math.abs(assumptions[i]) > varNum) {
+                throw new IllegalArgumentException("Invalid assumption: " + assumptions[i]);
+            }
+            if (instance.isRemoved(Math.abs(assumptions[i]))) {
+                throw new IllegalStateException("Variable " + Math.abs(assumptions[i])
+                        + " was removed by preprocessing, it has to be frozen");
+            }
+            this.assumptions[i] = Literal.fromDimacs(assumptions[i]);
+        }
+        for (int assumption : assumptions) {
+            //an assumption on a variable without clauses makes it part of the model
+            useVariable(Math.abs(assumption));
+        }
+        if (levelStamps.length <= varNum + assumptions.length) {
+            //every assumption may open a level without assigning a variable
+            levelStamps = new long[varNum + assumptions.length + 1];
+        }
+        conflictLimit = instance.getStatistics().conflicts + conflictBudget;
+        iterationCounter = 0;
+        finalConflict.clear();
+        result = search();
+        //an interrupt stops one call, the next one searches again
+        interrupted = false;
+        if (result != Result.SAT) {
+            backtrack(0);
+        }
+        return result == Result.SAT;
+    }
+
+    private Result search() {
+        if (!instance.isOk()) {
+            printResult(EMPTY_CLAUSE_UNSAT);
+            return Result.UNSAT;
+        }
+        if (!heuristicInitialized) {
+            heuristic.init(instance);
+            heuristicInitialized = true;
+        }
+        //the model of the last call is still on the trail
+        instance.retractModelExtension();
+        backtrack(0);
         while (true) {
             if (verboseOutput) {
                 printResultStack();
             }
-            Clause emptyClause = instance.unitPropagation(stack);
-            if (emptyClause != null) {
+            int conflict = instance.propagate();
+            notifyAssignments();
+            if (conflict != ClauseArena.CREF_UNDEF) {
+                instance.getStatistics().conflicts++;
                 if (verboseOutput)
-                    System.out.println("!: Empty Clause! " + emptyClause.toString() + "\nAnalyse conflict..");
+                    System.out.println("!: Empty Clause! " + getClause(conflict).toString() + "\nAnalyse conflict..");
 
-                if (!handleEmptyClause(emptyClause)) {
-                    System.out.println("Could not find a solution for empty clause: UNSAT");
+                if (!handleEmptyClause(conflict)) {
+                    instance.setUnsatisfiable();
+                    printResult(EMPTY_CLAUSE_UNSAT);
                     if (verboseOutput)
                         printUNSATClauses();
-                    return false; //UNSAT
+                    return Result.UNSAT;
                 }
             } else {
+                if (clauseDatabase.reduceDue(instance.getStatistics().conflicts)) {
+                    clauseDatabase.reduce();
+                }
+                if (restartPolicy.shouldRestart() && instance.getDecisionLevel() > 0) {
+                    if (verboseOutput)
+                        System.out.println("> Restart");
+                    backtrack(0);
+                    restartPolicy.onRestart();
+                    instance.getStatistics().restarts++;
+                    continue;
+                }
+                if (exchange != null && instance.getDecisionLevel() == 0) {
+                    int trailSize = instance.getTrailSize();
+                    if (!importClauses()) {
+                        instance.setUnsatisfiable();
+                        printResult(EMPTY_CLAUSE_UNSAT);
+                        return Result.UNSAT;
+                    }
+                    if (instance.getTrailSize() > trailSize) {
+                        //imported units have to be propagated before the next decision
+                        continue;
+                    }
+                }
+                if (inprocessor.isDue(instance.getStatistics().conflicts)) {
+                    backtrack(0);
+                    if (!inprocessor.inprocess()) {
+                        instance.setUnsatisfiable();
+                        printResult(EMPTY_CLAUSE_UNSAT);
+                        return Result.UNSAT;
+                    }
+                    continue;
+                }
+                if (instance.getDecisionLevel() < assumptions.length) {
+                    int assumption = assumptions[instance.getDecisionLevel()];
+                    byte value = instance.getVariableTable().literalValue(assumption);
+                    if (value == VariableTable.FALSE) {
+                        analyseFinal(assumption);
+                        printResult("Could not find a solution under the assumptions: UNSAT");
+                        return Result.UNSAT;
+                    }
+                    //an assumption that is already true gets an empty level
+                    instance.newDecisionLevel();
+                    if (value == VariableTable.OPEN) {
+                        instance.enqueue(assumption, ClauseArena.CREF_UNDEF);
+                    }
+                    continue;
+                }
                 if (modelFound()) {
-                    System.out.println("Model for DIMACS equation was found!");
-                    printResultStack();
-                    return true; //SAT
+                    return reportModel();
                 }
 
-                instance.setGlobalLevel(instance.getGlobalLevel() + 1);
                 Variable nextVar = getNextVar();
                 if (nextVar == null) {
-                    System.out.println(">> No next or OPEN variable!: UNSAT");
+                    if (allClausesSatisfied()) {
+                        //a fixed decision order may leave variables open that are not needed
+                        return reportModel();
+                    }
+                    printResult(">> No next or OPEN variable!: UNSAT");
                     if (verboseOutput)
                         printUNSATClauses();
-                    return false;
+                    return Result.UNSAT;
                 }
                 if (verboseOutput)
                     System.out.println("> Next decision Var: " + nextVar.getId());
-                lowerActivityOfAllVariables();
-                instance.decisionAssignVariable(nextVar, DEFAULT_ASSING);
-                stack.push(nextVar);
+                instance.getStatistics().decisions++;
+                instance.newDecisionLevel();
+                instance.decisionAssignVariable(nextVar);
+            }
+
+            if (interrupted || (conflictBudget >= 0 && instance.getStatistics().conflicts >= conflictLimit)) {
+                return Result.UNKNOWN;
             }
 
             //safety feature
             iterationCounter++;
             if (iterationCounter > MAX_ITERATIONS) {
-                System.out.println("Maximum iterations reached!!!");
+                printResult("Maximum iterations reached!!!");
                 break;
             }
         }
-        return false;
+        return Result.UNKNOWN;
     }
 
     /**
@@ -93,75 +295,165 @@ public class CDCL {
         System.out.flush();
     }
 
+    private void printResult(String message) {
+        if (!quiet) {
+            System.out.println(message);
+        }
+    }
+
     /**
      * Prints all unsatisfied clauses
      */
     public void printUNSATClauses() {
         System.out.println("UNSAT Clauses");
         for (Clause clause : instance.getClauses()) {
-            if (clause.getState(instance.getVariables()) != Clause.ClauseState.SAT) {
-                System.out.println(clause.toString() + " STATE: " + clause.getState(instance.getVariables()));
+            if (clause.getState(instance.getVariableTable()) != Clause.ClauseState.SAT) {
+                System.out.println(clause.toString() + " STATE: " + clause.getState(instance.getVariableTable()));
             }
         }
     }
 
+    private Clause getClause(int cref) {
+        return new Clause(instance.getArena(), cref);
+    }
+
     /**
      * Handles empty clauses.
      *
-     * @param emptyClause the empty clause of the conflict
+     * @param conflict reference of the empty clause of the conflict
      * @return false if no clause could be learned OR backtracklevel == -1
      */
-    private boolean handleEmptyClause(Clause emptyClause) {
-        //remove if unit
-        if (instance.getUnits().contains(emptyClause)) {
-            instance.getUnits().remove(instance.getUnits().indexOf(emptyClause));
+    private boolean handleEmptyClause(int conflict) {
+        if (instance.getDecisionLevel() == 0) {
+            //conflict without any decision
+            return false;
         }
         //learn new clause
-        @SuppressWarnings("unchecked") Clause learnedClause =
-                analyseConflict(emptyClause, (Stack<Variable>) stack.clone());
-        if (learnedClause == null) {
-            return false;
+        int backTrackLevel = analyseConflict(conflict);
+        heuristic.onConflict(conflictVariables);
+        heuristic.onLearnedClause(learned);
+        int lbd = computeLBD(learned);
+        restartPolicy.onConflict(lbd, instance.getTrailSize());
+        int consistentSize = instance.getLevelStart(instance.getDecisionLevel() - 1);
+        if (instance.getPhaseSelector().onConflict(instance.getVariableTable(), instance.getTrail(), consistentSize)) {
+            instance.getStatistics().rephases++;
+        }
+        backtrack(backTrackLevel);
+
+        int existing = instance.findLearnedClause(learned);
+        if (existing == ClauseArena.CREF_UNDEF) {
+            //clause not learned yet, the first two literals become its watched literals
+            int cref = instance.addClause(learned, true);
+            Clause learnedClause = getClause(cref);
+            if (learned.size() > 1) {
+                instance.enqueue(learned.get(0), cref);
+            }
+            if (verboseOutput)
+                System.out.println("> Learned new Clause " + learnedClause.toString());
+            clauseDatabase.onLearned(cref, lbd);
+            if (exchange != null && exchange.export(exchangeIndex, learned, lbd)) {
+                instance.getStatistics().exportedClauses++;
+            }
         } else {
-            int backTrackLevel = getBackTrackLevel(learnedClause);
-            if (backTrackLevel == -1) {
-                return false; //UNSAT
+            if (learned.size() > 1) {
+                instance.rewatchClause(existing, learned.get(0), learned.get(1));
             }
-            backtrack(backTrackLevel);
-            instance.setGlobalLevel(Math.max(backTrackLevel, 0));
-
-            if (!clauseAlreadyLearned(learnedClause)) {
-                //clause not learned yet
-                //init its watched literals
-                Clause.ClauseState learnedClauseState = learnedClause.initWatch(instance.getVariables());
-                if (learnedClauseState == Clause.ClauseState.UNIT) {
-                    //instance.getUnits().add(0, learnedClause);
-                    instance.getUnits().add(learnedClause);
+            instance.enqueue(learned.get(0), existing);
+            instance.getStatistics().duplicateClauses++;
+        }
+        clauseDatabase.decayActivity();
+        if (verboseOutput)
+            System.out.println("Backtrack level: " + instance.getDecisionLevel());
+        return true;
+    }
+
+    /**
+     * Adds the clauses exported by the other solvers since the last import, at level 0.
+     * Satisfied clauses and clauses already learned are skipped, false literals are removed.
+     * Units are put on the trail.
+     *
+     * @return false if an imported clause is empty under the units
+     */
+    private boolean importClauses() {
+        VariableTable table = instance.getVariableTable();
+        Statistics statistics = instance.getStatistics();
+        int lbd;
+        while ((lbd = exchange.poll(exchangeIndex, imported)) > 0) {
+            int j = 0;
+            boolean satisfied = false;
+            for (int i = 0; i < imported.size(); i++) {
+                int literal = imported.get(i);
+                byte value = table.literalValue(literal);
+                if (value == VariableTable.TRUE) {
+                    satisfied = true;
+                    break;
+                }
+                if (value == VariableTable.OPEN) {
+                    imported.set(j++, literal);
                 }
-                if (verboseOutput)
-                    System.out.println("> Learned new Clause " + learnedClause.toString() + " STATE: " + learnedClauseState);
-                raiseActivityOfVariablesInClause(learnedClause);
-                //add to list of clauses
-                instance.getClauses().add(learnedClause);
-                //add to list of learned clauses
-                learnedClauses.add(learnedClause);
             }
-            if (verboseOutput)
-                System.out.println("Backtrack level: " + instance.getGlobalLevel());
+            imported.shrink(j);
+            if (satisfied || (j > 1 && instance.findLearnedClause(imported) != ClauseArena.CREF_UNDEF)) {
+                statistics.rejectedImports++;
+                continue;
+            }
+            if (j == 0) {
+                return false;
+            }
+            int cref = instance.addClause(imported, true);
+            clauseDatabase.onLearned(cref, Math.min(lbd, j));
+            statistics.importedClauses++;
         }
         return true;
     }
 
+    /**
+     * Jumps back to the given level and tells the heuristic about the unassigned variables.
+     *
+     * @param backTrackLevel level to jump back to
+     */
     private void backtrack(int backTrackLevel) {
-        while (!stack.isEmpty() && stack.peek().getLevel() > backTrackLevel) {
-            Variable backTrackVar = stack.pop();
-            backTrackVar.unassign();
+        if (instance.getDecisionLevel() <= backTrackLevel) {
+            return;
         }
-        //instance.updateUnits();
+        int[] trail = instance.getTrail();
+        int levelStart = instance.getLevelStart(backTrackLevel);
+        for (int i = instance.getTrailSize() - 1; i >= levelStart; i--) {
+            heuristic.onUnassign(Literal.var(trail[i]));
+        }
+        instance.cancelUntil(backTrackLevel);
+        notifiedTrailSize = Math.min(notifiedTrailSize, levelStart);
+    }
+
+    /**
+     * Tells the heuristic about all assignments since the last call.
+     */
+    private void notifyAssignments() {
+        int[] trail = instance.getTrail();
+        for (int i = notifiedTrailSize; i < instance.getTrailSize(); i++) {
+            heuristic.onAssign(Literal.var(trail[i]));
+        }
+        notifiedTrailSize = instance.getTrailSize();
     }
 
+    /**
+     * Checks if the assignment is complete. After propagation without conflict a complete
+     * assignment satisfies all clauses, so no clause has to be looked at.
+     *
+     * @return true if every variable of the formula is assigned
+     */
     private boolean modelFound() {
+        return instance.getTrailSize() == instance.getUsedVarNum();
+    }
+
+    /**
+     * Scans all original clauses, learned clauses are implied by them.
+     *
+     * @return true if the current assignment satisfies every original clause
+     */
+    private boolean allClausesSatisfied() {
         for (Clause clause : instance.getClauses()) {
-            if (clause.getState(instance.getVariables()) != Clause.ClauseState.SAT) {
+            if (clause.getState(instance.getVariableTable()) != Clause.ClauseState.SAT) {
                 return false;
             }
         }
@@ -169,193 +461,316 @@ public class CDCL {
     }
 
     /**
-     * Calculates Resovle of c1 and c2
+     * Extends the model to the variables removed by preprocessing and prints it after it was verified, if enabled.
+     * A preprocessed model is verified against the clauses of the solver and the formula before preprocessing.
      *
-     * @param c1 Clause
-     * @param c2 Clause
-     * @return resolvent clause
+     * @return SAT
      */
-    private Clause resolve(Clause c1, Clause c2) {
-        Vector<Integer> resolvedClause = new Vector<Integer>();
-        resolvedClause.addAll(c1.getLiterals());
-        for (Integer integer : c2.getLiterals()) {
-            if (resolvedClause.contains(integer * -1)) {
-                resolvedClause.remove(resolvedClause.indexOf(integer * -1));
-                continue;
-            }
-            if (!resolvedClause.contains(integer)) {
-                resolvedClause.add(resolvedClause.size(), integer);
-            }
-
+    private Result reportModel() {
+        instance.extendModel();
+        if (verifyModel && (!allClausesSatisfied() || !instance.satisfiesOriginalFormula())) {
+            throw new IllegalStateException("Model does not satisfy all clauses");
         }
-        if (resolvedClause.size() != 0) {
-            return new Clause(resolvedClause);
+        if (!quiet) {
+            System.out.println(MODEL_FOUND);
+            printResultStack();
         }
-        // If after applying a resolution rule the empty
-        // clause is derived, the original formula
-        // is unsatisfiable (or contradictory).
-        return null;
+        return Result.SAT;
     }
 
     /**
-     * Calculates 1UP Clause on the basis of an empty clause and a reason clause
-     * Unassigned given variable
+     * Learns the first UIP clause of a conflict.
+     * Walks the trail backwards once. Literals of the conflict and of the visited reasons are
+     * marked in seen; literals below the conflict level go to the learned clause, literals on
+     * the conflict level are counted until only one (the UIP) is left.
+     * Literals of level 0 are left out because they are false forever.
+     * The clause is minimized afterwards (see {@link #minimizeLearnedClause()}).
+     * The result is stored in learned, with the asserting literal first and the literal
+     * with the highest remaining level second.
      *
-     * @param conflict       Empty Clause
-     * @param reasonVariable Clause
-     * @return returns 1UIP OR Null if failed
+     * @param conflict reference of the empty clause
+     * @return the level to which one has to jump back
      */
-    private Clause get1UIP(Clause conflict, Variable reasonVariable, Stack<Variable> stackCopy) {
-        Clause resolvedClause = null;
-        if (reasonVariable.getReason() == null) {
-            //was decision
-            return learnedClauseFromDecision(reasonVariable);
-        } else {
-            if (conflict.containsVariable(reasonVariable)) {
-                resolvedClause = resolve(conflict, reasonVariable.getReason());
-                if (resolvedClause != null && checkIf1UIP(resolvedClause)) {
-                    //reasonVariable.unassign(instance.getVariables(), instance.getUnits());
-                    return resolvedClause;
+    private int analyseConflict(int conflict) {
+        VariableTable table = instance.getVariableTable();
+        ClauseArena arena = instance.getArena();
+        int[] trail = instance.getTrail();
+        int conflictLevel = instance.getDecisionLevel();
+        learned.clear();
+        learned.push(0); //placeholder for the asserting literal
+        conflictVariables.clear();
+
+        int pathCount = 0;
+        int uip = 0;
+        int index = instance.getTrailSize() - 1;
+        int reason = conflict;
+        do {
+            int[] data = arena.getData();
+            int start = arena.start(reason);
+            int end = start + arena.size(reason);
+            if (arena.isLearned(reason)) {
+                int lbd = arena.getLBD(reason);
+                clauseDatabase.onAnalyzed(reason, lbd <= LearnedClauseDatabase.CORE_LBD ? lbd
+                        : computeLBD(data, start, end));
+            }
+            for (int i = start; i < end; i++) {
+                int literal = data[i];
+                int var = Literal.var(literal);
+                if (uip != 0 && var == Literal.var(uip)) {
+                    //the implied literal of the reason
+                    continue;
+                }
+                if (!seen[var] && table.getLevel(var) > 0) {
+                    seen[var] = true;
+                    conflictVariables.push(var);
+                    if (table.getLevel(var) >= conflictLevel) {
+                        pathCount++;
+                    } else {
+                        learned.push(literal);
+                    }
                 }
             }
-            if (!stackCopy.isEmpty()) {
-                Variable var = stackCopy.pop();
-                if (resolvedClause != null) {
-                    return get1UIP(resolvedClause, var, stackCopy);
-                } else {
-                    return get1UIP(conflict, var, stackCopy);
+            //next marked literal on the trail
+            while (!seen[Literal.var(trail[index])]) {
+                index--;
+            }
+            uip = trail[index];
+            index--;
+            reason = table.getReason(Literal.var(uip));
+            seen[Literal.var(uip)] = false;
+            pathCount--;
+        } while (pathCount > 0);
+        learned.set(0, Literal.negate(uip));
+
+        instance.getStatistics().learnedLiteralsBeforeMinimization += learned.size();
+        minimizeLearnedClause();
+        instance.getStatistics().learnedLiterals += learned.size();
+
+        //find the literal with the highest level below the conflict level
+        int backTrackLevel = 0;
+        if (learned.size() > 1) {
+            int maxIndex = 1;
+            for (int i = 2; i < learned.size(); i++) {
+                if (table.getLevel(Literal.var(learned.get(i))) > table.getLevel(Literal.var(learned.get(maxIndex)))) {
+                    maxIndex = i;
                 }
             }
+            int tmp = learned.get(1);
+            learned.set(1, learned.get(maxIndex));
+            learned.set(maxIndex, tmp);
+            backTrackLevel = table.getLevel(Literal.var(learned.get(1)));
+        }
+        for (int i = 0; i < analyseToClear.size(); i++) {
+            seen[Literal.var(analyseToClear.get(i))] = false;
+        }
+        return backTrackLevel;
+    }
 
+    /**
+     * Collects the assumptions that imply the negation of a false assumption into the final conflict.
+     * Follows the reasons from the assumption back to the decisions, which are all assumptions
+     * at this point.
+     *
+     * @param assumption encoded assumption that is false
+     */
+    private void analyseFinal(int assumption) {
+        VariableTable table = instance.getVariableTable();
+        ClauseArena arena = instance.getArena();
+        int[] trail = instance.getTrail();
+        finalConflict.clear();
+        finalConflict.push(Literal.toDimacs(assumption));
+        if (table.getLevel(Literal.var(assumption)) == 0) {
+            //false without any assumption
+            return;
+        }
+        seen[Literal.var(assumption)] = true;
+        for (int i = instance.getTrailSize() - 1; i >= instance.getLevelStart(0); i--) {
+            int var = Literal.var(trail[i]);
+            if (!seen[var]) {
+                continue;
+            }
+            int reason = table.getReason(var);
+            if (reason == ClauseArena.CREF_UNDEF) {
+                finalConflict.push(Literal.toDimacs(trail[i]));
+            } else {
+                int[] data = arena.getData();
+                int start = arena.start(reason);
+                int end = start + arena.size(reason);
+                for (int k = start; k < end; k++) {
+                    int reasonVar = Literal.var(data[k]);
+                    if (reasonVar != var && table.getLevel(reasonVar) > 0) {
+                        seen[reasonVar] = true;
+                    }
+                }
+            }
+            seen[var] = false;
         }
-        return null;
     }
 
-    private Clause learnedClauseFromDecision(Variable decisionVariable) {
-        Vector<Integer> uipLiteral = new Vector<Integer>();
-        if (decisionVariable.getState() == Variable.State.FALSE) {
-            uipLiteral.add(decisionVariable.getId());
+    /**
+     * Removes redundant literals from the learned clause.
+     * A literal is redundant if it is implied by the other literals of the clause.
+     * LOCAL only checks the reason of the literal itself (self-subsuming resolution),
+     * RECURSIVE follows the reasons down the implication graph (as in MiniSat). The search is
+     * cut early with an abstraction of the levels in the clause: a literal from a level that
+     * does not occur in the clause can never be implied by it.
+     */
+    private void minimizeLearnedClause() {
+        VariableTable table = instance.getVariableTable();
+        ClauseArena arena = instance.getArena();
+        analyseToClear.clear();
+        for (int i = 0; i < learned.size(); i++) {
+            analyseToClear.push(learned.get(i));
+        }
+        if (minimizationMode == MinimizationMode.NONE) {
+            return;
+        }
+        int j = 1;
+        if (minimizationMode == MinimizationMode.RECURSIVE) {
+            int abstractLevels = 0;
+            for (int i = 1; i < learned.size(); i++) {
+                abstractLevels |= abstractLevel(Literal.var(learned.get(i)));
+            }
+            for (int i = 1; i < learned.size(); i++) {
+                int literal = learned.get(i);
+                if (table.getReason(Literal.var(literal)) == ClauseArena.CREF_UNDEF
+                        || !literalRedundant(literal, abstractLevels)) {
+                    learned.set(j++, literal);
+                }
+            }
         } else {
-            uipLiteral.add(decisionVariable.getId() * -1);
+            for (int i = 1; i < learned.size(); i++) {
+                int literal = learned.get(i);
+                int var = Literal.var(literal);
+                int reason = table.getReason(var);
+                if (reason == ClauseArena.CREF_UNDEF) {
+                    learned.set(j++, literal);
+                    continue;
+                }
+                int[] data = arena.getData();
+                int start = arena.start(reason);
+                int end = start + arena.size(reason);
+                for (int k = start; k < end; k++) {
+                    int reasonVar = Literal.var(data[k]);
+                    if (reasonVar != var && !seen[reasonVar] && table.getLevel(reasonVar) > 0) {
+                        learned.set(j++, literal);
+                        break;
+                    }
+                }
+            }
         }
-        return new Clause(uipLiteral);
+        learned.shrink(j);
     }
 
     /**
-     * Definition 1UIP: only one variable has highest level
+     * Checks if a literal of the learned clause is implied by the other literals.
+     * Variables proven to be implied stay marked in seen, so later checks can stop there.
      *
-     * @param clause
-     * @return true if clause is 1UIP
+     * @param literal        literal of the learned clause
+     * @param abstractLevels abstraction of the levels in the learned clause
+     * @return true if the literal can be removed
      */
-    private boolean checkIf1UIP(Clause clause) {
-        int maxLevel = 0;
-        boolean onlyOneMaxLevel = true;
-        for (Integer literal : clause.getLiterals()) {
-            Variable var = instance.getVariables().get(Math.abs(literal));
-            if (var.getLevel() > maxLevel) {
-                maxLevel = var.getLevel();
-                onlyOneMaxLevel = true;
-            } else if (var.getLevel() == maxLevel) {
-                onlyOneMaxLevel = false;
+    private boolean literalRedundant(int literal, int abstractLevels) {
+        VariableTable table = instance.getVariableTable();
+        ClauseArena arena = instance.getArena();
+        minimizeStack.clear();
+        minimizeStack.push(literal);
+        int top = analyseToClear.size();
+        while (!minimizeStack.isEmpty()) {
+            int impliedVar = Literal.var(minimizeStack.pop());
+            int reason = table.getReason(impliedVar);
+            int[] data = arena.getData();
+            int start = arena.start(reason);
+            int end = start + arena.size(reason);
+            for (int k = start; k < end; k++) {
+                int reasonLiteral = data[k];
+                int var = Literal.var(reasonLiteral);
+                if (var == impliedVar || seen[var] || table.getLevel(var) == 0) {
+                    continue;
+                }
+                if (table.getReason(var) != ClauseArena.CREF_UNDEF
+                        && (abstractLevel(var) & abstractLevels) != 0) {
+                    seen[var] = true;
+                    minimizeStack.push(reasonLiteral);
+                    analyseToClear.push(reasonLiteral);
+                } else {
+                    //reached a decision or a foreign level, undo the marks of this check
+                    for (int i = top; i < analyseToClear.size(); i++) {
+                        seen[Literal.var(analyseToClear.get(i))] = false;
+                    }
+                    analyseToClear.shrink(top);
+                    return false;
+                }
             }
         }
-        return onlyOneMaxLevel;
+        return true;
     }
 
-
     /**
-     * Tracks reason of conflict with the last variable on the stack.
-     * Learns a new clause (1UP) from the conflict and returns the level
-     * to which one has to jump back
-     * Adds learned clauses to ClauseSet
+     * Computes the literal block distance, the number of distinct decision levels in a clause.
+     * Must be called before backtracking, while the literals are still assigned.
      *
-     * @param conflict Empty clause
-     * @return Learned Clause
+     * @param literals encoded literals
+     * @return number of distinct levels
      */
-    private Clause analyseConflict(Clause conflict, Stack<Variable> stackCopy) {
-        //if (!stackCopy.isEmpty() && instance.getGlobalLevel() != 0) {
-        if (!stackCopy.isEmpty()) {
-            //last non conflict assigned
-            Variable reasonVariable = null;
-            reasonVariable = stackCopy.pop();
-            return get1UIP(conflict, reasonVariable, stackCopy);
-        }
-        return null;
+    private int computeLBD(IntVec literals) {
+        return computeLBD(literals.getData(), 0, literals.size());
     }
 
-
-    private int getBackTrackLevel(Clause clause) {
-        if (clause == null) {
-            return -1;
-        }
-        if (clause.getLiterals().size() == 1) {
-            //decision clause
-            return instance.getVariables().get(Math.abs(clause.getLiterals().get(0))).getLevel() - 1;
-        }
-        int maxLevel = -1;
-        int secondMaxLevel = -1;
-        for (Integer literal : clause.getLiterals()) {
-            Variable var = instance.getVariables().get(Math.abs(literal));
-            if (var.getLevel() > maxLevel) {
-                secondMaxLevel = maxLevel;
-                maxLevel = var.getLevel();
-            } else if (var.getLevel() > secondMaxLevel) {
-                secondMaxLevel = var.getLevel();
+    /**
+     * Computes the literal block distance of the literals data[from] to data[to - 1].
+     *
+     * @param data array holding the literals
+     * @param from index of the first literal
+     * @param to   index after the last literal
+     * @return number of distinct levels
+     */
+    private int computeLBD(int[] data, int from, int to) {
+        VariableTable table = instance.getVariableTable();
+        lbdStamp++;
+        int lbd = 0;
+        for (int i = from; i < to; i++) {
+            int level = table.getLevel(Literal.var(data[i]));
+            if (levelStamps[level] != lbdStamp) {
+                levelStamps[level] = lbdStamp;
+                lbd++;
             }
         }
-        return secondMaxLevel;
+        return lbd;
+    }
+
+    private int abstractLevel(int var) {
+        return 1 << (instance.getVariableTable().getLevel(var) & 31);
     }
 
 
     /**
-     * Returns varianle with highest activity
+     * Returns the variable chosen by the branching heuristic, or a random one if random decisions are enabled
      *
      * @return next variable that has to be assigned.
      * Null if no matching variable found
      * && if no State.OPEN variable found
      */
     protected Variable getNextVar() {
-        Variable maxActivityVariable = null;
-        for (Variable var : this.instance.getVariables().values()) {
-            if (var.getState() != Variable.State.OPEN) {
-                //skip variable if it is not open
-                continue;
-            }
-            if (maxActivityVariable == null) {
-                maxActivityVariable = var;
-                continue;
-            }
-            if (var.getActivity() > maxActivityVariable.getActivity()) {
-                maxActivityVariable = var;
-            }
+        int var = 0;
+        if (random != null && random.nextDouble() < RANDOM_DECISION_FREQUENCY) {
+            var = pickRandomVariable();
         }
-        return maxActivityVariable;
-    }
-
-    private void raiseActivityOfVariablesInClause(Clause clause) {
-        for (Integer literal : clause.getLiterals()) {
-            Variable variable = instance.getVariables().get(Math.abs(literal));
-            variable.setActivity(variable.getActivity() * 1.10f);
+        if (var == 0) {
+            var = heuristic.pickBranchVariable();
         }
+        return var == 0 ? null : instance.getVariableTable().get(var);
     }
 
     /**
-     * Lowers the activity of all variables with
-     * factor 0.95 float
+     * Draws one variable. The heuristic keeps it in its order and skips it while it is assigned.
+     *
+     * @return ID of an OPEN variable or 0 if the drawn one is assigned or does not occur
      */
-    private void lowerActivityOfAllVariables() {
-        for (Variable variable : instance.getVariables().values()) {
-            variable.setActivity(variable.getActivity() * 0.95f);
-        }
-    }
-
-    private boolean clauseAlreadyLearned(Clause c) {
-        for (Clause clause : learnedClauses) {
-            if (clause.equals(c)) {
-                return true;
-            }
-        }
-        return false;
+    private int pickRandomVariable() {
+        VariableTable table = instance.getVariableTable();
+        int var = 1 + random.nextInt(table.getVarNum());
+        return table.get(var) != null && table.value(var) == VariableTable.OPEN ? var : 0;
     }
 
     @Override
@@ -363,10 +778,10 @@ public class CDCL {
         String result = "Iterations: " + iterationCounter + "\n";
         result += String.format("%5s|%5s|%10s|%10s|%50s|\n", "Nr", "Lvl", "ID", "STATE", "Reason");
         result += String.format("%84s|\n", "").replace(" ", "-");
-        ArrayList<Variable> stackList = new ArrayList<Variable>(stack);
+        int[] trail = instance.getTrail();
         int rowIndex = 1;
-        for (Variable var : stackList) {
-            //Variable var = (Variable) copiedStack.pop();
+        for (int i = 0; i < instance.getTrailSize(); i++) {
+            Variable var = instance.getVariableTable().get(Literal.var(trail[i]));
             if (var.getReason() == null) {
                 result += String.format("%5d|%5d|%10d|%10s|%50s|\n", rowIndex, var.getLevel(),
                         var.getId(), var.getState().toString(), "Decision");
@@ -379,13 +794,224 @@ public class CDCL {
             rowIndex++;
         }
         result += "Learned clauses:\n";
-        for (Clause learned : learnedClauses) {
-            result += learned.toString() + "\n";
+        IntVec learnts = instance.getLearnts();
+        for (int i = 0; i < learnts.size(); i++) {
+            result += getClause(learnts.get(i)).toString() + "\n";
+        }
+        return result;
+    }
+
+    public Statistics getStatistics() {
+        return instance.getStatistics();
+    }
+
+    public ClauseSet getInstance() {
+        return instance;
+    }
+
+    LearnedClauseDatabase getClauseDatabase() {
+        return clauseDatabase;
+    }
+
+    /**
+     * Adds a clause between calls of solve. The solver jumps back to level 0 first, so the model of the
+     * last call is lost. Learned clauses, activities and saved phases are kept.
+     *
+     * @param literals DIMACS literals, see {@link ClauseSet#addClause(int[])}
+     * @return false if the clause set became unsatisfiable
+     */
+    public boolean addClause(int[] literals) {
+        instance.retractModelExtension();
+        backtrack(0);
+        VariableTable table = instance.getVariableTable();
+        IntVec created = new IntVec();
+        for (int literal : literals) {
+            int var = Math.abs(literal);
+            if (var > 0 && var <= table.getVarNum() && !instance.isUsed(var) && !created.contains(var)) {
+                created.push(var);
+            }
+        }
+        boolean ok = instance.addClause(literals);
+        if (heuristicInitialized) {
+            //new variables join the heuristic like unassigned ones
+            for (int i = 0; i < created.size(); i++) {
+                heuristic.onUnassign(created.get(i));
+            }
+        }
+        return ok;
+    }
+
+    /**
+     * Makes a variable part of the search that did not occur so far.
+     * The heuristic knows only the variables of its first call, new ones join like unassigned ones.
+     *
+     * @param var variable ID
+     */
+    private void useVariable(int var) {
+        if (instance.useVariable(var) && heuristicInitialized) {
+            heuristic.onUnassign(var);
         }
+    }
+
+    /**
+     * Returns the assumptions of the last call of solve that cannot be true together, if it was UNSAT
+     * under the assumptions. The result is empty if the clause set is unsatisfiable without assumptions.
+     *
+     * @return DIMACS literals, a subset of the assumptions
+     */
+    public int[] getFinalConflict() {
+        return finalConflict.toArray();
+    }
+
+    /**
+     * Returns the outcome of the last call of solve, UNKNOWN before the first call.
+     *
+     * @return SAT, UNSAT or UNKNOWN
+     */
+    public Result getResult() {
         return result;
     }
 
+    /**
+     * Stops the search from another thread. The running call of solve, or the next one if none is running,
+     * returns with UNKNOWN at the next decision or conflict. Later calls search again.
+     */
+    public void interrupt() {
+        interrupted = true;
+    }
+
+    public boolean isInterrupted() {
+        return interrupted;
+    }
+
+    /**
+     * Sets the number of iterations after which a call of solve gives up with UNKNOWN.
+     *
+     * @param maxIterations limit of decisions and conflicts
+     */
+    public void setMaxIterations(int maxIterations) {
+        this.MAX_ITERATIONS = maxIterations;
+    }
+
+    /**
+     * Shares learned clauses with other solvers on the same formula. New learned clauses within the
+     * limits of the exchange are exported, clauses of the others are imported at level 0, after restarts
+     * and units.
+     *
+     * @param exchange exchange of all solvers, null to stop sharing
+     * @param index    index of this solver in the exchange
+     */
+    public void setClauseExchange(ClauseExchange exchange, int index) {
+        this.exchange = exchange;
+        this.exchangeIndex = index;
+    }
+
+    /**
+     * Limits the number of conflicts of every call of solve, which returns with UNKNOWN when the limit is reached.
+     *
+     * @param conflictBudget conflicts per call, negative for no limit
+     */
+    public void setConflictBudget(long conflictBudget) {
+        this.conflictBudget = conflictBudget;
+    }
+
+    /**
+     * Enables random decisions: a small share of the decisions is made on a random variable
+     * instead of the one chosen by the heuristic. Different seeds lead the search into different parts.
+     *
+     * @param seed seed of the random generator
+     */
+    public void setRandomSeed(long seed) {
+        this.random = new Random(seed);
+    }
+
+    /**
+     * Sets the branching heuristic. Takes effect on the next call of solve.
+     *
+     * @param heuristic the heuristic
+     */
+    public void setBranchingHeuristic(BranchingHeuristic heuristic) {
+        this.heuristic = heuristic;
+        this.heuristicInitialized = false;
+        this.notifiedTrailSize = 0;
+    }
+
+    /**
+     * Sets one of the shipped branching heuristics. Takes effect on the next call of solve.
+     *
+     * @param type the heuristic
+     */
+    public void setBranchingHeuristic(HeuristicType type) {
+        setBranchingHeuristic(type.create());
+    }
+
+    /**
+     * Sets the restart policy. Counters of the policy continue across calls of solve.
+     *
+     * @param restartPolicy the policy
+     */
+    public void setRestartPolicy(RestartPolicy restartPolicy) {
+        this.restartPolicy = restartPolicy;
+    }
+
+    /**
+     * Sets one of the shipped restart policies.
+     *
+     * @param strategy the policy
+     */
+    public void setRestartPolicy(RestartStrategy strategy) {
+        setRestartPolicy(strategy.create());
+    }
+
+    /**
+     * Returns the inprocessor, to enable techniques or change their budgets.
+     *
+     * @return the inprocessor
+     */
+    public Inprocessor getInprocessor() {
+        return inprocessor;
+    }
+
+    /**
+     * Suppresses the messages about the result and the printed model, e.g. for solvers that only
+     * solve a part of the formula. Verbose output is not affected.
+     *
+     * @param quiet true to print nothing about the result
+     */
+    public void setQuiet(boolean quiet) {
+        this.quiet = quiet;
+    }
+
+    /**
+     * Enables the check of the model against all original clauses, which runs once before SAT is reported.
+     *
+     * @param verifyModel true to verify models
+     */
+    public void setVerifyModel(boolean verifyModel) {
+        this.verifyModel = verifyModel;
+    }
+
+    public void setMinimizationMode(MinimizationMode minimizationMode) {
+        this.minimizationMode = minimizationMode;
+    }
+
+    /**
+     * Sets the value of decisions on variables without saved phase.
+     *
+     * @param DEFAULT_ASSING default value of decisions
+     */
     public void setDEFAULT_ASSING(boolean DEFAULT_ASSING) {
-        this.DEFAULT_ASSING = DEFAULT_ASSING;
+        instance.getPhaseSelector().setDefaultPhase(DEFAULT_ASSING);
+    }
+
+    /**
+     * Sets how the values of decisions are chosen, see {@link PhaseSelector}.
+     *
+     * @param mode      FIXED, SAVED or TARGET
+     * @param rephasing true to reset the saved phases periodically
+     */
+    public void setPhaseMode(PhaseSelector.PhaseMode mode, boolean rephasing) {
+        instance.getPhaseSelector().setMode(mode);
+        instance.getPhaseSelector().setRephasing(rephasing);
     }
 }
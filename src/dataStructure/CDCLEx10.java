@@ -6,7 +6,6 @@ package dataStructure;
 public class CDCLEx10 extends CDCL {
 
     private int[] selectionOrder;
-    private int selectionIndex;
     /**
      * Constructor
      *
@@ -15,25 +14,27 @@ public class CDCLEx10 extends CDCL {
     public CDCLEx10(ClauseSet instance, int[] selectionOrder) {
         super(instance);
         this.selectionOrder = selectionOrder;
-        this.selectionIndex = 0;
     }
 
     @Override
     public boolean solve() {
-        this.selectionIndex = 0;
         printSelectionOrder();
         return super.solve();
     }
 
+    /**
+     * Returns the first OPEN variable of the selection order.
+     * The order is searched from the start every time, because backjumps and restarts
+     * unassign variables that were decided before.
+     *
+     * @return next variable or null if all variables of the order are assigned
+     */
     @Override
     protected Variable getNextVar() {
-        if (selectionIndex < selectionOrder.length && this.instance.getVariables().containsKey(selectionOrder[selectionIndex])){
-            Variable nextVar = this.instance.getVariables().get(selectionOrder[selectionIndex]);
-            selectionIndex++;
-            if(!this.stack.contains(nextVar)) {
+        for (int id : selectionOrder) {
+            Variable nextVar = this.instance.getVariables().get(id);
+            if (nextVar != null && nextVar.getState() == Variable.State.OPEN) {
                 return nextVar;
-            }else {
-                return getNextVar();
             }
         }
         return null;
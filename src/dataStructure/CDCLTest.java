@@ -1,9 +1,17 @@
 package dataStructure;
 
 
+import dimacs.parser.DIMACSFormula;
+import dimacs.parser.DIMACSStreamParser;
 import org.junit.Test;
 
+import java.io.ByteArrayInputStream;
 import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
 
 import static org.junit.Assert.*;
 
@@ -78,5 +86,244 @@ public class CDCLTest {
         System.out.print("Is Sat " + sat);
     }
 
+    /**
+     * A fixed selection order has to pick up variables again that were unassigned by a restart
+     */
+    @Test
+    public void testSelectionOrderAfterRestart() {
+        ClauseSet clauseSet = new ClauseSet("small_aim/yes/aim-50-1_6-yes1-1.cnf");
+        int[] selectionOrder = new int[clauseSet.getVariableTable().getVarNum()];
+        for (int i = 0; i < selectionOrder.length; i++) {
+            selectionOrder[i] = i + 1;
+        }
+        CDCL cdcl = new CDCLEx10(clauseSet, selectionOrder);
+        //restart after every conflict
+        cdcl.setRestartPolicy(new GeometricRestartPolicy(1, 1.0));
+        assertTrue(cdcl.solve());
+        assertTrue(cdcl.getStatistics().restarts > 0);
+    }
+
+    /**
+     * The model of a preprocessed formula is extended to a model of the formula before preprocessing
+     */
+    @Test
+    public void testPreprocessedModel() throws Exception {
+        File[] listOfFiles = new File("small_aim/yes").listFiles();
+        assertNotNull(listOfFiles);
+        long removed = 0;
+        for (File file : listOfFiles) {
+            DIMACSFormula formula = new DIMACSStreamParser().parse(file.getPath());
+            Preprocessor preprocessor = new Preprocessor(formula);
+            //the solver checks the model against the kept formula, the test checks it again
+            preprocessor.setVerifyModel(true);
+            ClauseSet clauseSet = preprocessor.preprocess();
+            removed += clauseSet.getStatistics().getEliminatedVariables()
+                    + clauseSet.getStatistics().getMergedVariables();
+            CDCL cdcl = new CDCL(clauseSet);
+            assertTrue(cdcl.solve());
+            VariableTable table = clauseSet.getVariableTable();
+            int[] literals = formula.getLiterals();
+            for (int c = 0; c < formula.getClauseCount(); c++) {
+                boolean satisfied = false;
+                int start = formula.getClauseStart(c);
+                for (int k = start; k < start + formula.getClauseSize(c); k++) {
+                    satisfied |= table.literalValue(Literal.fromDimacs(literals[k])) == VariableTable.TRUE;
+                }
+                assertTrue("clause " + c + " of " + file.getName(), satisfied);
+            }
+            assertTrue(clauseSet.satisfiesOriginalFormula());
+        }
+        assertTrue(removed > 0);
+    }
+
+    /**
+     * x1 or x2, x1 implies x3, x2 implies x3
+     */
+    private ClauseSet implicationSet() {
+        ClauseSet clauseSet = new ClauseSet(4);
+        assertTrue(clauseSet.addClause(new int[]{1, 2}));
+        assertTrue(clauseSet.addClause(new int[]{-1, 3}));
+        assertTrue(clauseSet.addClause(new int[]{-2, 3}));
+        return clauseSet;
+    }
+
+    @Test
+    public void testAssumptions() {
+        ClauseSet clauseSet = implicationSet();
+        CDCL cdcl = new CDCL(clauseSet);
+        assertTrue(cdcl.solve(new int[]{-1, 4}));
+        assertModel(clauseSet, new int[]{-1, 4, 2, 3});
+
+        assertFalse(cdcl.solve(new int[]{4, -3}));
+        assertEquals(CDCL.Result.UNSAT, cdcl.getResult());
+        assertEquals(0, clauseSet.getDecisionLevel());
+        assertFinalConflict(cdcl, new int[]{4, -3});
+        assertArrayEquals(new int[]{-3}, cdcl.getFinalConflict());
+
+        assertFalse(cdcl.solve(new int[]{-1, -2}));
+        assertFinalConflict(cdcl, new int[]{-1, -2});
+        assertEquals(0, clauseSet.getDecisionLevel());
 
-}
\ No newline at end of file
+        //the assumptions of the last call do not hold any more
+        assertTrue(cdcl.solve());
+        assertTrue(cdcl.solve(new int[]{1}));
+        assertModel(clauseSet, new int[]{1, 3});
+    }
+
+    @Test
+    public void testAddClauseBetweenCalls() {
+        ClauseSet clauseSet = implicationSet();
+        CDCL cdcl = new CDCL(clauseSet);
+        assertTrue(cdcl.solve(new int[]{-1}));
+        assertTrue(cdcl.addClause(new int[]{-2, 4}));
+        assertTrue(cdcl.solve(new int[]{-1}));
+        assertModel(clauseSet, new int[]{-1, 2, 3, 4});
+        assertFalse(cdcl.solve(new int[]{-1, -4}));
+        assertFinalConflict(cdcl, new int[]{-1, -4});
+
+        //x3 false contradicts the clauses without assumptions
+        cdcl.addClause(new int[]{-3});
+        assertFalse(cdcl.solve(new int[]{4}));
+        assertEquals(0, cdcl.getFinalConflict().length);
+        assertFalse(clauseSet.isOk());
+        assertFalse(cdcl.solve());
+        assertEquals(0, clauseSet.getDecisionLevel());
+    }
+
+    /**
+     * Many calls on one solver, each within the iteration limit of a single call
+     */
+    @Test
+    public void testManyAssumptionQueries() {
+        Random random = new Random(7);
+        int varNum = 200;
+        List<int[]> clauses = randomClauses(random, varNum, 300);
+        ClauseSet clauseSet = clauseSet(varNum, clauses);
+        CDCL cdcl = new CDCL(clauseSet);
+        int unsat = 0;
+        for (int query = 0; query < 400; query++) {
+            int[] assumptions = new int[1 + random.nextInt(3)];
+            for (int k = 0; k < assumptions.length; k++) {
+                assumptions[k] = (1 + random.nextInt(varNum)) * (random.nextBoolean() ? 1 : -1);
+            }
+            boolean sat = cdcl.solve(assumptions);
+            assertTrue("query " + query, cdcl.getResult() != CDCL.Result.UNKNOWN);
+            if (sat) {
+                assertModel(clauseSet, assumptions);
+                assertModel(clauseSet, clauses);
+            } else {
+                unsat++;
+                assertFinalConflict(cdcl, assumptions);
+                assertEquals(0, clauseSet.getDecisionLevel());
+            }
+        }
+        assertTrue(unsat > 0 && unsat < 400);
+    }
+
+    /**
+     * An interrupt stops one call of solve
+     */
+    @Test
+    public void testInterrupt() {
+        CDCL cdcl = new CDCL(implicationSet());
+        cdcl.interrupt();
+        assertFalse(cdcl.solve());
+        assertEquals(CDCL.Result.UNKNOWN, cdcl.getResult());
+        assertFalse(cdcl.isInterrupted());
+        assertFalse(cdcl.solve(new int[]{-3, 4}));
+        assertEquals(CDCL.Result.UNSAT, cdcl.getResult());
+        assertTrue(cdcl.solve());
+    }
+
+    /**
+     * Checks that all literals are true
+     */
+    private void assertModel(ClauseSet clauseSet, int[] literals) {
+        for (int literal : literals) {
+            assertSatisfied(clauseSet, new int[]{literal});
+        }
+    }
+
+    /**
+     * Random 3-SAT clauses, the literals of a clause may repeat
+     */
+    static List<int[]> randomClauses(Random random, int varNum, int clauseCount) {
+        List<int[]> clauses = new ArrayList<int[]>();
+        for (int c = 0; c < clauseCount; c++) {
+            int[] clause = new int[3];
+            for (int k = 0; k < clause.length; k++) {
+                clause[k] = (1 + random.nextInt(varNum)) * (random.nextBoolean() ? 1 : -1);
+            }
+            clauses.add(clause);
+        }
+        return clauses;
+    }
+
+    static ClauseSet clauseSet(int varNum, List<int[]> clauses) {
+        ClauseSet clauseSet = new ClauseSet(varNum);
+        for (int[] clause : clauses) {
+            clauseSet.addClause(clause);
+        }
+        return clauseSet;
+    }
+
+    /**
+     * Parsed DIMACS text of the clauses, for the parallel solvers
+     */
+    static DIMACSFormula formula(int varNum, List<int[]> clauses) throws IOException {
+        StringBuilder input = new StringBuilder("p cnf " + varNum + " " + clauses.size() + "\n");
+        for (int[] clause : clauses) {
+            for (int literal : clause) {
+                input.append(literal).append(' ');
+            }
+            input.append("0\n");
+        }
+        return new DIMACSStreamParser().parse(new ByteArrayInputStream(input.toString().getBytes("US-ASCII")));
+    }
+
+    /**
+     * Result of a solver with the default configuration, to compare other configurations with
+     */
+    static CDCL.Result solveDefault(int varNum, List<int[]> clauses) {
+        CDCL cdcl = new CDCL(clauseSet(varNum, clauses));
+        cdcl.setMaxIterations(Integer.MAX_VALUE);
+        cdcl.solve();
+        return cdcl.getResult();
+    }
+
+    /**
+     * Checks that every clause is satisfied
+     */
+    static void assertModel(ClauseSet clauseSet, List<int[]> clauses) {
+        for (int[] clause : clauses) {
+            assertSatisfied(clauseSet, clause);
+        }
+    }
+
+    /**
+     * Checks that one literal of the clause is true
+     */
+    static void assertSatisfied(ClauseSet clauseSet, int[] clause) {
+        boolean satisfied = false;
+        for (int literal : clause) {
+            satisfied |= clauseSet.getVariableTable().literalValue(Literal.fromDimacs(literal)) == VariableTable.TRUE;
+        }
+        assertTrue(Arrays.toString(clause), satisfied);
+    }
+
+    /**
+     * The final conflict is a subset of the assumptions that is UNSAT on its own
+     */
+    private void assertFinalConflict(CDCL cdcl, int[] assumptions) {
+        int[] conflict = cdcl.getFinalConflict();
+        for (int literal : conflict) {
+            boolean assumed = false;
+            for (int assumption : assumptions) {
+                assumed |= assumption == literal;
+            }
+            assertTrue(literal + " not assumed", assumed);
+        }
+        assertFalse(cdcl.solve(conflict));
+        assertEquals(CDCL.Result.UNSAT, cdcl.getResult());
+    }
+}
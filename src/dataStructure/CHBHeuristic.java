@@ -0,0 +1,81 @@
+package dataStructure;
+
+/**
+ * Conflict history based branching (Liang et al., AAAI 2016).
+ * Variables assigned by a propagation are rewarded with 1/(conflicts since they last took part
+ * in a conflict + 1). The reward gets the full weight if the propagation ended in a conflict and
+ * 0.9 otherwise. The score is an exponential moving average of the rewards.
+ */
+public class CHBHeuristic extends HeapHeuristic {
+    private static final double INITIAL_ALPHA = 0.4;
+    private static final double MIN_ALPHA = 0.06;
+    private static final double ALPHA_STEP = 1e-6;
+    private static final double CONFLICT_MULTIPLIER = 1.0;
+    private static final double NO_CONFLICT_MULTIPLIER = 0.9;
+
+    private double alpha = INITIAL_ALPHA;
+
+    private long conflicts = 0;
+
+    /* Conflict counter when each variable took part in a conflict the last time */
+    private long[] lastConflict;
+
+    /* Variables assigned since the last reward update */
+    private IntVec assigned;
+
+    /* Number of reward updates and the last update that rewarded each variable */
+    private long rewardRound = 0;
+    private long[] rewardedIn;
+
+    @Override
+    protected double[] createScores() {
+        lastConflict = new long[table.getVarNum() + 1];
+        rewardedIn = new long[table.getVarNum() + 1];
+        assigned = new IntVec();
+        return new double[table.getVarNum() + 1];
+    }
+
+    @Override
+    public int pickBranchVariable() {
+        //the last propagation ended without conflict
+        reward(NO_CONFLICT_MULTIPLIER);
+        return super.pickBranchVariable();
+    }
+
+    @Override
+    public void onAssign(int var) {
+        assigned.push(var);
+    }
+
+    @Override
+    public void onConflict(IntVec conflictVariables) {
+        conflicts++;
+        for (int i = 0; i < conflictVariables.size(); i++) {
+            lastConflict[conflictVariables.get(i)] = conflicts;
+        }
+        reward(CONFLICT_MULTIPLIER);
+        for (int i = 0; i < conflictVariables.size(); i++) {
+            int var = conflictVariables.get(i);
+            if (rewardedIn[var] != rewardRound) {
+                updateScore(var, CONFLICT_MULTIPLIER);
+            }
+        }
+        if (alpha > MIN_ALPHA) {
+            alpha = Math.max(MIN_ALPHA, alpha - ALPHA_STEP);
+        }
+    }
+
+    private void reward(double multiplier) {
+        rewardRound++;
+        for (int i = 0; i < assigned.size(); i++) {
+            rewardedIn[assigned.get(i)] = rewardRound;
+            updateScore(assigned.get(i), multiplier);
+        }
+        assigned.clear();
+    }
+
+    private void updateScore(int var, double multiplier) {
+        double reward = multiplier / (conflicts - lastConflict[var] + 1);
+        setScore(var, (1.0 - alpha) * scores[var] + alpha * reward);
+    }
+}
@@ -0,0 +1,312 @@
+package dataStructure;
+
+import dimacs.parser.DIMACSFormula;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.IntBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Binary snapshot of a clause set for fast reloading.
+ * All values are little endian 32 bit integers:
+ * <pre>
+ * magic "BCNF", version, flags, variable count, clause count, literal count,
+ * clause offsets (clause count + 1), encoded literals (literal count),
+ * if flags has LEARNED: learned count, learned literal count,
+ *                       learned offsets (learned count + 1), learned literals, LBD per learned clause
+ * </pre>
+ * Literals are encoded as in {@link Literal}. Clauses are stored without duplicate literals
+ * and tautologies, so they can be copied into the clause arena as they are.
+ */
+public class CNFSnapshot {
+    /* "BCNF" */
+    private static final int MAGIC = 0x464E4342;
+    private static final int VERSION = 1;
+    private static final int FLAG_LEARNED = 1;
+    private static final int HEADER_INTS = 6;
+
+    /* Sections are mapped and buffered in windows of this many ints */
+    private static final int WINDOW = 1 << 26;
+
+    private CNFSnapshot() {
+    }
+
+    /**
+     * Writes the original clauses of a clause set and optionally its learned clauses.
+     * Preprocessed clause sets are refused, the snapshot has no place for the removed variables.
+     *
+     * @param set            clause set
+     * @param filePath       target file
+     * @param includeLearned true to store the learned clauses with their LBD
+     * @throws IOException              if the file cannot be written
+     * @throws IllegalArgumentException if the clause set was preprocessed
+     */
+    public static void write(ClauseSet set, String filePath, boolean includeLearned) throws IOException {
+        if (set.isPreprocessed()) {
+            throw new IllegalArgumentException("Preprocessed clause sets cannot be stored, their models "
+                    + "could not be extended to the original formula");
+        }
+        IntVec literals = new IntVec();
+        IntVec offsets = new IntVec();
+        offsets.push(0);
+        for (Clause clause : set.getClauses()) {
+            for (int i = 0; i < clause.size(); i++) {
+                literals.push(clause.get(i));
+            }
+            offsets.push(literals.size());
+        }
+        IntVec learnedLiterals = new IntVec();
+        IntVec learnedOffsets = new IntVec();
+        IntVec lbds = new IntVec();
+        learnedOffsets.push(0);
+        if (includeLearned) {
+            ClauseArena arena = set.getArena();
+            IntVec learnts = set.getLearnts();
+            for (int i = 0; i < learnts.size(); i++) {
+                int cref = learnts.get(i);
+                for (int k = 0; k < arena.size(cref); k++) {
+                    learnedLiterals.push(arena.literal(cref, k));
+                }
+                learnedOffsets.push(learnedLiterals.size());
+                lbds.push(arena.getLBD(cref));
+            }
+        }
+        write(filePath, set.getVariableTable().getVarNum(), literals, offsets,
+                includeLearned ? learnedLiterals : null, learnedOffsets, lbds);
+    }
+
+    /**
+     * Writes a parsed DIMACS formula. Duplicate literals and tautologies are removed.
+     *
+     * @param formula  parsed formula
+     * @param filePath target file
+     * @throws IOException if the file cannot be written
+     */
+    public static void write(DIMACSFormula formula, String filePath) throws IOException {
+        int varNum = formula.getVarNum();
+        IntVec literals = new IntVec();
+        literals.ensureCapacity(formula.getLiteralCount());
+        IntVec offsets = new IntVec();
+        offsets.ensureCapacity(formula.getClauseCount() + 1);
+        offsets.push(0);
+        //stamp per encoded literal to find duplicates and tautologies
+        int[] marks = new int[2 * (varNum + 1)];
+        int[] parsed = formula.getLiterals();
+        for (int c = 0; c < formula.getClauseCount(); c++) {
+            int stamp = c + 1;
+            int clauseStart = literals.size();
+            boolean tautology = false;
+            int start = formula.getClauseStart(c);
+            for (int k = start; k < start + formula.getClauseSize(c); k++) {
+                int literal = Literal.fromDimacs(parsed[k]);
+                if (marks[Literal.negate(literal)] == stamp) {
+                    tautology = true;
+                    break;
+                }
+                if (marks[literal] != stamp) {
+                    marks[literal] = stamp;
+                    literals.push(literal);
+                }
+            }
+            if (tautology) {
+                literals.shrink(clauseStart);
+            } else {
+                offsets.push(literals.size());
+            }
+        }
+        write(filePath, varNum, literals, offsets, null, null, null);
+    }
+
+    private static void write(String filePath, int varNum, IntVec literals, IntVec offsets,
+                              IntVec learnedLiterals, IntVec learnedOffsets, IntVec lbds) throws IOException {
+        FileChannel channel = FileChannel.open(Paths.get(filePath), StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE);
+        try {
+            ByteBuffer buffer = ByteBuffer.allocateDirect(1 << 20).order(ByteOrder.LITTLE_ENDIAN);
+            IntBuffer ints = buffer.asIntBuffer();
+            int[] header = {MAGIC, VERSION, learnedLiterals != null ? FLAG_LEARNED : 0, varNum,
+                    offsets.size() - 1, literals.size()};
+            writeInts(channel, buffer, ints, header, header.length);
+            writeInts(channel, buffer, ints, offsets.getData(), offsets.size());
+            writeInts(channel, buffer, ints, literals.getData(), literals.size());
+            if (learnedLiterals != null) {
+                int[] learnedHeader = {learnedOffsets.size() - 1, learnedLiterals.size()};
+                writeInts(channel, buffer, ints, learnedHeader, learnedHeader.length);
+                writeInts(channel, buffer, ints, learnedOffsets.getData(), learnedOffsets.size());
+                writeInts(channel, buffer, ints, learnedLiterals.getData(), learnedLiterals.size());
+                writeInts(channel, buffer, ints, lbds.getData(), lbds.size());
+            }
+        } finally {
+            channel.close();
+        }
+    }
+
+    private static void writeInts(FileChannel channel, ByteBuffer buffer, IntBuffer ints, int[] values, int count)
+            throws IOException {
+        for (int done = 0; done < count; ) {
+            int n = Math.min(ints.capacity(), count - done);
+            ints.clear();
+            ints.put(values, done, n);
+            buffer.clear();
+            buffer.limit(4 * n);
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+            done += n;
+        }
+    }
+
+    /**
+     * Loads a snapshot by mapping it into memory. Learned clauses are added with their LBD.
+     *
+     * @param filePath snapshot file
+     * @return the clause set
+     * @throws IOException if the file cannot be read or is no valid snapshot
+     */
+    public static ClauseSet load(String filePath) throws IOException {
+        Reader reader = new Reader(filePath);
+        try {
+            reader.readHeader();
+            int[] offsets = reader.readInts(reader.clauseCount + 1);
+            int[] literals = reader.readInts(reader.literalCount);
+            checkOffsets(offsets, reader.clauseCount, reader.literalCount, literals, reader.varNum);
+            ClauseSet set = new ClauseSet(reader.varNum, literals, offsets, reader.clauseCount, false);
+            if ((reader.flags & FLAG_LEARNED) != 0) {
+                int learnedCount = reader.readInt();
+                int learnedLiteralCount = reader.readInt();
+                int[] learnedOffsets = reader.readInts(learnedCount + 1);
+                int[] learnedLiterals = reader.readInts(learnedLiteralCount);
+                int[] lbds = reader.readInts(learnedCount);
+                checkOffsets(learnedOffsets, learnedCount, learnedLiteralCount, learnedLiterals, reader.varNum);
+                for (int c = 0; c < learnedCount; c++) {
+                    int cref = set.addClause(learnedLiterals, learnedOffsets[c],
+                            learnedOffsets[c + 1] - learnedOffsets[c], true);
+                    set.getArena().setLBD(cref, lbds[c]);
+                }
+            }
+            return set;
+        } finally {
+            reader.close();
+        }
+    }
+
+    /**
+     * Converts a snapshot back to DIMACS text. Learned clauses are left out.
+     *
+     * @param filePath snapshot file
+     * @param out      target of the DIMACS text, not closed
+     * @throws IOException if the file cannot be read or is no valid snapshot
+     */
+    public static void toDimacs(String filePath, Writer out) throws IOException {
+        Reader reader = new Reader(filePath);
+        try {
+            reader.readHeader();
+            int[] offsets = reader.readInts(reader.clauseCount + 1);
+            int[] literals = reader.readInts(reader.literalCount);
+            checkOffsets(offsets, reader.clauseCount, reader.literalCount, literals, reader.varNum);
+            BufferedWriter writer = new BufferedWriter(out, 1 << 16);
+            writer.write("p cnf " + reader.varNum + " " + reader.clauseCount + "\n");
+            for (int c = 0; c < reader.clauseCount; c++) {
+                for (int k = offsets[c]; k < offsets[c + 1]; k++) {
+                    writer.write(Integer.toString(Literal.toDimacs(literals[k])));
+                    writer.write(' ');
+                }
+                writer.write("0\n");
+            }
+            writer.flush();
+        } finally {
+            reader.close();
+        }
+    }
+
+    private static void checkOffsets(int[] offsets, int count, int literalCount, int[] literals, int varNum)
+            throws IOException {
+        if (offsets[0] != 0 || offsets[count] != literalCount) {
+            throw new IOException("Corrupt snapshot: clause offsets do not match the literal count");
+        }
+        for (int c = 0; c < count; c++) {
+            if (offsets[c + 1] < offsets[c]) {
+                throw new IOException("Corrupt snapshot: clause offsets are not ascending");
+            }
+        }
+        //the arena expects clauses without duplicate literals and tautologies
+        int[] marks = new int[2 * (varNum + 1)];
+        for (int c = 0; c < count; c++) {
+            int stamp = c + 1;
+            for (int k = offsets[c]; k < offsets[c + 1]; k++) {
+                int literal = literals[k];
+                if (literal < 2 || Literal.var(literal) > varNum) {
+                    throw new IOException("Corrupt snapshot: literal out of range");
+                }
+                if (marks[literal] == stamp || marks[Literal.negate(literal)] == stamp) {
+                    throw new IOException("Corrupt snapshot: duplicate or complementary literal in clause " + c);
+                }
+                marks[literal] = stamp;
+            }
+        }
+    }
+
+    /**
+     * Reads the int sections of a snapshot through memory mappings of the file.
+     */
+    private static class Reader {
+        private final FileChannel channel;
+        private long position = 0;
+
+        int flags;
+        int varNum;
+        int clauseCount;
+        int literalCount;
+
+        Reader(String filePath) throws IOException {
+            channel = FileChannel.open(Paths.get(filePath), StandardOpenOption.READ);
+        }
+
+        void readHeader() throws IOException {
+            int[] header = readInts(HEADER_INTS);
+            if (header[0] != MAGIC) {
+                throw new IOException("Not a CNF snapshot");
+            }
+            if (header[1] != VERSION) {
+                throw new IOException("Unsupported snapshot version " + header[1]);
+            }
+            flags = header[2];
+            varNum = header[3];
+            clauseCount = header[4];
+            literalCount = header[5];
+            if (varNum < 0 || clauseCount < 0 || literalCount < 0) {
+                throw new IOException("Corrupt snapshot header");
+            }
+        }
+
+        int readInt() throws IOException {
+            return readInts(1)[0];
+        }
+
+        int[] readInts(int count) throws IOException {
+            if (count < 0 || position + 4L * count > channel.size()) {
+                throw new IOException("Corrupt snapshot: unexpected end of file");
+            }
+            int[] values = new int[count];
+            for (int done = 0; done < count; ) {
+                int n = Math.min(WINDOW, count - done);
+                IntBuffer ints = channel.map(FileChannel.MapMode.READ_ONLY, position, 4L * n)
+                        .order(ByteOrder.LITTLE_ENDIAN).asIntBuffer();
+                ints.get(values, done, n);
+                position += 4L * n;
+                done += n;
+            }
+            return values;
+        }
+
+        void close() throws IOException {
+            channel.close();
+        }
+    }
+}
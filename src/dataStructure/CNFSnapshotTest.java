@@ -0,0 +1,147 @@
+package dataStructure;
+
+import dimacs.parser.DIMACSFormula;
+import dimacs.parser.DIMACSStreamParser;
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.io.StringWriter;
+
+import static org.junit.Assert.*;
+
+public class CNFSnapshotTest {
+
+    /**
+     * Writes a formula, converts it back to DIMACS and loads it
+     */
+    @Test
+    public void testRoundTrip() throws Exception {
+        DIMACSFormula formula = parse("p cnf 4 4\n1 -2 0\n3 3 -4 0\n2 -2 4 0\n-1 -3 0\n");
+        File file = snapshotFile();
+        CNFSnapshot.write(formula, file.getPath());
+
+        StringWriter dimacs = new StringWriter();
+        CNFSnapshot.toDimacs(file.getPath(), dimacs);
+        //duplicate literal removed, tautology dropped
+        assertEquals("p cnf 4 3\n1 -2 0\n3 -4 0\n-1 -3 0\n", dimacs.toString());
+
+        ClauseSet clauseSet = CNFSnapshot.load(file.getPath());
+        assertEquals(4, clauseSet.getVariableTable().getVarNum());
+        assertEquals(3, clauseSet.getClauses().size());
+        assertTrue(new CDCL(clauseSet).solve());
+    }
+
+    /**
+     * Learned clauses are stored with their LBD
+     */
+    @Test
+    public void testLearnedClauses() throws Exception {
+        ClauseSet clauseSet = new ClauseSet("small_aim/no/aim-50-1_6-no-1.cnf");
+        CDCL cdcl = new CDCL(clauseSet);
+        cdcl.setConflictBudget(20);
+        cdcl.solve();
+        File file = snapshotFile();
+        CNFSnapshot.write(clauseSet, file.getPath(), true);
+
+        ClauseSet loaded = CNFSnapshot.load(file.getPath());
+        assertEquals(clauseSet.getClauses().size(), loaded.getClauses().size());
+        assertEquals(clauseSet.getLearnts().size(), loaded.getLearnts().size());
+        for (int i = 0; i < loaded.getLearnts().size(); i++) {
+            assertEquals(clauseSet.getArena().getLBD(clauseSet.getLearnts().get(i)),
+                    loaded.getArena().getLBD(loaded.getLearnts().get(i)));
+        }
+        assertFalse(new CDCL(loaded).solve());
+    }
+
+    @Test
+    public void testTruncatedFile() throws Exception {
+        File file = snapshotFile();
+        CNFSnapshot.write(parse("p cnf 3 2\n1 -2 0\n2 3 0\n"), file.getPath());
+        RandomAccessFile raf = new RandomAccessFile(file, "rw");
+        try {
+            raf.setLength(raf.length() - 4);
+        } finally {
+            raf.close();
+        }
+        assertLoadError(file, "unexpected end of file");
+    }
+
+    @Test
+    public void testCorruptFile() throws Exception {
+        File file = snapshotFile();
+        CNFSnapshot.write(parse("p cnf 3 2\n1 -2 0\n2 3 0\n"), file.getPath());
+        //first int of the header
+        overwrite(file, 0, 0);
+        assertLoadError(file, "Not a CNF snapshot");
+
+        CNFSnapshot.write(parse("p cnf 3 2\n1 -2 0\n2 3 0\n"), file.getPath());
+        //the end offset of the last clause, after the header and two offsets
+        overwrite(file, 8, 3);
+        assertLoadError(file, "clause offsets do not match");
+
+        CNFSnapshot.write(parse("p cnf 3 2\n1 -2 0\n2 3 0\n"), file.getPath());
+        //the first literal, after the header and three offsets
+        overwrite(file, 9, 100);
+        assertLoadError(file, "literal out of range");
+    }
+
+    /**
+     * Clauses with a duplicate or complementary literal would break the watch invariants of the arena
+     */
+    @Test
+    public void testInvalidClause() throws Exception {
+        File file = snapshotFile();
+        CNFSnapshot.write(parse("p cnf 3 2\n1 -2 0\n2 3 0\n"), file.getPath());
+        //the second literal of the first clause, after the header and three offsets
+        overwrite(file, 10, Literal.fromDimacs(1));
+        assertLoadError(file, "duplicate or complementary literal");
+
+        CNFSnapshot.write(parse("p cnf 3 2\n1 -2 0\n2 3 0\n"), file.getPath());
+        overwrite(file, 10, Literal.fromDimacs(-1));
+        assertLoadError(file, "duplicate or complementary literal");
+    }
+
+    /**
+     * The snapshot has no place for the removed variables of a preprocessed clause set
+     */
+    @Test(expected = IllegalArgumentException.class)
+    public void testPreprocessedClauseSet() throws Exception {
+        ClauseSet clauseSet = new Preprocessor(parse("p cnf 3 3\n1 -2 0\n2 3 0\n-1 3 0\n")).preprocess();
+        CNFSnapshot.write(clauseSet, snapshotFile().getPath(), false);
+    }
+
+    private DIMACSFormula parse(String input) throws IOException {
+        return new DIMACSStreamParser().parse(new ByteArrayInputStream(input.getBytes("US-ASCII")));
+    }
+
+    private File snapshotFile() throws IOException {
+        File file = File.createTempFile("snapshot", ".bcnf");
+        file.deleteOnExit();
+        return file;
+    }
+
+    /**
+     * Replaces the little endian int at the given int index
+     */
+    private void overwrite(File file, int index, int value) throws IOException {
+        RandomAccessFile raf = new RandomAccessFile(file, "rw");
+        try {
+            raf.seek(4L * index);
+            raf.writeInt(Integer.reverseBytes(value));
+        } finally {
+            raf.close();
+        }
+    }
+
+    private void assertLoadError(File file, String message) {
+        try {
+            CNFSnapshot.load(file.getPath());
+            fail("No exception for corrupt snapshot");
+        } catch (IOException e) {
+            assertTrue(e.getMessage(), e.getMessage().contains(message));
+        }
+    }
+}
@@ -0,0 +1,287 @@
+package dataStructure;
+
+import java.util.Arrays;
+
+/**
+ * Flat storage for the literals of all clauses.
+ * Every clause is stored as a small header followed by its encoded literals (see {@link Literal}).
+ * Clauses are referenced by the offset of their header (cref) instead of by object.
+ */
+public class ClauseArena {
+    /* Reference that points to no clause */
+    public static final int CREF_UNDEF = -1;
+
+    /* Header layout: size of the clause, flags and LBD, activity (float bits) */
+    static final int HEADER_SIZE = 3;
+    private static final int SIZE_OFFSET = 0;
+    private static final int FLAGS_OFFSET = 1;
+    private static final int ACTIVITY_OFFSET = 2;
+
+    /* Flags in the lower bits of the flags word, the LBD is stored above them */
+    private static final int FLAG_LEARNED = 1;
+    private static final int FLAG_DELETED = 2;
+    private static final int FLAG_USED = 4;
+    private static final int FLAG_RELOCATED = 8;
+    private static final int FLAG_VIVIFIED = 16;
+    private static final int LBD_SHIFT = 8;
+    private static final int FLAGS_MASK = (1 << LBD_SHIFT) - 1;
+
+    /* Headers and literals of all clauses */
+    private int[] data;
+
+    /* Used part of data */
+    private int size;
+
+    /* Number of stored clauses that are not deleted */
+    private int clauseCount;
+
+    /* Number of ints occupied by deleted clauses */
+    private int wasted;
+
+    /**
+     * Creates an empty arena.
+     *
+     * @param capacity initial capacity in ints (headers + literals)
+     */
+    public ClauseArena(int capacity) {
+        data = new int[Math.max(capacity, 16)];
+        size = 0;
+        clauseCount = 0;
+        wasted = 0;
+    }
+
+    /**
+     * Copies a clause into the arena.
+     *
+     * @param literals encoded literals
+     * @param from     index of the first literal in literals
+     * @param length   number of literals
+     * @param learned  true if the clause was learned
+     * @return reference (offset) of the new clause
+     */
+    public int add(int[] literals, int from, int length, boolean learned) {
+        int cref = reserve(HEADER_SIZE + length, 1);
+        write(cref, literals, from, length, learned);
+        return cref;
+    }
+
+    /**
+     * Reserves space for clauses that are written later with {@link #write}.
+     * Disjoint parts of the reserved space may be written by different threads.
+     *
+     * @param ints        number of ints for headers and literals
+     * @param clauseCount number of clauses in the reserved space
+     * @return offset of the reserved space
+     */
+    int reserve(int ints, int clauseCount) {
+        ensureCapacity(size + ints);
+        int offset = size;
+        size += ints;
+        this.clauseCount += clauseCount;
+        return offset;
+    }
+
+    /**
+     * Writes a clause into reserved space.
+     *
+     * @param cref     offset of the clause
+     * @param literals encoded literals
+     * @param from     index of the first literal in literals
+     * @param length   number of literals
+     * @param learned  true if the clause was learned
+     */
+    void write(int cref, int[] literals, int from, int length, boolean learned) {
+        data[cref + SIZE_OFFSET] = length;
+        data[cref + FLAGS_OFFSET] = learned ? FLAG_LEARNED : 0;
+        data[cref + ACTIVITY_OFFSET] = 0;
+        System.arraycopy(literals, from, data, cref + HEADER_SIZE, length);
+    }
+
+    private void ensureCapacity(int capacity) {
+        if (capacity > data.length) {
+            data = Arrays.copyOf(data, Math.max(capacity, data.length + (data.length >> 1)));
+        }
+    }
+
+    /**
+     * @param cref clause reference
+     * @return number of literals of the clause
+     */
+    public int size(int cref) {
+        return data[cref + SIZE_OFFSET];
+    }
+
+    /**
+     * @param cref  clause reference
+     * @param index index of the literal within the clause
+     * @return encoded literal
+     */
+    public int literal(int cref, int index) {
+        return data[cref + HEADER_SIZE + index];
+    }
+
+    public void setLiteral(int cref, int index, int literal) {
+        data[cref + HEADER_SIZE + index] = literal;
+    }
+
+    /**
+     * Returns the offset of the first literal of the clause in the backing array.
+     * Allows hot loops to work directly on {@link #getData()}.
+     *
+     * @param cref clause reference
+     * @return offset of the first literal
+     */
+    public int start(int cref) {
+        return cref + HEADER_SIZE;
+    }
+
+    public boolean isLearned(int cref) {
+        return (data[cref + FLAGS_OFFSET] & FLAG_LEARNED) != 0;
+    }
+
+    public boolean isDeleted(int cref) {
+        return (data[cref + FLAGS_OFFSET] & FLAG_DELETED) != 0;
+    }
+
+    /**
+     * Marks a clause as deleted. Its space is reclaimed by the next garbage collection,
+     * until then watchers and lists must not hand it out anymore.
+     *
+     * @param cref clause reference
+     */
+    public void delete(int cref) {
+        if (!isDeleted(cref)) {
+            data[cref + FLAGS_OFFSET] |= FLAG_DELETED;
+            wasted += HEADER_SIZE + size(cref);
+            clauseCount--;
+        }
+    }
+
+    /**
+     * Returns true if the clause took part in a conflict since the flag was last cleared.
+     *
+     * @param cref clause reference
+     * @return used flag
+     */
+    public boolean isUsed(int cref) {
+        return (data[cref + FLAGS_OFFSET] & FLAG_USED) != 0;
+    }
+
+    public void setUsed(int cref, boolean used) {
+        if (used) {
+            data[cref + FLAGS_OFFSET] |= FLAG_USED;
+        } else {
+            data[cref + FLAGS_OFFSET] &= ~FLAG_USED;
+        }
+    }
+
+    /**
+     * Returns true if the clause was already vivified during inprocessing.
+     *
+     * @param cref clause reference
+     * @return vivified flag
+     */
+    public boolean isVivified(int cref) {
+        return (data[cref + FLAGS_OFFSET] & FLAG_VIVIFIED) != 0;
+    }
+
+    public void setVivified(int cref, boolean vivified) {
+        if (vivified) {
+            data[cref + FLAGS_OFFSET] |= FLAG_VIVIFIED;
+        } else {
+            data[cref + FLAGS_OFFSET] &= ~FLAG_VIVIFIED;
+        }
+    }
+
+    /**
+     * Returns the literal block distance stored for the clause, 0 if it was never set.
+     *
+     * @param cref clause reference
+     * @return LBD
+     */
+    public int getLBD(int cref) {
+        return data[cref + FLAGS_OFFSET] >>> LBD_SHIFT;
+    }
+
+    public void setLBD(int cref, int lbd) {
+        data[cref + FLAGS_OFFSET] = (data[cref + FLAGS_OFFSET] & FLAGS_MASK) | (lbd << LBD_SHIFT);
+    }
+
+    public float getActivity(int cref) {
+        return Float.intBitsToFloat(data[cref + ACTIVITY_OFFSET]);
+    }
+
+    public void setActivity(int cref, float activity) {
+        data[cref + ACTIVITY_OFFSET] = Float.floatToRawIntBits(activity);
+    }
+
+    /**
+     * Copies a clause into another arena during garbage collection.
+     * The new reference is remembered in the old header, so every later call for the same
+     * clause returns the same reference.
+     *
+     * @param cref clause reference in this arena
+     * @param to   target arena
+     * @return reference of the clause in the target arena
+     */
+    public int relocate(int cref, ClauseArena to) {
+        if ((data[cref + FLAGS_OFFSET] & FLAG_RELOCATED) != 0) {
+            return data[cref + ACTIVITY_OFFSET];
+        }
+        int length = size(cref);
+        to.ensureCapacity(to.size + HEADER_SIZE + length);
+        int newRef = to.size;
+        System.arraycopy(data, cref, to.data, newRef, HEADER_SIZE + length);
+        to.size += HEADER_SIZE + length;
+        to.clauseCount++;
+        data[cref + FLAGS_OFFSET] |= FLAG_RELOCATED;
+        data[cref + ACTIVITY_OFFSET] = newRef;
+        return newRef;
+    }
+
+    /**
+     * Moves the content of this arena into another arena object and leaves this one empty.
+     * Used to swap in the result of a garbage collection while keeping references to the
+     * target arena valid.
+     *
+     * @param to arena that takes over the content
+     */
+    public void moveTo(ClauseArena to) {
+        to.data = data;
+        to.size = size;
+        to.clauseCount = clauseCount;
+        to.wasted = wasted;
+        data = new int[16];
+        size = 0;
+        clauseCount = 0;
+        wasted = 0;
+    }
+
+    /**
+     * Returns the backing array. It is replaced when the arena grows,
+     * so it must not be cached across calls to {@link #add}.
+     *
+     * @return backing array
+     */
+    public int[] getData() {
+        return data;
+    }
+
+    /**
+     * @return number of used ints
+     */
+    public int getSize() {
+        return size;
+    }
+
+    /**
+     * @return number of ints occupied by deleted clauses
+     */
+    public int getWasted() {
+        return wasted;
+    }
+
+    public int getClauseCount() {
+        return clauseCount;
+    }
+}
@@ -0,0 +1,202 @@
+package dataStructure;
+
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Passes learned clauses between solvers that work on the same formula in parallel.
+ * Every solver writes its exported clauses into its own ring buffer, which only it writes, and reads the
+ * rings of all other solvers with its own read positions. No lock is taken: the writer marks a slot as
+ * busy, fills it and then stamps it with its position in the ring. A reader accepts a slot only if the
+ * stamp is the expected position before and after reading it. When a reader falls behind by more than
+ * the ring size, the oldest clauses are overwritten and lost for it.
+ * Only clauses up to the size and LBD limits are exported.
+ */
+public class ClauseExchange {
+    /* Clauses per ring */
+    private static final int CAPACITY = 1 << 10;
+
+    /* Most literals that fit into a slot */
+    public static final int MAX_SIZE = 32;
+
+    /* Slot layout: size, LBD, literals */
+    private static final int SLOT_SIZE = MAX_SIZE + 2;
+
+    private final Ring[] rings;
+    private final int capacity;
+
+    /* Read position of every reader in the ring of every writer, [reader][writer] */
+    private final long[][] cursors;
+
+    /* Clauses overwritten before a reader got them, per reader */
+    private final long[] overruns;
+
+    private int sizeLimit = 8;
+    private int lbdLimit = 3;
+
+    /**
+     * @param solvers number of solvers, each is identified by an index below this number
+     */
+    public ClauseExchange(int solvers) {
+        this(solvers, CAPACITY);
+    }
+
+    /**
+     * @param solvers  number of solvers, each is identified by an index below this number
+     * @param capacity clauses per ring
+     */
+    ClauseExchange(int solvers, int capacity) {
+        this.capacity = capacity;
+        rings = new Ring[solvers];
+        for (int i = 0; i < solvers; i++) {
+            rings[i] = new Ring(capacity);
+        }
+        cursors = new long[solvers][solvers];
+        overruns = new long[solvers];
+    }
+
+    /**
+     * Publishes a learned clause to the other solvers, if it passes the limits.
+     * Must only be called by the thread of the solver.
+     *
+     * @param solver   index of the exporting solver
+     * @param literals encoded literals
+     * @param lbd      LBD of the clause
+     * @return true if the clause was exported
+     */
+    boolean export(int solver, IntVec literals, int lbd) {
+        if (literals.size() > sizeLimit || lbd > lbdLimit) {
+            return false;
+        }
+        rings[solver].write(literals, lbd);
+        return true;
+    }
+
+    /**
+     * Reads the next clause exported by another solver.
+     * Must only be called by the thread of the solver.
+     *
+     * @param solver   index of the importing solver
+     * @param literals receives the encoded literals
+     * @return LBD of the clause, 0 if no new clause is available
+     */
+    int poll(int solver, IntVec literals) {
+        for (int writer = 0; writer < rings.length; writer++) {
+            if (writer == solver) {
+                continue;
+            }
+            Ring ring = rings[writer];
+            long head = ring.head;
+            long cursor = cursors[solver][writer];
+            if (head - cursor > capacity) {
+                overruns[solver] += head - cursor - capacity;
+                cursor = head - capacity;
+            }
+            while (cursor < head) {
+                int lbd = ring.read(cursor++, literals);
+                if (lbd > 0) {
+                    cursors[solver][writer] = cursor;
+                    return lbd;
+                }
+                overruns[solver]++;
+            }
+            cursors[solver][writer] = cursor;
+        }
+        return 0;
+    }
+
+    /**
+     * Sets the longest clause that is exported.
+     *
+     * @param sizeLimit number of literals, at most {@link #MAX_SIZE}
+     */
+    public void setSizeLimit(int sizeLimit) {
+        if (sizeLimit > MAX_SIZE) {
+            throw new IllegalArgumentException("Size limit above " + MAX_SIZE);
+        }
+        this.sizeLimit = sizeLimit;
+    }
+
+    public int getSizeLimit() {
+        return sizeLimit;
+    }
+
+    /**
+     * Sets the highest LBD of an exported clause.
+     *
+     * @param lbdLimit LBD limit
+     */
+    public void setLBDLimit(int lbdLimit) {
+        this.lbdLimit = lbdLimit;
+    }
+
+    public int getLBDLimit() {
+        return lbdLimit;
+    }
+
+    /**
+     * Returns the number of clauses a solver lost because it did not read them in time.
+     * Only exact while the solvers are stopped.
+     *
+     * @param solver index of the importing solver
+     * @return number of lost clauses
+     */
+    public long getOverruns(int solver) {
+        return overruns[solver];
+    }
+
+    /**
+     * Ring buffer of one writer.
+     */
+    private static class Ring {
+        private final int capacity;
+        private final AtomicIntegerArray slots;
+
+        /* Position written to each slot, -1 while it is written */
+        private final AtomicLongArray stamps;
+
+        /* Position of the next clause, only changed by the writer */
+        private volatile long head = 0;
+
+        Ring(int capacity) {
+            this.capacity = capacity;
+            slots = new AtomicIntegerArray(capacity * SLOT_SIZE);
+            stamps = new AtomicLongArray(capacity);
+            for (int i = 0; i < capacity; i++) {
+                stamps.set(i, -1);
+            }
+        }
+
+        void write(IntVec literals, int lbd) {
+            long position = head;
+            int slot = (int) (position % capacity);
+            int base = slot * SLOT_SIZE;
+            stamps.set(slot, -1);
+            slots.set(base, literals.size());
+            slots.set(base + 1, lbd);
+            for (int i = 0; i < literals.size(); i++) {
+                slots.set(base + 2 + i, literals.get(i));
+            }
+            stamps.set(slot, position);
+            head = position + 1;
+        }
+
+        /**
+         * @return LBD of the clause, 0 if the slot was overwritten
+         */
+        int read(long position, IntVec literals) {
+            int slot = (int) (position % capacity);
+            int base = slot * SLOT_SIZE;
+            if (stamps.get(slot) != position) {
+                return 0;
+            }
+            int size = slots.get(base);
+            int lbd = slots.get(base + 1);
+            literals.clear();
+            for (int i = 0; i < size && i < MAX_SIZE; i++) {
+                literals.push(slots.get(base + 2 + i));
+            }
+            return stamps.get(slot) == position ? Math.max(lbd, 1) : 0;
+        }
+    }
+}
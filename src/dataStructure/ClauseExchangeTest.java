@@ -0,0 +1,214 @@
+package dataStructure;
+
+import org.junit.Test;
+
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.Assert.*;
+
+public class ClauseExchangeTest {
+
+    /**
+     * Clauses above the size or LBD limit stay with their writer, a writer does not read its own ring
+     */
+    @Test
+    public void testLimits() {
+        ClauseExchange exchange = new ClauseExchange(2);
+        assertFalse(exchange.export(0, clause(0, 1, 9), 2));
+        assertFalse(exchange.export(0, clause(0, 2, 3), 4));
+        assertTrue(exchange.export(0, clause(0, 3, 8), 3));
+        exchange.setSizeLimit(ClauseExchange.MAX_SIZE);
+        exchange.setLBDLimit(10);
+        assertTrue(exchange.export(0, clause(0, 4, ClauseExchange.MAX_SIZE), 10));
+
+        IntVec literals = new IntVec();
+        assertEquals(0, exchange.poll(0, literals));
+        assertEquals(3, exchange.poll(1, literals));
+        assertArrayEquals(clause(0, 3, 8).toArray(), literals.toArray());
+        assertEquals(10, exchange.poll(1, literals));
+        assertArrayEquals(clause(0, 4, ClauseExchange.MAX_SIZE).toArray(), literals.toArray());
+        assertEquals(0, exchange.poll(1, literals));
+        assertEquals(0, exchange.getOverruns(1));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testSizeLimitAboveSlot() {
+        new ClauseExchange(2).setSizeLimit(ClauseExchange.MAX_SIZE + 1);
+    }
+
+    /**
+     * A reader that falls behind a wrapped ring gets its newest clauses and counts the lost ones,
+     * the ring of another writer is read completely
+     */
+    @Test
+    public void testOverrun() {
+        ClauseExchange exchange = new ClauseExchange(3, 4);
+        for (int s = 0; s < 10; s++) {
+            assertTrue(exchange.export(0, clause(0, s, 2), 1));
+        }
+        for (int s = 0; s < 3; s++) {
+            assertTrue(exchange.export(1, clause(1, s, 3), 2));
+        }
+        IntVec literals = new IntVec();
+        for (int s = 6; s < 10; s++) {
+            assertEquals(1, exchange.poll(2, literals));
+            assertArrayEquals(clause(0, s, 2).toArray(), literals.toArray());
+        }
+        for (int s = 0; s < 3; s++) {
+            assertEquals(2, exchange.poll(2, literals));
+            assertArrayEquals(clause(1, s, 3).toArray(), literals.toArray());
+        }
+        assertEquals(0, exchange.poll(2, literals));
+        assertEquals(6, exchange.getOverruns(2));
+        //the other reader lags behind both rings
+        assertEquals(1, exchange.poll(1, literals));
+        assertArrayEquals(clause(0, 6, 2).toArray(), literals.toArray());
+        assertEquals(6, exchange.getOverruns(1));
+    }
+
+    /**
+     * The writer overwrites the slot while the reader copies its literals. The stamp is checked again
+     * after the copy, so the torn clause is dropped and counted as lost.
+     */
+    @Test
+    public void testTornRead() {
+        final ClauseExchange exchange = new ClauseExchange(2, 2);
+        exchange.setSizeLimit(ClauseExchange.MAX_SIZE);
+        exchange.setLBDLimit(Integer.MAX_VALUE);
+        exchange.export(0, clause(0, 0, clauseSize(0)), lbd(0));
+        IntVec literals = new IntVec() {
+            private boolean overwritten = false;
+
+            @Override
+            public void push(int value) {
+                if (!overwritten) {
+                    //clause 2 goes into the slot of clause 0
+                    overwritten = true;
+                    exchange.export(0, clause(0, 1, clauseSize(1)), lbd(1));
+                    exchange.export(0, clause(0, 2, clauseSize(2)), lbd(2));
+                }
+                super.push(value);
+            }
+        };
+        //the clauses written meanwhile are found by the next calls
+        assertEquals(0, exchange.poll(1, literals));
+        assertEquals(1, exchange.getOverruns(1));
+        assertEquals(lbd(1), exchange.poll(1, literals));
+        assertArrayEquals(clause(0, 1, clauseSize(1)).toArray(), literals.toArray());
+        assertEquals(lbd(2), exchange.poll(1, literals));
+        assertArrayEquals(clause(0, 2, clauseSize(2)).toArray(), literals.toArray());
+        assertEquals(0, exchange.poll(1, literals));
+    }
+
+    /**
+     * A writer floods a ring of two slots while two readers poll it. The readers may see slots that are
+     * overwritten while they read them, every clause they accept must still be one that was exported, in order.
+     */
+    @Test(timeout = 60000)
+    public void testFloodSmallRing() throws Exception {
+        final int exports = 2000000;
+        final ClauseExchange exchange = new ClauseExchange(3, 2);
+        exchange.setSizeLimit(ClauseExchange.MAX_SIZE);
+        exchange.setLBDLimit(Integer.MAX_VALUE);
+        final AtomicBoolean done = new AtomicBoolean(false);
+        final AtomicReference<String> error = new AtomicReference<String>();
+        final long[] received = new long[3];
+        Thread writer = new Thread(new Runnable() {
+            @Override
+            public void run() {
+                for (int s = 0; s < exports && error.get() == null; s++) {
+                    exchange.export(0, clause(0, s, clauseSize(s)), lbd(s));
+                }
+                done.set(true);
+            }
+        }, "exchange-test-writer");
+        Thread[] readers = new Thread[2];
+        for (int r = 0; r < readers.length; r++) {
+            final int reader = r + 1;
+            readers[r] = new Thread(new Runnable() {
+                @Override
+                public void run() {
+                    IntVec literals = new IntVec();
+                    int last = -1;
+                    boolean finished = false;
+                    while (!finished) {
+                        //the last clauses are read after the writer is done
+                        finished = done.get();
+                        int lbd;
+                        while ((lbd = exchange.poll(reader, literals)) > 0) {
+                            String problem = check(literals, lbd, last);
+                            if (problem != null) {
+                                error.compareAndSet(null, problem);
+                                return;
+                            }
+                            last = literals.get(0) & 0xFFFFFF;
+                            received[reader]++;
+                        }
+                    }
+                }
+            }, "exchange-test-reader-" + reader);
+        }
+        writer.start();
+        for (Thread thread : readers) {
+            thread.start();
+        }
+        writer.join();
+        for (Thread thread : readers) {
+            thread.join();
+        }
+        assertNull(error.get(), error.get());
+        for (int reader = 1; reader < 3; reader++) {
+            assertTrue(received[reader] > 0);
+            assertTrue(exchange.getOverruns(reader) > 0);
+            //every clause was received or counted as lost, the last one is always received
+            assertEquals(exports, received[reader] + exchange.getOverruns(reader));
+        }
+    }
+
+    /**
+     * Checks a polled clause of writer 0 against the clause that was exported.
+     *
+     * @param last sequence number of the last accepted clause
+     * @return description of the corruption or null
+     */
+    private static String check(IntVec literals, int lbd, int last) {
+        if (literals.isEmpty() || literals.get(0) >>> 24 != 0) {
+            return "clause of another writer";
+        }
+        int s = literals.get(0) & 0xFFFFFF;
+        if (s <= last) {
+            return "clause " + s + " after clause " + last;
+        }
+        boolean intact = literals.size() == clauseSize(s) && lbd == lbd(s);
+        for (int i = 1; intact && i < literals.size(); i++) {
+            intact = literals.get(i) == literal(0, s, i);
+        }
+        return intact ? null : "corrupt clause " + s + ": " + literals.size() + " literals, LBD " + lbd;
+    }
+
+    private static int clauseSize(int s) {
+        return ClauseExchange.MAX_SIZE - s % 4;
+    }
+
+    private static int lbd(int s) {
+        return 1 + s % 7;
+    }
+
+    /**
+     * The first value holds writer and sequence number, the others are derived from them.
+     * The values only need to be distinct, they are not used as literals.
+     */
+    private static IntVec clause(int writer, int s, int size) {
+        IntVec literals = new IntVec();
+        literals.push(writer << 24 | s);
+        for (int i = 1; i < size; i++) {
+            literals.push(literal(writer, s, i));
+        }
+        return literals;
+    }
+
+    private static int literal(int writer, int s, int i) {
+        return (writer * 31 + s) * 37 + i;
+    }
+}
@@ -0,0 +1,184 @@
+package dataStructure;
+
+/**
+ * Hash index of clauses by their set of literals.
+ * The key of a clause is a 64-bit fingerprint that does not depend on the order of the literals,
+ * so it is the same as a hash of the sorted literals. Entries live in an open addressing table
+ * with linear probing; equal fingerprints are confirmed by an exact comparison of the literals.
+ * Lookups, insertions and removals take expected O(clause length).
+ */
+public class ClauseIndex {
+    private static final int EMPTY = ClauseArena.CREF_UNDEF;
+
+    private final ClauseArena arena;
+
+    /* Fingerprints and clause references, EMPTY marks free slots */
+    private long[] keys;
+    private int[] crefs;
+    private int size;
+
+    /* Marks the literals of the clause looked up, indexed by encoded literal */
+    private int[] marks;
+    private int stamp = 0;
+
+    /**
+     * @param arena  arena holding the indexed clauses
+     * @param varNum highest variable ID
+     */
+    public ClauseIndex(ClauseArena arena, int varNum) {
+        this.arena = arena;
+        this.marks = new int[2 * (varNum + 1)];
+        allocate(16);
+    }
+
+    private void allocate(int capacity) {
+        keys = new long[capacity];
+        crefs = new int[capacity];
+        for (int i = 0; i < capacity; i++) {
+            crefs[i] = EMPTY;
+        }
+        size = 0;
+    }
+
+    /**
+     * Computes the fingerprint of the literals data[from] to data[from + length - 1].
+     *
+     * @param data   array holding the literals
+     * @param from   index of the first literal
+     * @param length number of literals
+     * @return fingerprint, equal for all orders of the same literals
+     */
+    static long fingerprint(int[] data, int from, int length) {
+        long sum = 0;
+        long xor = 0;
+        for (int i = from; i < from + length; i++) {
+            long h = mix(data[i]);
+            sum += h;
+            xor ^= Long.rotateLeft(h, 17);
+        }
+        return mix((sum ^ xor) + length);
+    }
+
+    private static long mix(long x) {
+        //finalizer of SplitMix64
+        x += 0x9E3779B97F4A7C15L;
+        x = (x ^ (x >>> 30)) * 0xBF58476D1CE4E5B9L;
+        x = (x ^ (x >>> 27)) * 0x94D049BB133111EBL;
+        return x ^ (x >>> 31);
+    }
+
+    private int slot(long key) {
+        return (int) key & (keys.length - 1);
+    }
+
+    /**
+     * Adds a clause. The clause must not be contained yet.
+     *
+     * @param cref clause reference
+     */
+    public void add(int cref) {
+        if (2 * (size + 1) > keys.length) {
+            grow();
+        }
+        insert(fingerprint(arena.getData(), arena.start(cref), arena.size(cref)), cref);
+    }
+
+    private void insert(long key, int cref) {
+        int i = slot(key);
+        while (crefs[i] != EMPTY) {
+            i = (i + 1) & (keys.length - 1);
+        }
+        keys[i] = key;
+        crefs[i] = cref;
+        size++;
+    }
+
+    private void grow() {
+        long[] oldKeys = keys;
+        int[] oldCrefs = crefs;
+        allocate(2 * oldKeys.length);
+        for (int i = 0; i < oldKeys.length; i++) {
+            if (oldCrefs[i] != EMPTY) {
+                insert(oldKeys[i], oldCrefs[i]);
+            }
+        }
+    }
+
+    /**
+     * Removes a clause. Must be called before the clause is deleted from the arena.
+     *
+     * @param cref clause reference
+     */
+    public void remove(int cref) {
+        long key = fingerprint(arena.getData(), arena.start(cref), arena.size(cref));
+        int i = slot(key);
+        while (crefs[i] != cref) {
+            if (crefs[i] == EMPTY) {
+                return;
+            }
+            i = (i + 1) & (keys.length - 1);
+        }
+        //shift following entries back so no probe sequence is interrupted
+        int mask = keys.length - 1;
+        int j = i;
+        while (true) {
+            crefs[i] = EMPTY;
+            int home;
+            do {
+                j = (j + 1) & mask;
+                if (crefs[j] == EMPTY) {
+                    size--;
+                    return;
+                }
+                home = slot(keys[j]);
+            } while (i <= j ? (i < home && home <= j) : (i < home || home <= j));
+            keys[i] = keys[j];
+            crefs[i] = crefs[j];
+            i = j;
+        }
+    }
+
+    /**
+     * Looks up a clause with exactly the given literals, in any order.
+     *
+     * @param literals encoded literals without duplicates
+     * @param length   number of literals
+     * @return reference of the clause or CREF_UNDEF
+     */
+    public int find(int[] literals, int length) {
+        long key = fingerprint(literals, 0, length);
+        int i = slot(key);
+        boolean marked = false;
+        int[] data = arena.getData();
+        while (crefs[i] != EMPTY) {
+            int cref = crefs[i];
+            if (keys[i] == key && arena.size(cref) == length) {
+                if (!marked) {
+                    stamp++;
+                    for (int k = 0; k < length; k++) {
+                        marks[literals[k]] = stamp;
+                    }
+                    marked = true;
+                }
+                int start = arena.start(cref);
+                int k = 0;
+                while (k < length && marks[data[start + k]] == stamp) {
+                    k++;
+                }
+                if (k == length) {
+                    return cref;
+                }
+            }
+            i = (i + 1) & (keys.length - 1);
+        }
+        return ClauseArena.CREF_UNDEF;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public void clear() {
+        allocate(16);
+    }
+}
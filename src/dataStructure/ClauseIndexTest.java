@@ -0,0 +1,120 @@
+package dataStructure;
+
+import org.junit.Test;
+
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+public class ClauseIndexTest {
+
+    /**
+     * Clauses are found with their literals in any order, removals keep the other entries reachable
+     */
+    @Test
+    public void testFindAndRemove() {
+        int varNum = 50;
+        ClauseArena arena = new ClauseArena(1024);
+        ClauseIndex index = new ClauseIndex(arena, varNum);
+        Random random = new Random(3);
+        int[][] clauses = new int[500][];
+        int[] crefs = new int[clauses.length];
+        for (int c = 0; c < clauses.length; c++) {
+            do {
+                clauses[c] = randomClause(random, varNum, 2 + c % 5);
+            } while (find(index, clauses[c]) != ClauseArena.CREF_UNDEF);
+            crefs[c] = arena.add(clauses[c], 0, clauses[c].length, true);
+            index.add(crefs[c]);
+        }
+        for (int c = 0; c < clauses.length; c++) {
+            assertEquals(crefs[c], find(index, reversed(clauses[c])));
+        }
+        //a subset of a clause with five literals is no hit
+        assertEquals(ClauseArena.CREF_UNDEF, find(index, new int[]{clauses[3][0], clauses[3][1], clauses[3][2]}));
+
+        for (int c = 0; c < clauses.length; c += 2) {
+            index.remove(crefs[c]);
+        }
+        assertEquals(clauses.length / 2, index.size());
+        for (int c = 0; c < clauses.length; c++) {
+            int expected = c % 2 == 0 ? ClauseArena.CREF_UNDEF : crefs[c];
+            assertEquals(expected, find(index, clauses[c]));
+        }
+    }
+
+    /**
+     * Clauses deleted by a reduction leave the index, the index is rebuilt with the new references
+     * when the arena is compacted
+     */
+    @Test
+    public void testReductionAndCompaction() {
+        int varNum = 30;
+        ClauseSet clauseSet = new ClauseSet(varNum);
+        LearnedClauseDatabase database = new LearnedClauseDatabase(clauseSet);
+        Random random = new Random(5);
+        int[][] clauses = new int[200][];
+        for (int c = 0; c < clauses.length; c++) {
+            do {
+                clauses[c] = randomClause(random, varNum, 4);
+            } while (find(clauseSet, clauses[c]) != ClauseArena.CREF_UNDEF);
+            int cref = clauseSet.addClause(encoded(clauses[c]), true);
+            database.onLearned(cref, 10);
+            clauseSet.getArena().setActivity(cref, c);
+        }
+        int[] before = new int[clauses.length];
+        for (int c = 0; c < clauses.length; c++) {
+            before[c] = find(clauseSet, clauses[c]);
+        }
+
+        //deletes the 100 least active clauses, which are the first ones, and compacts the arena
+        database.reduce();
+        assertEquals(1, clauseSet.getStatistics().getGarbageCollections());
+        assertEquals(100, clauseSet.getLearnts().size());
+        boolean moved = false;
+        for (int c = 0; c < clauses.length; c++) {
+            int cref = find(clauseSet, clauses[c]);
+            if (c < 100) {
+                assertEquals(ClauseArena.CREF_UNDEF, cref);
+            } else {
+                assertTrue(clauseSet.getLearnts().contains(cref));
+                moved |= cref != before[c];
+            }
+        }
+        assertTrue(moved);
+    }
+
+    private static int[] randomClause(Random random, int varNum, int size) {
+        IntVec clause = new IntVec();
+        while (clause.size() < size) {
+            int var = 1 + random.nextInt(varNum);
+            if (!clause.contains(Literal.of(var, false)) && !clause.contains(Literal.of(var, true))) {
+                clause.push(Literal.of(var, random.nextBoolean()));
+            }
+        }
+        return clause.toArray();
+    }
+
+    private static int[] reversed(int[] literals) {
+        int[] result = new int[literals.length];
+        for (int i = 0; i < literals.length; i++) {
+            result[i] = literals[literals.length - 1 - i];
+        }
+        return result;
+    }
+
+    private static IntVec encoded(int[] literals) {
+        IntVec vec = new IntVec();
+        for (int literal : literals) {
+            vec.push(literal);
+        }
+        return vec;
+    }
+
+    private static int find(ClauseIndex index, int[] literals) {
+        return index.find(literals, literals.length);
+    }
+
+    private static int find(ClauseSet clauseSet, int[] literals) {
+        return clauseSet.findLearnedClause(encoded(literals));
+    }
+}
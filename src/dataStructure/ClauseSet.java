@@ -1,156 +1,592 @@
 package dataStructure;
 
-import dimacs.parser.DIMACSParser;
+import dimacs.parser.DIMACSFormula;
+import dimacs.parser.DIMACSStreamParser;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
 import java.util.HashMap;
-import java.util.Stack;
 import java.util.Vector;
 
 /**
  * A set of clauses.
+ * Holds the clause arena, the assignment trail and the watch lists used for unit propagation.
  */
 public class ClauseSet {
     /* Number of variables */
     private int varNum;
 
-    /* Clauses of this set */
+    /* Number of variables that occur in the formula, all of them are assigned in a model */
+    private int usedVarNum;
+
+    /* Variables that occur in the formula or in assumptions, indexed by ID */
+    private boolean[] used;
+
+    /* References of the original clauses of this set */
+    private IntVec originals;
+
+    /* Views on the original clauses, created on demand */
     private Vector<Clause> clauses;
 
-    private Vector<Clause> units;
+    /* References of all learned clauses that are not deleted */
+    private IntVec learnts;
+
+    /* Learned clauses by their literals, to detect clauses that are learned twice */
+    private ClauseIndex learnedIndex;
 
-    //Vector to keep track of new variables
-    private Vector<Clause> newUnitsQueue;
+    /* Literals of all clauses */
+    private ClauseArena arena;
 
-    /* List of all variables */
+    /* Dense table of all variables, indexed by ID */
+    private VariableTable table;
+
+    /* List of all variables, view on the table for compatibility, created on demand */
     private HashMap<Integer, Variable> variables;
 
-    private int globalLevel = 0;
+    /* Clauses with more than two literals watching a literal, indexed by the encoded literal */
+    private WatchList[] watches;
+
+    /* Binary clauses of a literal as pairs of reference and other literal, indexed by the encoded literal */
+    private WatchList[] binaries;
+
+    /* Assigned literals in assignment order */
+    private int[] trail;
+    private int trailSize;
+
+    /* Trail position of every decision, the size is the current decision level */
+    private IntVec trailLim;
+
+    /* Position in the trail of the next literal to propagate */
+    private int qhead;
+
+    /* False if the formula contains contradicting units */
+    private boolean ok = true;
+
+    /* Counters of propagation and search */
+    private Statistics statistics = new Statistics();
+
+    /* Values of decisions, remembers the values of unassigned variables */
+    private PhaseSelector phases;
+
+    /* Removed variables of a preprocessed formula, null if it was not preprocessed */
+    private ModelReconstruction reconstruction;
+
+    /* Decision level of the assignments of the removed variables, 0 if the model is not extended */
+    private int extensionLevel = 0;
 
     /**
      * Constructs a clause set from the given DIMACS file.
+     * Files ending with .gz are decompressed while parsing.
      *
      * @param filePath file path of the DIMACS file.
+     * @throws UncheckedIOException if the file cannot be read
+     * @throws dimacs.parser.DIMACSParseException on malformed input
      */
     public ClauseSet(String filePath) {
-        variables = new HashMap<Integer, Variable>();
-        clauses = new Vector<Clause>();
-        units = new Vector<Clause>();
-        DIMACSParser parser = new DIMACSParser(filePath);
-        Vector<Vector<Integer>> parsedForumla = parser.parseFile();
-        for (Vector<Integer> clauseVec : parsedForumla) {
-            //Create new clause
-            Clause clause = new Clause(clauseVec);
-            for (Integer varId : clauseVec) {
-                int id = Math.abs(varId);
-                updateVariablesByIdMap(id);
+        this(readFile(filePath));
+    }
+
+    /**
+     * Constructs a clause set from a DIMACS stream, plain or gzip compressed.
+     * The stream is read on a separate thread while the clauses are parsed.
+     *
+     * @param in DIMACS input, not closed
+     * @throws UncheckedIOException if the stream cannot be read
+     * @throws dimacs.parser.DIMACSParseException on malformed input
+     */
+    public ClauseSet(InputStream in) {
+        this(readStream(in));
+    }
+
+    /**
+     * Constructs an empty clause set for the variables 1 to varNum, clauses are added with
+     * {@link #addClause(int[])}.
+     *
+     * @param varNum highest variable ID
+     */
+    public ClauseSet(int varNum) {
+        initialize(varNum, 16);
+    }
+
+    private static DIMACSFormula readFile(String filePath) {
+        try {
+            return new DIMACSStreamParser().parse(filePath);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static DIMACSFormula readStream(InputStream in) {
+        try {
+            return new DIMACSStreamParser().parse(in);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Constructs a clause set from a parsed formula.
+     *
+     * @param formula parsed DIMACS formula
+     */
+    public ClauseSet(DIMACSFormula formula) {
+        this(formula.getVarNum(), formula.getLiterals(), formula.getClauseStarts(), formula.getClauseCount(), true);
+    }
+
+    /**
+     * Constructs a clause set from clauses in flat arrays, as stored in a {@link CNFSnapshot}.
+     *
+     * @param varNum      highest variable ID
+     * @param literals    literals of all clauses
+     * @param starts      start of every clause in literals, starts[clauseCount] is the end of the last clause
+     * @param clauseCount number of clauses
+     * @param dimacs      true for DIMACS literals, false for encoded literals (see {@link Literal})
+     */
+    ClauseSet(int varNum, int[] literals, int[] starts, int clauseCount, boolean dimacs) {
+        initialize(varNum, starts[clauseCount] + ClauseArena.HEADER_SIZE * clauseCount);
+        ClauseSetBuilder builder = new ClauseSetBuilder(varNum, literals, starts, clauseCount, dimacs);
+        builder.build(arena);
+        watches = builder.getWatches();
+        binaries = builder.getBinaries();
+        originals = builder.getClauseRefs();
+        int[] occurrences = builder.getOccurrences();
+        for (int var = 1; var <= varNum; var++) {
+            if (occurrences[var] > 0) {
+                table.getOrCreate(var).setActivity(occurrences[var]);
+                used[var] = true;
+                usedVarNum++;
             }
-            //check initial watched literals
-            Clause.ClauseState cState = clause.initWatch(variables);
-            if (cState == Clause.ClauseState.UNIT) {
-                units.addElement(clause);
+        }
+        IntVec unitRefs = builder.getUnitRefs();
+        for (int i = 0; i < unitRefs.size(); i++) {
+            int cref = unitRefs.get(i);
+            if (arena.size(cref) == 0 || !enqueue(arena.literal(cref, 0), cref)) {
+                ok = false;
             }
-            clauses.addElement(clause);
+        }
+    }
+
+    private void initialize(int varNum, int arenaCapacity) {
+        originals = new IntVec();
+        learnts = new IntVec();
+        this.varNum = varNum;
+        arena = new ClauseArena(arenaCapacity);
+        table = new VariableTable(varNum, arena);
+        watches = new WatchList[2 * (varNum + 1)];
+        binaries = new WatchList[2 * (varNum + 1)];
+        for (int i = 0; i < watches.length; i++) {
+            watches[i] = new WatchList();
+            binaries[i] = new WatchList();
+        }
+        trail = new int[varNum + 1];
+        used = new boolean[varNum + 1];
+        trailLim = new IntVec();
+        learnedIndex = new ClauseIndex(arena, varNum);
+        phases = new PhaseSelector(varNum);
+    }
 
+    /**
+     * Adds an original clause at level 0, e.g. between calls of solve.
+     * Clauses satisfied by the units are skipped and false literals are left out, so the remaining
+     * literals are open and can be watched. Duplicate literals are removed, tautologies are skipped.
+     *
+     * @param literals DIMACS literals
+     * @return false if the clause set is unsatisfiable
+     * @throws IllegalArgumentException for literals of variables out of range
+     * @throws IllegalStateException above level 0 or for a variable removed by preprocessing
+     */
+    public boolean addClause(int[] literals) {
+        if (getDecisionLevel() > 0) {
+            throw new IllegalStateException("Clauses can only be added at level 0");
+        }
+        for (int dimacs : literals) {
+            int var = Math.abs(dimacs);
+            if (dimacs == 0 || var > varNum) {
+                throw new IllegalArgumentException("Invalid literal: " + dimacs);
+            }
+            if (isRemoved(var)) {
+                throw new IllegalStateException("Variable " + var + " was removed by preprocessing, it has to be frozen");
+            }
         }
+        for (int dimacs : literals) {
+            useVariable(Math.abs(dimacs));
+        }
+        IntVec clause = new IntVec(literals.length);
+        for (int dimacs : literals) {
+            int literal = Literal.fromDimacs(dimacs);
+            byte value = table.literalValue(literal);
+            if (value == VariableTable.TRUE || clause.contains(Literal.negate(literal))) {
+                return ok;
+            }
+            if (value == VariableTable.OPEN && !clause.contains(literal)) {
+                clause.push(literal);
+            }
+        }
+        addClause(clause, false);
+        return ok;
+    }
 
+    /**
+     * Adds a variable to the used variables, which are assigned in every model.
+     *
+     * @param var variable ID
+     * @return true if the variable was not used before
+     */
+    boolean useVariable(int var) {
+        if (used[var]) {
+            return false;
+        }
+        table.getOrCreate(var);
+        used[var] = true;
+        usedVarNum++;
+        variables = null;
+        return true;
     }
 
-    void updateVariablesByIdMap(Integer id) {
-        if (!variables.containsKey(id)) {
-            Variable variable = new Variable(id);
-            variable.setActivity(1.0f); //first occurrence
-            variables.put(id, variable);
+    boolean isUsed(int var) {
+        return used[var];
+    }
+
+    /**
+     * Adds a clause to the set at decision level 0.
+     * Units are put on the trail, all other clauses are watched on their first two literals.
+     * Learned clauses are not part of {@link #getClauses()}, they are listed in {@link #getLearnts()}.
+     *
+     * @param literals encoded literals without duplicates
+     * @param learned  true for learned clauses
+     * @return reference of the new clause
+     */
+    int addClause(IntVec literals, boolean learned) {
+        return addClause(literals.getData(), 0, literals.size(), learned);
+    }
+
+    /**
+     * Adds the clause literals[from] to literals[from + length - 1], see {@link #addClause(IntVec, boolean)}.
+     *
+     * @param literals encoded literals without duplicates
+     * @param from     index of the first literal
+     * @param length   number of literals
+     * @param learned  true for learned clauses
+     * @return reference of the new clause
+     */
+    int addClause(int[] literals, int from, int length, boolean learned) {
+        int cref = arena.add(literals, from, length, learned);
+        if (learned) {
+            learnts.push(cref);
+            learnedIndex.add(cref);
         } else {
-            variables.get(id).setActivity(variables.get(id).getActivity() + 1.0f);
-        }
-    }
-
-    /**
-     * Executes unit propagation and checks for the existence of an empty
-     * clause.
-     *
-     * @return Empty clause if it exists else null
-     */
-    public Clause unitPropagation(Stack<Variable> variableStack) {
-        updateUnits();
-        if (newUnitsQueue == null) {
-            //create new vector
-            newUnitsQueue = new Vector<Clause>();
-        } else if (newUnitsQueue.size() != 0) {
-            units.addAll(newUnitsQueue);
-            //clear newUnitsQueue because it was
-            //already added to the units vector
-            newUnitsQueue = new Vector<Clause>();
-        }
-        if (units.size() == 0) {
-            return null;
-        }
-        int unitIndex = -1;
-        while (newUnitsQueue.size() != 0 || unitIndex == -1) {
-            newUnitsQueue = new Vector<Clause>();
-            unitIndex = 0;
-            while (unitIndex < units.size()) {
-                //System.out.println("unitIndex : " + unitIndex);
-                Clause unit = units.get(unitIndex);
-                //System.out.println("Unit: " + unit.toString());
-                Clause emptyClause = propagate(unit, variableStack);
-                if (emptyClause != null) {
-                    units.remove(units.indexOf(unit));
-                    //units = new Vector<Clause>();
-                    return emptyClause;
-                }
-                unitIndex++;
-                //System.out.println("---");
+            originals.push(cref);
+            clauses = null;
+        }
+        if (length == 1) {
+            if (!enqueue(literals[from], cref)) {
+                ok = false;
             }
-            //delete already processed units
-            unitIndex = 0;
-            units = new Vector<Clause>();
-            units.addAll(newUnitsQueue);
+        } else if (length > 1) {
+            attachClause(cref);
+        } else {
+            ok = false;
         }
-        //Unit propagation complete
-        //no empty clause found
-        return null;
+        return cref;
+    }
+
+    /**
+     * Watches a clause on its first two literals.
+     * Each watcher uses the other watched literal as blocker. Binary clauses go to the implication
+     * lists, where the blocker is the literal implied when the watched one becomes false.
+     *
+     * @param cref clause reference
+     */
+    void attachClause(int cref) {
+        int lit0 = arena.literal(cref, 0);
+        int lit1 = arena.literal(cref, 1);
+        WatchList[] lists = arena.size(cref) == 2 ? binaries : watches;
+        lists[lit0].push(cref, lit1);
+        lists[lit1].push(cref, lit0);
     }
 
-    private void updateUnits() {
-        if (units == null)
-            units = new Vector<Clause>();
-        for(Clause clause: clauses) {
-            Clause.ClauseState clauseState = clause.getState(variables);
-            //add or remove new/old units
-            if (clauseState == Clause.ClauseState.UNIT && !units.contains(clause)) {
-                units.addElement(clause);
-            } else if (clauseState != Clause.ClauseState.UNIT && units.contains(clause)) {
-                units.remove(units.indexOf(clause));
+    /**
+     * Moves two literals of a clause to the watched positions and watches them.
+     * Used when a clause becomes asserting again while its old watches are already false.
+     *
+     * @param cref   clause reference, with at least two literals
+     * @param first  literal that goes to position 0
+     * @param second literal that goes to position 1
+     */
+    void rewatchClause(int cref, int first, int second) {
+        detachClause(cref);
+        int[] data = arena.getData();
+        int start = arena.start(cref);
+        int end = start + arena.size(cref);
+        for (int k = start; k < end; k++) {
+            if (data[k] == first) {
+                data[k] = data[start];
+                data[start] = first;
+            }
+        }
+        for (int k = start + 1; k < end; k++) {
+            if (data[k] == second) {
+                data[k] = data[start + 1];
+                data[start + 1] = second;
             }
         }
+        attachClause(cref);
     }
 
+    /**
+     * Removes both watchers of a clause, see {@link #attachClause(int)}.
+     *
+     * @param cref clause reference, with at least two literals
+     */
+    void detachClause(int cref) {
+        WatchList[] lists = arena.size(cref) == 2 ? binaries : watches;
+        detachWatcher(lists[arena.literal(cref, 0)], cref);
+        detachWatcher(lists[arena.literal(cref, 1)], cref);
+    }
 
-    private Clause propagate(Clause currentUC, Stack<Variable> variableStack) {
-        Clause.ClauseState state = currentUC.getState(variables);
-        if(state == Clause.ClauseState.EMPTY){
-            return currentUC;
+    private static void detachWatcher(WatchList watchList, int cref) {
+        int[] ws = watchList.getData();
+        int end = 2 * watchList.size();
+        for (int i = 0; i < end; i += 2) {
+            if (ws[i] == cref) {
+                ws[i] = ws[end - 2];
+                ws[i + 1] = ws[end - 1];
+                watchList.shrink(watchList.size() - 1);
+                return;
+            }
         }
-        if(state != Clause.ClauseState.UNIT){
-            //not a unit
-            return null;
+    }
+
+    /**
+     * Returns true if the clause is the reason of a current assignment.
+     * Such clauses must not be deleted.
+     *
+     * @param cref clause reference
+     * @return true if the clause is locked
+     */
+    boolean isLocked(int cref) {
+        int first = arena.literal(cref, 0);
+        if (arena.size(cref) == 2 && table.literalValue(first) != VariableTable.TRUE) {
+            //binary clauses imply either literal, see propagate
+            first = arena.literal(cref, 1);
         }
-        int literal = currentUC.getUnassigned(variables);
-        if (literal != 0) { // check if no unassigned
-            Clause emptyClause;
-            if (literal > 0) {
-                emptyClause = variables.get(literal).assign(true, variables, newUnitsQueue, globalLevel, currentUC);
+        return table.getReason(Literal.var(first)) == cref && table.literalValue(first) == VariableTable.TRUE;
+    }
+
+    /**
+     * Looks up a learned clause with the given literals.
+     *
+     * @param literals encoded literals without duplicates
+     * @return reference of the learned clause or CREF_UNDEF
+     */
+    int findLearnedClause(IntVec literals) {
+        return learnedIndex.find(literals.getData(), literals.size());
+    }
+
+    /**
+     * Deletes learned clauses and detaches their watchers.
+     * The references must be marked with {@link ClauseArena#delete} before, the list of learned
+     * clauses is filtered accordingly. Compacts the arena when enough space is wasted.
+     */
+    void removeDeletedClauses() {
+        removeDeletedWatchers(watches);
+        removeDeletedWatchers(binaries);
+        int j = 0;
+        for (int i = 0; i < learnts.size(); i++) {
+            if (!arena.isDeleted(learnts.get(i))) {
+                learnts.set(j++, learnts.get(i));
             } else {
-                emptyClause = variables.get(Math.abs(literal)).assign(false, variables, newUnitsQueue, globalLevel, currentUC);
+                learnedIndex.remove(learnts.get(i));
             }
-            variableStack.push(variables.get(Math.abs(literal)));
-            return emptyClause;
-        } else {
-            //Unit Clause has become SAT while UP
-            System.out.println("Unit " + currentUC.toString() + " has no unassigned watched literals");
         }
-        return null;
+        learnts.shrink(j);
+        if (arena.getWasted() > arena.getSize() / 5) {
+            garbageCollect();
+        }
+    }
+
+    private void removeDeletedWatchers(WatchList[] lists) {
+        for (WatchList watchList : lists) {
+            int[] ws = watchList.getData();
+            int end = 2 * watchList.size();
+            int j = 0;
+            for (int i = 0; i < end; i += 2) {
+                if (!arena.isDeleted(ws[i])) {
+                    ws[j++] = ws[i];
+                    ws[j++] = ws[i + 1];
+                }
+            }
+            watchList.shrink(j / 2);
+        }
+    }
+
+    /**
+     * Copies all clauses that are not deleted into a new arena and updates every reference
+     * held by watchers, reasons and clause lists. Deleted clauses must not be watched anymore.
+     */
+    private void garbageCollect() {
+        ClauseArena to = new ClauseArena(arena.getSize() - arena.getWasted());
+        //reasons first, so locked clauses keep their position close to the front
+        for (int i = 0; i < trailSize; i++) {
+            int var = Literal.var(trail[i]);
+            int reason = table.getReason(var);
+            if (reason != ClauseArena.CREF_UNDEF) {
+                table.setReason(var, arena.relocate(reason, to));
+            }
+        }
+        relocateWatchers(binaries, to);
+        relocateWatchers(watches, to);
+        for (int i = 0; i < learnts.size(); i++) {
+            learnts.set(i, arena.relocate(learnts.get(i), to));
+        }
+        for (int i = 0; i < originals.size(); i++) {
+            originals.set(i, arena.relocate(originals.get(i), to));
+        }
+        clauses = null;
+        to.moveTo(arena);
+        learnedIndex.clear();
+        for (int i = 0; i < learnts.size(); i++) {
+            learnedIndex.add(learnts.get(i));
+        }
+        statistics.garbageCollections++;
+    }
+
+    private void relocateWatchers(WatchList[] lists, ClauseArena to) {
+        for (WatchList watchList : lists) {
+            int[] ws = watchList.getData();
+            for (int i = 0; i < 2 * watchList.size(); i += 2) {
+                ws[i] = arena.relocate(ws[i], to);
+            }
+        }
+    }
+
+    /**
+     * Executes unit propagation of all literals in the trail that were not propagated yet.
+     * The binary clauses of the negation of an assigned literal are propagated first, straight from
+     * the implication list. The reason of an implied literal is its binary clause, in which the implied
+     * literal can be at either position.
+     * Of the longer clauses only those watching the negation of the literal are visited, and of these
+     * only the ones whose blocker literal is not true. The watch list is compacted in place.
+     *
+     * @return reference of an empty clause if it exists else CREF_UNDEF
+     */
+    public int propagate() {
+        int conflict = ClauseArena.CREF_UNDEF;
+        long visits = 0;
+        long blockerHits = 0;
+        long binaryVisits = 0;
+        int propagated = 0;
+        while (qhead < trailSize) {
+            int falseLit = Literal.negate(trail[qhead++]);
+            propagated++;
+            WatchList implications = binaries[falseLit];
+            int[] bs = implications.getData();
+            int binaryEnd = 2 * implications.size();
+            for (int i = 0; i < binaryEnd; i += 2) {
+                int implied = bs[i + 1];
+                binaryVisits++;
+                byte value = table.literalValue(implied);
+                if (value == VariableTable.OPEN) {
+                    enqueue(implied, bs[i]);
+                } else if (value == VariableTable.FALSE) {
+                    conflict = bs[i];
+                    break;
+                }
+            }
+            if (conflict != ClauseArena.CREF_UNDEF) {
+                qhead = trailSize;
+                break;
+            }
+            WatchList watchList = watches[falseLit];
+            int[] ws = watchList.getData();
+            int end = 2 * watchList.size();
+            int[] data = arena.getData();
+            int i = 0;
+            int j = 0;
+            while (i < end) {
+                int cref = ws[i];
+                int blocker = ws[i + 1];
+                i += 2;
+                visits++;
+                if (table.literalValue(blocker) == VariableTable.TRUE) {
+                    //satisfied, the clause itself is not touched
+                    ws[j++] = cref;
+                    ws[j++] = blocker;
+                    blockerHits++;
+                    continue;
+                }
+                int start = arena.start(cref);
+                //make sure the false literal is the second watch
+                if (data[start] == falseLit) {
+                    data[start] = data[start + 1];
+                    data[start + 1] = falseLit;
+                }
+                int first = data[start];
+                if (first != blocker && table.literalValue(first) == VariableTable.TRUE) {
+                    ws[j++] = cref;
+                    ws[j++] = first;
+                    continue;
+                }
+                //look for a new literal to watch
+                int clauseEnd = start + arena.size(cref);
+                boolean found = false;
+                for (int k = start + 2; k < clauseEnd; k++) {
+                    if (table.literalValue(data[k]) != VariableTable.FALSE) {
+                        data[start + 1] = data[k];
+                        data[k] = falseLit;
+                        watches[data[start + 1]].push(cref, first);
+                        found = true;
+                        break;
+                    }
+                }
+                if (found) {
+                    continue;
+                }
+                //clause is unit or empty
+                ws[j++] = cref;
+                ws[j++] = first;
+                if (table.literalValue(first) == VariableTable.FALSE) {
+                    conflict = cref;
+                    qhead = trailSize;
+                    while (i < end) {
+                        ws[j++] = ws[i++];
+                    }
+                } else {
+                    enqueue(first, cref);
+                }
+            }
+            watchList.shrink(j / 2);
+        }
+        statistics.propagations += propagated;
+        statistics.watcherVisits += visits;
+        statistics.blockerHits += blockerHits;
+        statistics.binaryVisits += binaryVisits;
+        return conflict;
+    }
+
+    /**
+     * Puts a literal on the trail at the current decision level.
+     *
+     * @param literal encoded literal that becomes true
+     * @param reason  reference of the reason clause, CREF_UNDEF for decisions
+     * @return false if the literal is already false
+     */
+    boolean enqueue(int literal, int reason) {
+        byte value = table.literalValue(literal);
+        if (value != VariableTable.OPEN) {
+            return value == VariableTable.TRUE;
+        }
+        table.assign(Literal.var(literal), !Literal.isNegative(literal), getDecisionLevel(), reason);
+        trail[trailSize++] = literal;
+        return true;
+    }
+
+    /**
+     * Opens a new decision level.
+     */
+    public void newDecisionLevel() {
+        trailLim.push(trailSize);
     }
 
     /**
@@ -161,10 +597,48 @@ public class ClauseSet {
      * @param value value of decision
      */
     public void decisionAssignVariable(Variable variable, boolean value) {
-        if (newUnitsQueue == null) {
-            newUnitsQueue = new Vector<Clause>();
+        enqueue(Literal.of(variable.getId(), !value), ClauseArena.CREF_UNDEF);
+    }
+
+    /**
+     * assign variable from decision with the value chosen by the phase selector
+     *
+     * @param variable variable to be assigned
+     */
+    public void decisionAssignVariable(Variable variable) {
+        decisionAssignVariable(variable, phases.pickPhase(variable.getId()));
+    }
+
+    /**
+     * Unassigns all variables above the given decision level.
+     *
+     * @param level decision level to jump back to
+     */
+    public void cancelUntil(int level) {
+        cancelUntil(level, true);
+    }
+
+    /**
+     * Unassigns all variables above the given decision level.
+     *
+     * @param level      decision level to jump back to
+     * @param savePhases false for assignments that are not part of the search, e.g. of inprocessing
+     */
+    void cancelUntil(int level, boolean savePhases) {
+        if (getDecisionLevel() <= level) {
+            return;
+        }
+        int limit = trailLim.get(level);
+        for (int i = trailSize - 1; i >= limit; i--) {
+            int var = Literal.var(trail[i]);
+            if (savePhases) {
+                phases.save(var, table.value(var));
+            }
+            table.unassign(var);
         }
-        variable.assign(value, variables, newUnitsQueue, globalLevel, null);
+        trailSize = limit;
+        qhead = limit;
+        trailLim.shrink(level);
     }
 
     @Override
@@ -179,7 +653,7 @@ public class ClauseSet {
      */
     public String clausesToString() {
         String res = "";
-        for (Clause clause : clauses)
+        for (Clause clause : getClauses())
             res += clause + "\n";
         return res;
     }
@@ -192,27 +666,181 @@ public class ClauseSet {
     public String varsToString() {
         String res = "";
         for (int i = 1; i <= varNum; i++)
-            res += "Variable " + i + ": " + variables.get(i) + "\n\n";
+            res += "Variable " + i + ": " + table.get(i) + "\n\n";
         return res;
     }
 
+    /**
+     * Returns all variables by ID.
+     * Kept for compatibility, the solver itself works on {@link #getVariableTable()}.
+     *
+     * @return map from ID to variable
+     */
     public HashMap<Integer, Variable> getVariables() {
+        if (variables == null) {
+            variables = new HashMap<Integer, Variable>();
+            for (int id = 1; id <= varNum; id++) {
+                if (table.get(id) != null) {
+                    variables.put(id, table.get(id));
+                }
+            }
+        }
         return variables;
     }
 
+    /**
+     * Returns the number of variables that occur in the formula.
+     * The assignment is complete when the trail has this size.
+     *
+     * @return number of used variables
+     */
+    public int getUsedVarNum() {
+        return usedVarNum;
+    }
+
+    public VariableTable getVariableTable() {
+        return table;
+    }
+
+    /**
+     * Returns views on the original clauses. The views become invalid when the arena is compacted.
+     *
+     * @return original clauses
+     */
     public Vector<Clause> getClauses() {
+        if (clauses == null) {
+            clauses = new Vector<Clause>(originals.size());
+            for (int i = 0; i < originals.size(); i++) {
+                clauses.addElement(new Clause(arena, originals.get(i)));
+            }
+        }
         return clauses;
     }
 
-    public int getGlobalLevel() {
-        return globalLevel;
+    /**
+     * Returns the references of the original clauses.
+     * The references change when the arena is compacted.
+     *
+     * @return original clause references
+     */
+    IntVec getOriginals() {
+        return originals;
+    }
+
+    /**
+     * Returns the references of all learned clauses that are not deleted.
+     * The references change when the arena is compacted.
+     *
+     * @return learned clause references
+     */
+    public IntVec getLearnts() {
+        return learnts;
+    }
+
+    void setModelReconstruction(ModelReconstruction reconstruction) {
+        this.reconstruction = reconstruction;
+    }
+
+    boolean isPreprocessed() {
+        return reconstruction != null;
+    }
+
+    /**
+     * Returns true if the variable was removed by preprocessing. Such variables must not be used in
+     * added clauses or assumptions, see {@link Preprocessor#freeze(int)}.
+     *
+     * @param var variable ID
+     * @return true for removed variables
+     */
+    public boolean isRemoved(int var) {
+        return reconstruction != null && reconstruction.isRemoved(var);
+    }
+
+    /**
+     * Assigns the variables removed by preprocessing, so the trail is a model of the original formula.
+     * Must be called once on a complete model of this clause set. The assignments get their own
+     * decision level, see {@link #retractModelExtension()}.
+     */
+    public void extendModel() {
+        if (reconstruction != null) {
+            newDecisionLevel();
+            extensionLevel = getDecisionLevel();
+            reconstruction.extend(this);
+            variables = null;
+        }
+    }
+
+    /**
+     * Takes back the assignments of {@link #extendModel()}, before the search continues on this clause set.
+     */
+    void retractModelExtension() {
+        if (extensionLevel > 0) {
+            cancelUntil(extensionLevel - 1, false);
+            extensionLevel = 0;
+        }
+    }
+
+    /**
+     * Checks the current assignment against the formula before preprocessing, where errors of the model
+     * reconstruction show. Clauses added after preprocessing are not part of it. The formula is only
+     * kept if it was requested with {@link Preprocessor#setVerifyModel}.
+     *
+     * @return true if the formula was not preprocessed, was not kept or every clause of it is satisfied
+     */
+    public boolean satisfiesOriginalFormula() {
+        return reconstruction == null || reconstruction.satisfiesOriginal(table);
+    }
+
+    public ClauseArena getArena() {
+        return arena;
+    }
+
+    public Statistics getStatistics() {
+        return statistics;
+    }
+
+    public PhaseSelector getPhaseSelector() {
+        return phases;
+    }
+
+    /**
+     * Returns the trail position of the first literal above the given level.
+     *
+     * @param level decision level, smaller than the current level
+     * @return trail position
+     */
+    public int getLevelStart(int level) {
+        return trailLim.get(level);
+    }
+
+    public int getDecisionLevel() {
+        return trailLim.size();
     }
 
-    public void setGlobalLevel(int globalLevel) {
-        this.globalLevel = globalLevel;
+    /**
+     * Returns the trail. Only the first getTrailSize() entries are valid.
+     *
+     * @return encoded literals in assignment order
+     */
+    public int[] getTrail() {
+        return trail;
     }
 
-    public Vector<Clause> getUnits() {
-        return units;
+    public int getTrailSize() {
+        return trailSize;
+    }
+
+    /**
+     * Records that the clause set is unsatisfiable, after a conflict at level 0.
+     */
+    void setUnsatisfiable() {
+        ok = false;
+    }
+
+    /**
+     * @return false if the clause set is already known to be unsatisfiable
+     */
+    public boolean isOk() {
+        return ok;
     }
 }
@@ -0,0 +1,362 @@
+package dataStructure;
+
+/**
+ * Builds the arena content, watch lists, binary implication lists and occurrence counts of a new
+ * {@link ClauseSet} in parallel.
+ * The input clauses are split into chunks of consecutive clauses. In the first pass every chunk
+ * removes duplicate literals and tautologies and counts per thread how often each variable occurs
+ * and how often each literal is watched. The counts are merged into exact sizes of the arena and
+ * the lists and into the position of every chunk in them. In the second pass every chunk
+ * writes its clauses and watchers into its own positions, so no locking is needed and the result
+ * is the same as adding the clauses one by one.
+ */
+class ClauseSetBuilder {
+    /* Minimal number of clauses per thread */
+    private static final int MIN_CHUNK = 1 << 16;
+
+    /* Longer clauses are checked for duplicates with marks instead of pairwise */
+    private static final int SHORT_CLAUSE = 32;
+
+    private final int varNum;
+    private final int[] input;
+    private final int[] starts;
+    private final boolean dimacs;
+    private final Chunk[] chunks;
+
+    /* Arena written in the second pass */
+    private ClauseArena arena;
+
+    /* Results */
+    private WatchList[] watches;
+    private WatchList[] binaries;
+    private IntVec clauseRefs;
+    private IntVec unitRefs;
+    private int[] occurrences;
+
+    /**
+     * @param varNum      highest variable ID
+     * @param input       literals of all clauses
+     * @param starts      start of every clause in input, starts[clauseCount] is the end of the last clause
+     * @param clauseCount number of clauses
+     * @param dimacs      true if input holds DIMACS literals, false for encoded literals
+     */
+    ClauseSetBuilder(int varNum, int[] input, int[] starts, int clauseCount, boolean dimacs) {
+        this(varNum, input, starts, clauseCount, dimacs,
+                Math.max(MIN_CHUNK, clauseCount / Runtime.getRuntime().availableProcessors()));
+    }
+
+    /**
+     * Builder with a given chunk size, one thread is started per chunk regardless of the processors.
+     *
+     * @param varNum      highest variable ID
+     * @param input       literals of all clauses
+     * @param starts      start of every clause in input, starts[clauseCount] is the end of the last clause
+     * @param clauseCount number of clauses
+     * @param dimacs      true if input holds DIMACS literals, false for encoded literals
+     * @param chunkSize   minimal number of clauses per chunk
+     */
+    ClauseSetBuilder(int varNum, int[] input, int[] starts, int clauseCount, boolean dimacs, int chunkSize) {
+        this.varNum = varNum;
+        this.input = input;
+        this.starts = starts;
+        this.dimacs = dimacs;
+        int threads = Math.max(1, clauseCount / chunkSize);
+        chunks = new Chunk[threads];
+        for (int t = 0; t < threads; t++) {
+            chunks[t] = new Chunk((int) ((long) clauseCount * t / threads), (int) ((long) clauseCount * (t + 1) / threads));
+        }
+    }
+
+    /**
+     * Normalizes the clauses and writes them into the arena.
+     *
+     * @param arena empty arena of the new clause set
+     */
+    void build(ClauseArena arena) {
+        this.arena = arena;
+        run(1);
+        //merge: chunk positions in the arena and in every watch list
+        int ints = 0;
+        int clauses = 0;
+        for (Chunk chunk : chunks) {
+            chunk.arenaOffset = ints;
+            chunk.clauseOffset = clauses;
+            ints += chunk.literals.size() + ClauseArena.HEADER_SIZE * chunk.sizes.size();
+            clauses += chunk.sizes.size();
+        }
+        int base = arena.reserve(ints, clauses);
+        for (Chunk chunk : chunks) {
+            chunk.arenaOffset += base;
+        }
+        int[][] watchCounts = new int[chunks.length][];
+        int[][] binaryCounts = new int[chunks.length][];
+        for (int t = 0; t < chunks.length; t++) {
+            watchCounts[t] = chunks[t].watchCounts;
+            binaryCounts[t] = chunks[t].binaryCounts;
+        }
+        watches = allocate(watchCounts);
+        binaries = allocate(binaryCounts);
+        occurrences = new int[varNum + 1];
+        for (Chunk chunk : chunks) {
+            for (int var = 1; var <= varNum; var++) {
+                occurrences[var] += chunk.varCounts[var];
+            }
+            chunk.varCounts = null;
+        }
+        clauseRefs = new IntVec(clauses);
+        clauseRefs.growTo(clauses);
+        run(2);
+        unitRefs = new IntVec();
+        for (Chunk chunk : chunks) {
+            for (int i = 0; i < chunk.unitRefs.size(); i++) {
+                unitRefs.push(chunk.unitRefs.get(i));
+            }
+        }
+        this.arena = null;
+    }
+
+    /**
+     * Creates lists of the exact size and turns the counts of every chunk into its first position.
+     *
+     * @param counts per chunk the number of entries of every literal
+     * @return lists of all literals
+     */
+    private WatchList[] allocate(int[][] counts) {
+        WatchList[] lists = new WatchList[2 * (varNum + 1)];
+        for (int lit = 0; lit < lists.length; lit++) {
+            int count = 0;
+            for (int[] own : counts) {
+                int n = own[lit];
+                own[lit] = count;
+                count += n;
+            }
+            lists[lit] = new WatchList(count);
+            lists[lit].setSize(count);
+        }
+        return lists;
+    }
+
+    /**
+     * Runs a pass on all chunks, the first chunk on the calling thread.
+     *
+     * @param pass 1 or 2
+     */
+    private void run(int pass) {
+        Thread[] threads = new Thread[chunks.length];
+        for (int t = 1; t < chunks.length; t++) {
+            chunks[t].pass = pass;
+            threads[t] = new Thread(chunks[t], "clause-set-builder-" + t);
+            threads[t].start();
+        }
+        chunks[0].pass = pass;
+        chunks[0].run();
+        for (int t = 1; t < chunks.length; t++) {
+            try {
+                threads[t].join();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("Interrupted while building the clause set", e);
+            }
+        }
+        for (Chunk chunk : chunks) {
+            if (chunk.error != null) {
+                throw chunk.error;
+            }
+        }
+    }
+
+    /**
+     * @return number of chunks, each processed by its own thread
+     */
+    int getChunkCount() {
+        return chunks.length;
+    }
+
+    /**
+     * @return watch lists with exactly the watchers of the clauses longer than two literals
+     */
+    WatchList[] getWatches() {
+        return watches;
+    }
+
+    /**
+     * @return implication lists with exactly the entries of the binary clauses
+     */
+    WatchList[] getBinaries() {
+        return binaries;
+    }
+
+    /**
+     * @return references of the clauses that were not dropped as tautologies, in input order
+     */
+    IntVec getClauseRefs() {
+        return clauseRefs;
+    }
+
+    /**
+     * @return references of the clauses with less than two literals, in input order
+     */
+    IntVec getUnitRefs() {
+        return unitRefs;
+    }
+
+    /**
+     * @return number of occurrences of every variable in the input, before normalization
+     */
+    int[] getOccurrences() {
+        return occurrences;
+    }
+
+    /**
+     * Consecutive clauses processed by one thread.
+     */
+    private class Chunk implements Runnable {
+        private final int from;
+        private final int to;
+        int pass;
+        RuntimeException error;
+
+        /* Normalized clauses of the first pass */
+        IntVec literals;
+        IntVec sizes;
+
+        /* Per thread counts of the first pass, the watch counts become positions in the merge */
+        int[] varCounts;
+        int[] watchCounts;
+        int[] binaryCounts;
+
+        /* Positions in the arena and the clause list */
+        int arenaOffset;
+        int clauseOffset;
+
+        IntVec unitRefs = new IntVec();
+
+        /* Marks for long clauses, allocated on first use */
+        private int[] marks;
+        private int stamp = 0;
+
+        Chunk(int from, int to) {
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        public void run() {
+            try {
+                if (pass == 1) {
+                    normalize();
+                } else {
+                    write();
+                }
+            } catch (RuntimeException e) {
+                error = e;
+            }
+        }
+
+        private void normalize() {
+            literals = new IntVec(starts[to] - starts[from]);
+            sizes = new IntVec(to - from);
+            varCounts = new int[varNum + 1];
+            watchCounts = new int[2 * (varNum + 1)];
+            binaryCounts = new int[2 * (varNum + 1)];
+            for (int c = from; c < to; c++) {
+                int clauseStart = literals.size();
+                for (int k = starts[c]; k < starts[c + 1]; k++) {
+                    int literal = dimacs ? Literal.fromDimacs(input[k]) : input[k];
+                    varCounts[Literal.var(literal)]++;
+                    literals.push(literal);
+                }
+                int length = removeDuplicates(literals.getData(), clauseStart, literals.size() - clauseStart);
+                if (length < 0) {
+                    //tautology
+                    literals.shrink(clauseStart);
+                    continue;
+                }
+                literals.shrink(clauseStart + length);
+                sizes.push(length);
+                if (length > 1) {
+                    int[] counts = length == 2 ? binaryCounts : watchCounts;
+                    counts[literals.get(clauseStart)]++;
+                    counts[literals.get(clauseStart + 1)]++;
+                }
+            }
+        }
+
+        /**
+         * Removes duplicate literals in place, keeping the first occurrence.
+         *
+         * @return new length or -1 for a tautology
+         */
+        private int removeDuplicates(int[] data, int start, int length) {
+            int kept = 0;
+            if (length <= SHORT_CLAUSE) {
+                for (int i = 0; i < length; i++) {
+                    int literal = data[start + i];
+                    boolean duplicate = false;
+                    for (int j = 0; j < kept; j++) {
+                        int other = data[start + j];
+                        if (other == literal) {
+                            duplicate = true;
+                            break;
+                        }
+                        if (other == Literal.negate(literal)) {
+                            return -1;
+                        }
+                    }
+                    if (!duplicate) {
+                        data[start + kept++] = literal;
+                    }
+                }
+                return kept;
+            }
+            if (marks == null) {
+                marks = new int[2 * (varNum + 1)];
+            }
+            stamp++;
+            for (int i = 0; i < length; i++) {
+                int literal = data[start + i];
+                if (marks[Literal.negate(literal)] == stamp) {
+                    return -1;
+                }
+                if (marks[literal] != stamp) {
+                    marks[literal] = stamp;
+                    data[start + kept++] = literal;
+                }
+            }
+            return kept;
+        }
+
+        private void write() {
+            int[] lits = literals.getData();
+            int cref = arenaOffset;
+            int offset = 0;
+            for (int i = 0; i < sizes.size(); i++) {
+                int length = sizes.get(i);
+                arena.write(cref, lits, offset, length, false);
+                clauseRefs.set(clauseOffset + i, cref);
+                if (length > 1) {
+                    WatchList[] lists = length == 2 ? binaries : watches;
+                    int[] counts = length == 2 ? binaryCounts : watchCounts;
+                    int lit0 = lits[offset];
+                    int lit1 = lits[offset + 1];
+                    int p0 = counts[lit0]++;
+                    int p1 = counts[lit1]++;
+                    int[] ws0 = lists[lit0].getData();
+                    ws0[2 * p0] = cref;
+                    ws0[2 * p0 + 1] = lit1;
+                    int[] ws1 = lists[lit1].getData();
+                    ws1[2 * p1] = cref;
+                    ws1[2 * p1 + 1] = lit0;
+                } else {
+                    unitRefs.push(cref);
+                }
+                cref += ClauseArena.HEADER_SIZE + length;
+                offset += length;
+            }
+            literals = null;
+            sizes = null;
+            watchCounts = null;
+            binaryCounts = null;
+        }
+    }
+}
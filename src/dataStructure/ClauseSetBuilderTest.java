@@ -0,0 +1,72 @@
+package dataStructure;
+
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+public class ClauseSetBuilderTest {
+
+    /**
+     * A build split into several chunks writes the same arena and lists as a build in one chunk
+     */
+    @Test
+    public void testChunksMatchSingleBuild() {
+        int varNum = 100;
+        int clauseCount = 6000;
+        Random random = new Random(9);
+        IntVec literals = new IntVec();
+        IntVec starts = new IntVec();
+        starts.push(0);
+        for (int c = 0; c < clauseCount; c++) {
+            //units, binaries, short clauses and long clauses checked with marks
+            int size = c % 50 == 0 ? 1 : c % 3 == 0 ? 2 : c % 97 == 0 ? 40 : 3 + c % 5;
+            for (int k = 0; k < size; k++) {
+                int var = 1 + random.nextInt(varNum);
+                literals.push(random.nextBoolean() ? var : -var);
+            }
+            starts.push(literals.size());
+        }
+
+        ClauseArena singleArena = new ClauseArena(16);
+        ClauseSetBuilder single = build(varNum, literals, starts, clauseCount, Integer.MAX_VALUE, singleArena);
+        assertEquals(1, single.getChunkCount());
+        for (int chunkSize : new int[]{500, 97}) {
+            ClauseArena chunkedArena = new ClauseArena(16);
+            ClauseSetBuilder chunked = build(varNum, literals, starts, clauseCount, chunkSize, chunkedArena);
+            assertEquals(clauseCount / chunkSize, chunked.getChunkCount());
+            assertSameArena(singleArena, chunkedArena);
+            assertSameLists(single.getWatches(), chunked.getWatches());
+            assertSameLists(single.getBinaries(), chunked.getBinaries());
+            assertArrayEquals(single.getClauseRefs().toArray(), chunked.getClauseRefs().toArray());
+            assertArrayEquals(single.getUnitRefs().toArray(), chunked.getUnitRefs().toArray());
+            assertArrayEquals(single.getOccurrences(), chunked.getOccurrences());
+        }
+    }
+
+    private static ClauseSetBuilder build(int varNum, IntVec literals, IntVec starts, int clauseCount,
+                                          int chunkSize, ClauseArena arena) {
+        ClauseSetBuilder builder = new ClauseSetBuilder(varNum, literals.toArray(), starts.toArray(), clauseCount,
+                true, chunkSize);
+        builder.build(arena);
+        return builder;
+    }
+
+    private static void assertSameArena(ClauseArena expected, ClauseArena actual) {
+        assertEquals(expected.getSize(), actual.getSize());
+        assertEquals(expected.getClauseCount(), actual.getClauseCount());
+        assertArrayEquals(Arrays.copyOf(expected.getData(), expected.getSize()),
+                Arrays.copyOf(actual.getData(), actual.getSize()));
+    }
+
+    private static void assertSameLists(WatchList[] expected, WatchList[] actual) {
+        assertEquals(expected.length, actual.length);
+        for (int lit = 0; lit < expected.length; lit++) {
+            assertEquals(expected[lit].size(), actual[lit].size());
+            assertArrayEquals(Arrays.copyOf(expected[lit].getData(), 2 * expected[lit].size()),
+                    Arrays.copyOf(actual[lit].getData(), 2 * actual[lit].size()));
+        }
+    }
+}
@@ -0,0 +1,265 @@
+package dataStructure;
+
+import dimacs.parser.DIMACSFormula;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Solves a formula by splitting it into cubes that are solved in parallel (cube and conquer).
+ * The formula is first split by lookahead (see {@link Cuber}) into up to 2^depth cubes. Every cube is a
+ * task of a {@link ForkJoinPool}, idle threads steal the tasks of busy ones. Each thread has its own
+ * {@link CDCL} solver on its own {@link ClauseSet}, built from the shared formula, which solves one cube
+ * after another under assumptions and keeps its learned clauses in between.
+ * A cube that is not solved within the conflict budget is split again and its parts get twice the budget.
+ * The formula is SAT if one cube is SAT, which stops all others, and UNSAT if all cubes are UNSAT.
+ */
+public class CubeAndConquer {
+    private final DIMACSFormula formula;
+    private final int threads;
+
+    /* Split variables along every path of the first split and of a split of a slow cube */
+    private int depth;
+    private int resplitDepth = 2;
+
+    /* Conflicts of the first attempt on a cube */
+    private long conflictBudget = 2000;
+
+    /* Solver of every pool thread */
+    private final ThreadLocal<Worker> workers = new ThreadLocal<Worker>();
+    private final Queue<Worker> allWorkers = new ConcurrentLinkedQueue<Worker>();
+
+    /* Solver that found the model, null if none */
+    private final AtomicReference<CDCL> winner = new AtomicReference<CDCL>();
+
+    /* Set when a conflict without assumptions was found */
+    private volatile boolean unsatisfiable = false;
+
+    /* Set when the search is stopped, by a result or by cancel */
+    private volatile boolean stopped = false;
+
+    /* Counters over all threads */
+    private final AtomicLong solvedCubes = new AtomicLong();
+    private final AtomicLong unsatCubes = new AtomicLong();
+    private final AtomicLong resplits = new AtomicLong();
+
+    /**
+     * @param formula parsed DIMACS formula
+     * @param threads number of threads of the pool, at least 1
+     */
+    public CubeAndConquer(DIMACSFormula formula, int threads) {
+        if (threads < 1) {
+            throw new IllegalArgumentException("Cube and conquer needs at least one thread");
+        }
+        this.formula = formula;
+        this.threads = threads;
+        //about 16 cubes per thread
+        this.depth = 4 + 32 - Integer.numberOfLeadingZeros(threads - 1);
+    }
+
+    /**
+     * Splits the formula and solves the cubes. The result is printed like the result of a single solver,
+     * the solvers of the cubes print nothing.
+     *
+     * @return SAT or UNSAT, UNKNOWN if the search was cancelled
+     */
+    public CDCL.Result solve() {
+        ForkJoinPool pool = new ForkJoinPool(threads);
+        try {
+            pool.invoke(new CubeTask(new int[0], depth, conflictBudget));
+        } finally {
+            pool.shutdown();
+        }
+        CDCL found = winner.get();
+        if (found != null) {
+            System.out.println(CDCL.MODEL_FOUND);
+            found.printResultStack();
+            return CDCL.Result.SAT;
+        }
+        if (unsatisfiable || !stopped) {
+            System.out.println(CDCL.EMPTY_CLAUSE_UNSAT);
+            return CDCL.Result.UNSAT;
+        }
+        System.out.println("Search cancelled: UNKNOWN");
+        return CDCL.Result.UNKNOWN;
+    }
+
+    /**
+     * Stops all solvers.
+     */
+    public void cancel() {
+        stopped = true;
+        for (Worker worker : allWorkers) {
+            worker.solver.interrupt();
+        }
+    }
+
+    /**
+     * Returns the solver that found the model, its clause set holds the model.
+     *
+     * @return the solver or null
+     */
+    public CDCL getWinner() {
+        return winner.get();
+    }
+
+    /**
+     * Sets the number of split variables along every path of the first split.
+     *
+     * @param depth split variables, the formula is split into at most 2^depth cubes
+     */
+    public void setDepth(int depth) {
+        this.depth = depth;
+    }
+
+    /**
+     * Sets the number of split variables of a cube that was not solved within its budget.
+     *
+     * @param resplitDepth split variables, at least 1
+     */
+    public void setResplitDepth(int resplitDepth) {
+        this.resplitDepth = resplitDepth;
+    }
+
+    /**
+     * Sets the conflicts of the first attempt on every cube of the first split.
+     *
+     * @param conflictBudget conflicts, negative to solve every cube without limit
+     */
+    public void setConflictBudget(long conflictBudget) {
+        this.conflictBudget = conflictBudget;
+    }
+
+    /**
+     * @return number of cubes that were split again because they were not solved within their budget
+     */
+    long getResplits() {
+        return resplits.get();
+    }
+
+    @Override
+    public String toString() {
+        long refuted = 0;
+        long lookaheads = 0;
+        for (Worker worker : allWorkers) {
+            refuted += worker.cuber.getRefutedCubes();
+            lookaheads += worker.cuber.getLookaheads();
+        }
+        String res = "Cube and conquer with " + threads + " threads: " + solvedCubes + " cubes solved ("
+                + unsatCubes + " UNSAT), " + resplits + " resplits, " + refuted + " cubes refuted by "
+                + lookaheads + " lookaheads";
+        CDCL found = winner.get();
+        if (found != null) {
+            res += "\nModel found by:\n" + found.getStatistics();
+        } else if (unsatisfiable) {
+            res += "\nConflict without assumptions";
+        }
+        return res;
+    }
+
+    private Worker getWorker() {
+        Worker worker = workers.get();
+        if (worker == null) {
+            worker = new Worker(new ClauseSet(formula));
+            workers.set(worker);
+            allWorkers.add(worker);
+        }
+        return worker;
+    }
+
+    /**
+     * Solver and cuber of one pool thread.
+     */
+    private static class Worker {
+        final CDCL solver;
+        final Cuber cuber;
+
+        Worker(ClauseSet instance) {
+            solver = new CDCL(instance);
+            solver.setMaxIterations(Integer.MAX_VALUE);
+            //only the result of the whole formula is printed
+            solver.setQuiet(true);
+            cuber = new Cuber(instance);
+        }
+    }
+
+    /**
+     * Splits or solves one cube.
+     */
+    private class CubeTask extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        /* Encoded literals */
+        private final int[] cube;
+
+        /* Split variables before solving, 0 to solve the cube directly */
+        private final int splitDepth;
+        private final long budget;
+
+        CubeTask(int[] cube, int splitDepth, long budget) {
+            this.cube = cube;
+            this.splitDepth = splitDepth;
+            this.budget = budget;
+        }
+
+        @Override
+        protected void compute() {
+            if (stopped) {
+                return;
+            }
+            Worker worker = getWorker();
+            if (splitDepth > 0) {
+                split(worker, splitDepth, budget);
+                return;
+            }
+            int[] assumptions = new int[cube.length];
+            for (int i = 0; i < cube.length; i++) {
+                assumptions[i] = Literal.toDimacs(cube[i]);
+            }
+            worker.solver.setConflictBudget(budget);
+            worker.solver.solve(assumptions);
+            CDCL.Result result = worker.solver.getResult();
+            if (result == CDCL.Result.UNKNOWN) {
+                if (!stopped) {
+                    resplits.incrementAndGet();
+                    split(worker, resplitDepth, budget < 0 ? budget : 2 * budget);
+                }
+                return;
+            }
+            solvedCubes.incrementAndGet();
+            if (result == CDCL.Result.UNSAT) {
+                unsatCubes.incrementAndGet();
+            }
+            if (result == CDCL.Result.SAT) {
+                if (winner.compareAndSet(null, worker.solver)) {
+                    CubeAndConquer.this.cancel();
+                }
+            } else if (!worker.solver.getInstance().isOk()) {
+                //a conflict without assumptions
+                unsatisfiable = true;
+                CubeAndConquer.this.cancel();
+            }
+        }
+
+        private void split(Worker worker, int depth, long budget) {
+            List<int[]> cubes = new ArrayList<int[]>();
+            worker.cuber.split(cube, depth, cubes);
+            if (!worker.solver.getInstance().isOk()) {
+                unsatisfiable = true;
+                CubeAndConquer.this.cancel();
+                return;
+            }
+            List<CubeTask> tasks = new ArrayList<CubeTask>(cubes.size());
+            for (int[] part : cubes) {
+                tasks.add(new CubeTask(part, 0, budget));
+            }
+            invokeAll(tasks);
+        }
+    }
+}
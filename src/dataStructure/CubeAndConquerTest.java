@@ -0,0 +1,88 @@
+package dataStructure;
+
+import dimacs.parser.DIMACSStreamParser;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+public class CubeAndConquerTest {
+
+    /**
+     * The cubes of a split are solved one by one, the formula is SAT if one of them is
+     */
+    @Test
+    public void testCubesCoverFormula() {
+        Random random = new Random(19);
+        int varNum = 60;
+        int sat = 0;
+        for (int i = 0; i < 20; i++) {
+            List<int[]> clauses = CDCLTest.randomClauses(random, varNum, 256);
+            ClauseSet clauseSet = CDCLTest.clauseSet(varNum, clauses);
+            Cuber cuber = new Cuber(clauseSet);
+            CDCL cdcl = new CDCL(clauseSet);
+            cdcl.setQuiet(true);
+            cdcl.setMaxIterations(Integer.MAX_VALUE);
+            List<int[]> cubes = new ArrayList<int[]>();
+            cuber.split(new int[0], 3, cubes);
+            assertTrue(cubes.size() <= 8);
+            CDCL.Result result = CDCL.Result.UNSAT;
+            for (int[] cube : cubes) {
+                int[] assumptions = new int[cube.length];
+                for (int k = 0; k < cube.length; k++) {
+                    assumptions[k] = Literal.toDimacs(cube[k]);
+                }
+                if (cdcl.solve(assumptions)) {
+                    CDCLTest.assertModel(clauseSet, clauses);
+                    result = CDCL.Result.SAT;
+                    break;
+                }
+            }
+            assertEquals(CDCLTest.solveDefault(varNum, clauses), result);
+            if (result == CDCL.Result.SAT) {
+                sat++;
+            }
+        }
+        assertTrue(sat > 0 && sat < 20);
+    }
+
+    /**
+     * Results match the sequential solver, with a budget of one conflict most cubes are split again
+     */
+    @Test
+    public void testResplit() throws Exception {
+        Random random = new Random(23);
+        int varNum = 100;
+        boolean[] seen = new boolean[2];
+        for (int i = 0; i < 10; i++) {
+            List<int[]> clauses = CDCLTest.randomClauses(random, varNum, 426);
+            CubeAndConquer cubeAndConquer = new CubeAndConquer(CDCLTest.formula(varNum, clauses), 2);
+            cubeAndConquer.setDepth(2);
+            cubeAndConquer.setResplitDepth(1);
+            cubeAndConquer.setConflictBudget(1);
+            CDCL.Result result = cubeAndConquer.solve();
+            assertEquals(CDCLTest.solveDefault(varNum, clauses), result);
+            if (result == CDCL.Result.SAT) {
+                CDCLTest.assertModel(cubeAndConquer.getWinner().getInstance(), clauses);
+                seen[0] = true;
+            } else {
+                seen[1] = true;
+            }
+            assertTrue(cubeAndConquer.getResplits() > 0);
+        }
+        assertTrue(seen[0] && seen[1]);
+    }
+
+    @Test
+    public void testAim() throws Exception {
+        CubeAndConquer sat = new CubeAndConquer(
+                new DIMACSStreamParser().parse("small_aim/yes/aim-50-1_6-yes1-1.cnf"), 2);
+        assertEquals(CDCL.Result.SAT, sat.solve());
+        CubeAndConquer unsat = new CubeAndConquer(
+                new DIMACSStreamParser().parse("small_aim/no/aim-50-1_6-no-1.cnf"), 2);
+        assertEquals(CDCL.Result.UNSAT, unsat.solve());
+    }
+}
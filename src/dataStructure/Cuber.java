@@ -0,0 +1,189 @@
+package dataStructure;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Splits the search space of a clause set into cubes for cube and conquer, see {@link CubeAndConquer}.
+ * A cube is a conjunction of literals, the cubes of one split cover all assignments that extend the
+ * split cube, except those refuted by propagation.
+ * The split variable is chosen by lookahead: both literals of the candidate variables are propagated and
+ * the variable with the largest product of implied assignments is split, so both halves get simpler.
+ * The candidates are the open variables that occur most often in the original clauses. A literal whose
+ * propagation fails is implied by the cube and added to it, a cube whose candidates fail on both
+ * literals is refuted.
+ * The assignments of the cuber are made above level 0 and are undone before it returns.
+ */
+class Cuber {
+    /* Variables looked ahead per split */
+    private static final int CANDIDATES = 32;
+
+    private final ClauseSet instance;
+
+    /* Variables that occur in the original clauses, most occurrences first */
+    private final int[] order;
+
+    /* Cubes refuted by propagation and lookahead */
+    private long refutedCubes = 0;
+    private long lookaheads = 0;
+
+    /**
+     * @param instance clause set the cubes are computed on, must be at level 0
+     */
+    Cuber(ClauseSet instance) {
+        this.instance = instance;
+        ClauseArena arena = instance.getArena();
+        IntVec originals = instance.getOriginals();
+        int varNum = instance.getVariableTable().getVarNum();
+        int[] occurrences = new int[varNum + 1];
+        for (int i = 0; i < originals.size(); i++) {
+            int cref = originals.get(i);
+            for (int k = 0; k < arena.size(cref); k++) {
+                occurrences[Literal.var(arena.literal(cref, k))]++;
+            }
+        }
+        //sort by occurrences, descending, with the count in the high bits
+        long[] keys = new long[varNum];
+        int used = 0;
+        for (int var = 1; var <= varNum; var++) {
+            if (occurrences[var] > 0) {
+                keys[used++] = ((long) (Integer.MAX_VALUE - occurrences[var]) << 32) | var;
+            }
+        }
+        Arrays.sort(keys, 0, used);
+        order = new int[used];
+        for (int i = 0; i < used; i++) {
+            order[i] = (int) keys[i];
+        }
+    }
+
+    /**
+     * Splits a cube on up to depth variables.
+     *
+     * @param cube  encoded literals of the cube to split
+     * @param depth number of split variables along every path, at least 1
+     * @param cubes receives the new cubes as encoded literals, nothing if the cube is refuted
+     *              or the clause set is unsatisfiable
+     */
+    void split(int[] cube, int depth, List<int[]> cubes) {
+        IntVec path = new IntVec();
+        if (instance.isOk() && instance.propagate() == ClauseArena.CREF_UNDEF) {
+            boolean consistent = true;
+            for (int i = 0; i < cube.length && consistent; i++) {
+                path.push(cube[i]);
+                consistent = assume(cube[i]);
+            }
+            if (consistent) {
+                split(path, depth, cubes);
+            } else {
+                refutedCubes++;
+            }
+        } else {
+            //conflict at level 0
+            instance.setUnsatisfiable();
+            refutedCubes++;
+        }
+        instance.cancelUntil(0, false);
+    }
+
+    private void split(IntVec path, int depth, List<int[]> cubes) {
+        if (depth == 0) {
+            cubes.add(path.toArray());
+            return;
+        }
+        int level = instance.getDecisionLevel();
+        VariableTable table = instance.getVariableTable();
+        int best = 0;
+        double bestScore = -1;
+        int looked = 0;
+        for (int i = 0; i < order.length && looked < CANDIDATES; i++) {
+            int var = order[i];
+            if (table.value(var) != VariableTable.OPEN) {
+                continue;
+            }
+            looked++;
+            int positive = Literal.of(var, false);
+            int negative = Literal.of(var, true);
+            int positiveImplied = lookahead(positive);
+            int negativeImplied = lookahead(negative);
+            if (positiveImplied < 0 && negativeImplied < 0) {
+                refutedCubes++;
+                return;
+            }
+            if (positiveImplied < 0 || negativeImplied < 0) {
+                //failed literal, the other one holds in the whole cube
+                int implied = positiveImplied < 0 ? negative : positive;
+                path.push(implied);
+                if (assume(implied)) {
+                    split(path, depth, cubes);
+                } else {
+                    refutedCubes++;
+                }
+                path.pop();
+                instance.cancelUntil(level, false);
+                return;
+            }
+            double score = (positiveImplied + 1.0) * (negativeImplied + 1.0);
+            if (score > bestScore) {
+                bestScore = score;
+                best = var;
+            }
+        }
+        if (best == 0) {
+            //all variables assigned
+            cubes.add(path.toArray());
+            return;
+        }
+        for (int sign = 0; sign < 2; sign++) {
+            int literal = Literal.of(best, sign == 1);
+            path.push(literal);
+            if (assume(literal)) {
+                split(path, depth - 1, cubes);
+            } else {
+                refutedCubes++;
+            }
+            path.pop();
+            instance.cancelUntil(level, false);
+        }
+    }
+
+    /**
+     * Assigns a literal on a new level and propagates it.
+     *
+     * @param literal encoded literal
+     * @return false on a conflict
+     */
+    private boolean assume(int literal) {
+        byte value = instance.getVariableTable().literalValue(literal);
+        if (value != VariableTable.OPEN) {
+            return value == VariableTable.TRUE;
+        }
+        instance.newDecisionLevel();
+        instance.enqueue(literal, ClauseArena.CREF_UNDEF);
+        return instance.propagate() == ClauseArena.CREF_UNDEF;
+    }
+
+    /**
+     * Propagates a literal and takes the assignments back.
+     *
+     * @param literal encoded literal of an open variable
+     * @return number of implied assignments, -1 on a conflict
+     */
+    private int lookahead(int literal) {
+        int level = instance.getDecisionLevel();
+        int trailSize = instance.getTrailSize();
+        lookaheads++;
+        boolean consistent = assume(literal);
+        int implied = instance.getTrailSize() - trailSize - 1;
+        instance.cancelUntil(level, false);
+        return consistent ? implied : -1;
+    }
+
+    long getRefutedCubes() {
+        return refutedCubes;
+    }
+
+    long getLookaheads() {
+        return lookaheads;
+    }
+}
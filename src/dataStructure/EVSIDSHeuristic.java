@@ -0,0 +1,51 @@
+package dataStructure;
+
+/**
+ * Exponential VSIDS as used by MiniSat and Glucose.
+ * Every variable of the conflict analysis is bumped, the increment grows by 1/decay per conflict.
+ * The decay starts at 0.8 and is raised to 0.95 during the first conflicts (as in Glucose),
+ * so the order adapts fast at the beginning and becomes more stable later.
+ */
+public class EVSIDSHeuristic extends HeapHeuristic {
+    private static final double INITIAL_DECAY = 0.8;
+    private static final double MAX_DECAY = 0.95;
+    private static final double DECAY_STEP = 0.01;
+    private static final int DECAY_INTERVAL = 5000;
+    private static final double ACTIVITY_LIMIT = 1e100;
+
+    private double decay = INITIAL_DECAY;
+    private double activityIncrement = 1.0;
+    private long conflicts = 0;
+
+    @Override
+    protected double[] createScores() {
+        //occurrences only break ties in the beginning
+        double[] scores = new double[table.getVarNum() + 1];
+        for (int var = 1; var <= table.getVarNum(); var++) {
+            scores[var] = table.getActivity(var) * 1e-6;
+        }
+        return scores;
+    }
+
+    @Override
+    public void onConflict(IntVec conflictVariables) {
+        for (int i = 0; i < conflictVariables.size(); i++) {
+            bump(conflictVariables.get(i));
+        }
+        conflicts++;
+        if (conflicts % DECAY_INTERVAL == 0 && decay < MAX_DECAY) {
+            decay = Math.min(MAX_DECAY, decay + DECAY_STEP);
+        }
+        activityIncrement /= decay;
+    }
+
+    private void bump(int var) {
+        setScore(var, scores[var] + activityIncrement);
+        if (scores[var] > ACTIVITY_LIMIT) {
+            for (int v = 1; v < scores.length; v++) {
+                scores[v] /= ACTIVITY_LIMIT;
+            }
+            activityIncrement /= ACTIVITY_LIMIT;
+        }
+    }
+}
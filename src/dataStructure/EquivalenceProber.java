@@ -0,0 +1,327 @@
+package dataStructure;
+
+import java.util.Arrays;
+
+/**
+ * Simplifies an {@link OccurrenceFormula} with its binary clauses, used by the {@link Preprocessor}.
+ * The binary clauses form an implication graph: (a or b) gives the edges -a -> b and -b -> a.
+ * The literals of a strongly connected component of this graph are equivalent, they are replaced by one
+ * representative throughout the formula. A variable with both literals in one component makes the
+ * formula unsatisfiable.
+ * Failed literal probing follows the implications of both literals of a variable: a literal that implies
+ * its negation is false, and a literal implied by both is true.
+ */
+class EquivalenceProber {
+    /* Rounds of substitution and probing, each round works on the graph of the simplified formula */
+    private static final int MAX_ROUNDS = 3;
+
+    private final OccurrenceFormula formula;
+    private final ModelReconstruction reconstruction;
+
+    /* Variables that must stay in the formula */
+    private final boolean[] frozen;
+
+    /* Implication graph, the successors of literal l are targets[starts[l]] to targets[starts[l + 1] - 1] */
+    private int[] starts;
+    private int[] targets;
+
+    /* Work done in ticks, roughly the number of visited edges */
+    private long ticks = 0;
+
+    private int fixedVariables = 0;
+    private int mergedVariables = 0;
+
+    /**
+     * @param formula        formula to simplify
+     * @param reconstruction receives the removed clauses of substituted variables
+     * @param frozen         variables that must not be substituted
+     */
+    EquivalenceProber(OccurrenceFormula formula, ModelReconstruction reconstruction, boolean[] frozen) {
+        this.formula = formula;
+        this.reconstruction = reconstruction;
+        this.frozen = frozen;
+    }
+
+    /**
+     * Substitutes equivalent literals and probes until nothing changes, the formula is unsatisfiable
+     * or the budget is used up.
+     *
+     * @param probing      true for failed literal probing
+     * @param equivalences true for equivalent literal substitution
+     * @param effortLimit  budget in ticks
+     */
+    void simplify(boolean probing, boolean equivalences, long effortLimit) {
+        boolean changed = true;
+        for (int round = 0; changed && round < MAX_ROUNDS && formula.isOk() && ticks <= effortLimit; round++) {
+            changed = false;
+            buildGraph();
+            if (equivalences && substituteEquivalences()) {
+                changed = true;
+                formula.propagateUnits();
+                buildGraph();
+            }
+            if (probing && formula.isOk() && probe(effortLimit)) {
+                changed = true;
+                formula.propagateUnits();
+            }
+        }
+    }
+
+    /**
+     * Builds the implication graph of the binary clauses.
+     */
+    private void buildGraph() {
+        int literals = 2 * (formula.varNum + 1);
+        starts = new int[literals + 1];
+        for (int index = 0; index < formula.getSlots(); index++) {
+            int[] clause = formula.getClause(index);
+            if (clause != null && clause.length == 2) {
+                starts[Literal.negate(clause[0]) + 1]++;
+                starts[Literal.negate(clause[1]) + 1]++;
+            }
+        }
+        for (int literal = 0; literal < literals; literal++) {
+            starts[literal + 1] += starts[literal];
+        }
+        targets = new int[starts[literals]];
+        int[] fill = Arrays.copyOf(starts, literals);
+        for (int index = 0; index < formula.getSlots(); index++) {
+            int[] clause = formula.getClause(index);
+            if (clause != null && clause.length == 2) {
+                targets[fill[Literal.negate(clause[0])]++] = clause[1];
+                targets[fill[Literal.negate(clause[1])]++] = clause[0];
+            }
+        }
+        ticks += formula.getSlots();
+    }
+
+    /**
+     * Finds the strongly connected components with Tarjan's algorithm and replaces every variable
+     * by the representative of its component.
+     *
+     * @return true if the formula was changed
+     */
+    private boolean substituteEquivalences() {
+        int literals = starts.length - 1;
+        int[] representative = new int[literals];
+        Arrays.fill(representative, -1);
+        int[] order = new int[literals];
+        int[] low = new int[literals];
+        int[] next = new int[literals];
+        boolean[] onStack = new boolean[literals];
+        IntVec stack = new IntVec();
+        IntVec path = new IntVec();
+        int counter = 0;
+        for (int root = 2; root < literals && formula.isOk(); root++) {
+            if (order[root] != 0 || starts[root] == starts[root + 1]) {
+                continue;
+            }
+            order[root] = low[root] = ++counter;
+            next[root] = starts[root];
+            stack.push(root);
+            onStack[root] = true;
+            path.push(root);
+            while (!path.isEmpty()) {
+                int literal = path.last();
+                if (next[literal] < starts[literal + 1]) {
+                    int target = targets[next[literal]++];
+                    ticks++;
+                    if (order[target] == 0) {
+                        order[target] = low[target] = ++counter;
+                        next[target] = starts[target];
+                        stack.push(target);
+                        onStack[target] = true;
+                        path.push(target);
+                    } else if (onStack[target]) {
+                        low[literal] = Math.min(low[literal], order[target]);
+                    }
+                    continue;
+                }
+                path.pop();
+                if (!path.isEmpty()) {
+                    low[path.last()] = Math.min(low[path.last()], low[literal]);
+                }
+                if (low[literal] == order[literal]) {
+                    int start = stack.size() - 1;
+                    while (stack.get(start) != literal) {
+                        start--;
+                    }
+                    chooseRepresentative(stack, start, representative);
+                    for (int i = start; i < stack.size(); i++) {
+                        onStack[stack.get(i)] = false;
+                    }
+                    stack.shrink(start);
+                }
+            }
+        }
+        boolean changed = false;
+        for (int var = 1; var <= formula.varNum && formula.isOk(); var++) {
+            int positive = Literal.of(var, false);
+            int replacement = representative[positive];
+            if (replacement < 0 || replacement == positive || frozen[var]) {
+                continue;
+            }
+            byte value = formula.value(positive);
+            if (value != VariableTable.OPEN) {
+                //fixed by a unit from an earlier substitution, its representative gets the same value
+                formula.assign(value == VariableTable.TRUE ? replacement : Literal.negate(replacement));
+            } else {
+                substitute(var, replacement);
+            }
+            changed = true;
+        }
+        return changed;
+    }
+
+    /**
+     * Sets the representative of the literals of a component, the stack entries from start to the end.
+     * The complement of a component is the component of the negated literals, so the representative
+     * of the complement is negated if it is already known. Otherwise a frozen variable or the one with
+     * the smallest ID is chosen.
+     */
+    private void chooseRepresentative(IntVec component, int start, int[] representative) {
+        int chosen = -1;
+        int complement = representative[Literal.negate(component.get(start))];
+        if (complement >= 0) {
+            chosen = Literal.negate(complement);
+        } else {
+            for (int i = start; i < component.size(); i++) {
+                int literal = component.get(i);
+                if (chosen < 0 || (frozen[Literal.var(literal)] && !frozen[Literal.var(chosen)])
+                        || (frozen[Literal.var(literal)] == frozen[Literal.var(chosen)] && literal < chosen)) {
+                    chosen = literal;
+                }
+            }
+        }
+        for (int i = start; i < component.size(); i++) {
+            int literal = component.get(i);
+            representative[literal] = chosen;
+            if (representative[Literal.negate(literal)] == chosen) {
+                //a literal equivalent to its negation
+                formula.assign(literal);
+                formula.assign(Literal.negate(literal));
+            }
+        }
+    }
+
+    /**
+     * Replaces a variable by a literal. The equivalence is saved for the model reconstruction.
+     *
+     * @param var         variable ID
+     * @param replacement literal that replaces the positive literal of the variable
+     */
+    private void substitute(int var, int replacement) {
+        int positive = Literal.of(var, false);
+        int negative = Literal.of(var, true);
+        reconstruction.push(positive, new int[]{positive, Literal.negate(replacement)});
+        reconstruction.push(negative, new int[]{negative, replacement});
+        IntVec clause = new IntVec();
+        for (int sign = 0; sign < 2; sign++) {
+            int literal = sign == 0 ? positive : negative;
+            int substitute = sign == 0 ? replacement : Literal.negate(replacement);
+            int[] indices = formula.getOccurrences(literal).toArray();
+            for (int index : indices) {
+                clause.clear();
+                for (int other : formula.getClause(index)) {
+                    clause.push(other == literal ? substitute : other);
+                }
+                ticks += clause.size();
+                formula.removeClause(index);
+                formula.addClause(clause);
+            }
+        }
+        mergedVariables++;
+    }
+
+    /**
+     * Probes both literals of every open variable on the implication graph.
+     *
+     * @param effortLimit budget in ticks
+     * @return true if a variable was fixed
+     */
+    private boolean probe(long effortLimit) {
+        int[] stamps = new int[starts.length - 1];
+        int stamp = 0;
+        IntVec first = new IntVec();
+        IntVec second = new IntVec();
+        boolean changed = false;
+        for (int var = 1; var <= formula.varNum && formula.isOk() && ticks <= effortLimit; var++) {
+            int positive = Literal.of(var, false);
+            int negative = Literal.of(var, true);
+            if (formula.value(positive) != VariableTable.OPEN
+                    || (starts[positive] == starts[positive + 1] && starts[negative] == starts[negative + 1])) {
+                continue;
+            }
+            if (!implications(positive, stamps, ++stamp, first)) {
+                fix(negative);
+                changed = true;
+                continue;
+            }
+            if (!implications(negative, stamps, ++stamp, second)) {
+                fix(positive);
+                changed = true;
+                continue;
+            }
+            //implied by both literals
+            for (int i = 0; i < first.size(); i++) {
+                int literal = first.get(i);
+                if (stamps[literal] == stamp && formula.value(literal) == VariableTable.OPEN) {
+                    fix(literal);
+                    changed = true;
+                }
+            }
+            if (stamp > Integer.MAX_VALUE - 2) {
+                Arrays.fill(stamps, 0);
+                stamp = 0;
+            }
+        }
+        return changed;
+    }
+
+    /**
+     * Collects all literals implied by a literal.
+     *
+     * @param start   probed literal
+     * @param stamps  marks of the visited literals
+     * @param stamp   mark of this probe
+     * @param reached receives the implied literals
+     * @return false if the negation of the literal is implied, i.e. the literal failed
+     */
+    private boolean implications(int start, int[] stamps, int stamp, IntVec reached) {
+        reached.clear();
+        reached.push(start);
+        stamps[start] = stamp;
+        for (int head = 0; head < reached.size(); head++) {
+            int literal = reached.get(head);
+            for (int k = starts[literal]; k < starts[literal + 1]; k++) {
+                int target = targets[k];
+                ticks++;
+                if (stamps[target] != stamp) {
+                    if (target == Literal.negate(start)) {
+                        return false;
+                    }
+                    stamps[target] = stamp;
+                    reached.push(target);
+                }
+            }
+        }
+        return true;
+    }
+
+    private void fix(int literal) {
+        formula.assign(literal);
+        fixedVariables++;
+    }
+
+    long getTicks() {
+        return ticks;
+    }
+
+    int getFixedVariables() {
+        return fixedVariables;
+    }
+
+    int getMergedVariables() {
+        return mergedVariables;
+    }
+}
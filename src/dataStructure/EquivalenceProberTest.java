@@ -0,0 +1,95 @@
+package dataStructure;
+
+import dimacs.parser.DIMACSFormula;
+import dimacs.parser.DIMACSStreamParser;
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+
+import static org.junit.Assert.*;
+
+public class EquivalenceProberTest {
+
+    /**
+     * 1, 2 and 3 form a cycle of implications and 6 is the negation of 1, three of the four variables
+     * are replaced by the representative of their component
+     */
+    @Test
+    public void testEquivalences() throws Exception {
+        DIMACSFormula parsed = parse("p cnf 6 8\n-1 2 0\n-2 3 0\n-3 1 0\n1 6 0\n-1 -6 0\n"
+                + "1 4 5 0\n-4 -5 0\n-3 4 -5 0\n");
+        OccurrenceFormula formula = new OccurrenceFormula(parsed);
+        ModelReconstruction reconstruction = reconstruction(parsed, formula);
+        EquivalenceProber prober = new EquivalenceProber(formula, reconstruction, new boolean[7]);
+        prober.simplify(false, true, Long.MAX_VALUE);
+
+        assertEquals(3, prober.getMergedVariables());
+        assertEquals(0, prober.getFixedVariables());
+        int remaining = 0;
+        for (int var : new int[]{1, 2, 3, 6}) {
+            if (!reconstruction.isRemoved(var)) {
+                remaining++;
+            }
+        }
+        assertEquals(1, remaining);
+        assertOriginalSatisfied(formula, reconstruction);
+    }
+
+    /**
+     * 1 implies its negation through 2 and 3, 5 is implied by both literals of 4
+     */
+    @Test
+    public void testFailedLiterals() throws Exception {
+        DIMACSFormula parsed = parse("p cnf 5 6\n-1 2 0\n-2 3 0\n-3 -1 0\n-4 5 0\n4 5 0\n2 -3 -5 4 0\n");
+        OccurrenceFormula formula = new OccurrenceFormula(parsed);
+        ModelReconstruction reconstruction = reconstruction(parsed, formula);
+        EquivalenceProber prober = new EquivalenceProber(formula, reconstruction, new boolean[6]);
+        prober.simplify(true, false, Long.MAX_VALUE);
+
+        assertEquals(2, prober.getFixedVariables());
+        assertEquals(0, prober.getMergedVariables());
+        assertEquals(VariableTable.TRUE, formula.value(Literal.fromDimacs(-1)));
+        assertEquals(VariableTable.TRUE, formula.value(Literal.fromDimacs(5)));
+        assertOriginalSatisfied(formula, reconstruction);
+    }
+
+    /**
+     * A component with both literals of a variable makes the formula unsatisfiable
+     */
+    @Test
+    public void testContradictoryComponent() throws Exception {
+        DIMACSFormula parsed = parse("p cnf 3 5\n-1 2 0\n-2 -1 0\n1 -2 0\n1 2 0\n1 2 3 0\n");
+        OccurrenceFormula formula = new OccurrenceFormula(parsed);
+        EquivalenceProber prober = new EquivalenceProber(formula, reconstruction(parsed, formula), new boolean[4]);
+        prober.simplify(false, true, Long.MAX_VALUE);
+        assertFalse(formula.isOk());
+    }
+
+    private static ModelReconstruction reconstruction(DIMACSFormula parsed, OccurrenceFormula formula) {
+        ModelReconstruction reconstruction = new ModelReconstruction(parsed.getVarNum());
+        for (int var = 1; var <= formula.varNum; var++) {
+            if (formula.occurred(var)) {
+                reconstruction.setOccurred(var);
+            }
+        }
+        reconstruction.setOriginal(parsed);
+        return reconstruction;
+    }
+
+    /**
+     * Solves the simplified formula and checks the extended model against the formula before simplification
+     */
+    private static void assertOriginalSatisfied(OccurrenceFormula formula, ModelReconstruction reconstruction) {
+        ClauseSet clauseSet = formula.toClauseSet();
+        clauseSet.setModelReconstruction(reconstruction);
+        CDCL cdcl = new CDCL(clauseSet);
+        cdcl.setQuiet(true);
+        assertTrue(cdcl.solve());
+        assertTrue(clauseSet.satisfiesOriginalFormula());
+    }
+
+    private static DIMACSFormula parse(String input) throws IOException {
+        return new DIMACSStreamParser().parse(new ByteArrayInputStream(input.getBytes("US-ASCII")));
+    }
+}
@@ -0,0 +1,36 @@
+package dataStructure;
+
+/**
+ * Restarts after a number of conflicts that grows by a constant factor after every restart.
+ */
+public class GeometricRestartPolicy implements RestartPolicy {
+    private final double factor;
+
+    private double limit;
+    private long conflicts = 0;
+
+    /**
+     * @param first  conflicts before the first restart
+     * @param factor growth of the limit per restart
+     */
+    public GeometricRestartPolicy(int first, double factor) {
+        this.limit = first;
+        this.factor = factor;
+    }
+
+    @Override
+    public void onConflict(int lbd, int trailSize) {
+        conflicts++;
+    }
+
+    @Override
+    public boolean shouldRestart() {
+        return conflicts >= limit;
+    }
+
+    @Override
+    public void onRestart() {
+        conflicts = 0;
+        limit *= factor;
+    }
+}
@@ -0,0 +1,71 @@
+package dataStructure;
+
+/**
+ * Dynamic restarts as in Glucose, with exponential moving averages instead of fixed windows.
+ * The solver restarts when the fast average LBD of the recent learned clauses is clearly above
+ * the slow (long term) average, i.e. the search currently learns bad clauses.
+ * A restart is blocked when the trail is much longer than usual, because the solver
+ * may be close to a model.
+ */
+public class GlucoseRestartPolicy implements RestartPolicy {
+    private static final double FAST_ALPHA = 1.0 / 32;
+    private static final double SLOW_ALPHA = 1.0 / 4096;
+    private static final double TRAIL_ALPHA = 1.0 / 4096;
+    private static final double MARGIN = 1.25;
+    private static final double BLOCKING_FACTOR = 1.4;
+    private static final int MIN_CONFLICTS = 50;
+
+    private final MovingAverage fastLbd = new MovingAverage(FAST_ALPHA);
+    private final MovingAverage slowLbd = new MovingAverage(SLOW_ALPHA);
+    private final MovingAverage trail = new MovingAverage(TRAIL_ALPHA);
+
+    /* Conflicts since the last restart */
+    private long conflicts = 0;
+    private long totalConflicts = 0;
+
+    @Override
+    public void onConflict(int lbd, int trailSize) {
+        conflicts++;
+        totalConflicts++;
+        if (totalConflicts > 10000 && conflicts > MIN_CONFLICTS
+                && trailSize > BLOCKING_FACTOR * trail.get()) {
+            //block the restart
+            conflicts = 0;
+        }
+        trail.update(trailSize);
+        fastLbd.update(lbd);
+        slowLbd.update(lbd);
+    }
+
+    @Override
+    public boolean shouldRestart() {
+        return conflicts >= MIN_CONFLICTS && fastLbd.get() > MARGIN * slowLbd.get();
+    }
+
+    @Override
+    public void onRestart() {
+        conflicts = 0;
+    }
+
+    /**
+     * Exponential moving average with bias correction for the first values.
+     */
+    private static class MovingAverage {
+        private final double alpha;
+        private double value = 0;
+        private double weight = 0;
+
+        MovingAverage(double alpha) {
+            this.alpha = alpha;
+        }
+
+        void update(double x) {
+            value = (1 - alpha) * value + alpha * x;
+            weight = (1 - alpha) * weight + alpha;
+        }
+
+        double get() {
+            return weight == 0 ? 0 : value / weight;
+        }
+    }
+}
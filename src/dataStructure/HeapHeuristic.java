@@ -0,0 +1,87 @@
+package dataStructure;
+
+/**
+ * Base class of the heuristics that branch on the OPEN variable with the highest score.
+ * The variables are kept in a {@link VariableOrderHeap}, unassigned variables are put back on backtrack.
+ */
+public abstract class HeapHeuristic implements BranchingHeuristic {
+
+    protected ClauseSet instance;
+    protected VariableTable table;
+
+    /* Score of each variable, indexed by ID */
+    protected double[] scores;
+
+    /* Variables ordered by score */
+    protected VariableOrderHeap order;
+
+    /**
+     * Returns the score array the heap is ordered by.
+     *
+     * @return scores indexed by variable ID
+     */
+    protected abstract double[] createScores();
+
+    @Override
+    public void init(ClauseSet instance) {
+        this.instance = instance;
+        this.table = instance.getVariableTable();
+        this.scores = createScores();
+        this.order = new VariableOrderHeap(scores);
+        for (int var = 1; var <= table.getVarNum(); var++) {
+            if (table.get(var) != null) {
+                order.insert(var);
+            }
+        }
+    }
+
+    /**
+     * Returns the OPEN variable with the highest score.
+     * Assigned variables popped from the heap are skipped, they return on backtrack.
+     *
+     * @return variable ID or 0
+     */
+    @Override
+    public int pickBranchVariable() {
+        while (!order.isEmpty()) {
+            int var = order.removeMax();
+            if (table.value(var) == VariableTable.OPEN) {
+                return var;
+            }
+        }
+        return 0;
+    }
+
+    @Override
+    public void onAssign(int var) {
+    }
+
+    @Override
+    public void onUnassign(int var) {
+        order.insert(var);
+    }
+
+    @Override
+    public void onConflict(IntVec conflictVariables) {
+    }
+
+    @Override
+    public void onLearnedClause(IntVec literals) {
+    }
+
+    /**
+     * Changes the score of a variable and restores the heap order.
+     *
+     * @param var   variable ID
+     * @param score new score
+     */
+    protected void setScore(int var, double score) {
+        double old = scores[var];
+        scores[var] = score;
+        if (score > old) {
+            order.increased(var);
+        } else if (score < old) {
+            order.decreased(var);
+        }
+    }
+}
@@ -0,0 +1,33 @@
+package dataStructure;
+
+/**
+ * The branching heuristics shipped with the solver.
+ */
+public enum HeuristicType {
+    /* Activity of the variables in learned clauses, decayed per decision */
+    VSIDS,
+    /* Exponential VSIDS as in MiniSat/Glucose, bumps all variables of the conflict analysis */
+    EVSIDS,
+    /* Learning rate based branching */
+    LRB,
+    /* Conflict history based branching */
+    CHB;
+
+    /**
+     * Creates a new instance of the heuristic.
+     *
+     * @return new heuristic
+     */
+    public BranchingHeuristic create() {
+        switch (this) {
+            case VSIDS:
+                return new VSIDSHeuristic();
+            case LRB:
+                return new LRBHeuristic();
+            case CHB:
+                return new CHBHeuristic();
+            default:
+                return new EVSIDSHeuristic();
+        }
+    }
+}
@@ -0,0 +1,455 @@
+package dataStructure;
+
+import java.util.Arrays;
+
+/**
+ * Simplifies the clause set during search. {@link CDCL} calls it at level 0 every few thousand conflicts.
+ * Each technique gets a budget proportional to the search effort since the last round, measured in
+ * ticks (watchers and binary clauses visited by propagation):
+ * subsumption deletes learned clauses that contain another learned or a short original clause,
+ * vivification shortens learned clauses by propagating the negation of their literals one after another,
+ * probing propagates both values of variables to find failed literals and literals implied by both.
+ * The ticks used by every technique are counted in the {@link Statistics}.
+ */
+public class Inprocessor {
+
+    public enum Technique {
+        SUBSUMPTION, VIVIFICATION, PROBING
+    }
+
+    /* Conflicts before the first round, the interval grows by the increment */
+    private static final int FIRST_ROUND = 5000;
+    private static final int ROUND_INCREMENT = 2000;
+
+    /* Smallest budget of a technique in ticks */
+    private static final long MIN_EFFORT = 10000;
+
+    /* Longest original clause used to subsume learned clauses */
+    private static final int SUBSUMING_ORIGINAL_SIZE = 3;
+
+    private final ClauseSet instance;
+
+    private final boolean[] enabled = {true, true, true};
+
+    /* Budget of every technique in per mille of the search ticks */
+    private final int[] effort = {50, 100, 50};
+
+    private long interval = FIRST_ROUND;
+    private long nextRound = FIRST_ROUND;
+    private int roundIncrement = ROUND_INCREMENT;
+
+    /* Search ticks at the end of the last round */
+    private long lastSearchTicks = 0;
+
+    /* Next variable to probe, probing continues there in the next round */
+    private int probeCursor = 1;
+
+    /* Stamp per literal, used by subsumption and probing */
+    private int[] stamps;
+    private int stamp = 0;
+
+    private final IntVec literals = new IntVec();
+
+    /**
+     * @param instance clause set to simplify
+     */
+    public Inprocessor(ClauseSet instance) {
+        this.instance = instance;
+        this.stamps = new int[2 * (instance.getVariableTable().getVarNum() + 1)];
+    }
+
+    /**
+     * @param conflicts number of conflicts so far
+     * @return true if the next round is due
+     */
+    boolean isDue(long conflicts) {
+        if (conflicts < nextRound || !(enabled[0] || enabled[1] || enabled[2])) {
+            return false;
+        }
+        interval += roundIncrement;
+        nextRound = conflicts + interval;
+        return true;
+    }
+
+    /**
+     * Runs one round of the enabled techniques. Must be called at decision level 0.
+     *
+     * @return false if the clause set turned out to be unsatisfiable
+     */
+    boolean inprocess() {
+        Statistics statistics = instance.getStatistics();
+        long searchTicks = statistics.getPropagationTicks() - statistics.vivificationTicks - statistics.probingTicks;
+        long ticks = searchTicks - lastSearchTicks;
+        statistics.inprocessings++;
+        if (instance.propagate() != ClauseArena.CREF_UNDEF) {
+            return false;
+        }
+        if (enabled[Technique.SUBSUMPTION.ordinal()]) {
+            subsume(budget(Technique.SUBSUMPTION, ticks));
+        }
+        if (enabled[Technique.VIVIFICATION.ordinal()] && !vivify(budget(Technique.VIVIFICATION, ticks))) {
+            return false;
+        }
+        if (enabled[Technique.PROBING.ordinal()] && !probe(budget(Technique.PROBING, ticks))) {
+            return false;
+        }
+        lastSearchTicks = statistics.getPropagationTicks() - statistics.vivificationTicks - statistics.probingTicks;
+        return instance.isOk();
+    }
+
+    private long budget(Technique technique, long ticks) {
+        return Math.max(MIN_EFFORT, ticks / 1000 * effort[technique.ordinal()]);
+    }
+
+    private int nextStamp() {
+        if (stamp == Integer.MAX_VALUE) {
+            Arrays.fill(stamps, 0);
+            stamp = 0;
+        }
+        return ++stamp;
+    }
+
+    /**
+     * Deletes learned clauses that are subsumed by another clause.
+     * The clauses are visited from short to long, originals before learned clauses of the same size.
+     * Every kept clause is put in the occurrence list of one of its literals, the one with the shortest list,
+     * which is enough to find it from every clause it subsumes.
+     *
+     * @param budget budget in ticks
+     */
+    private void subsume(long budget) {
+        ClauseArena arena = instance.getArena();
+        IntVec learnts = instance.getLearnts();
+        IntVec originals = instance.getOriginals();
+        int[] crefs = new int[learnts.size() + originals.size()];
+        int count = 0;
+        for (int i = 0; i < originals.size(); i++) {
+            if (arena.size(originals.get(i)) <= SUBSUMING_ORIGINAL_SIZE) {
+                crefs[count++] = originals.get(i);
+            }
+        }
+        for (int i = 0; i < learnts.size(); i++) {
+            crefs[count++] = learnts.get(i);
+        }
+        //size in the upper bits, learned flag below, index in the lower half
+        long[] order = new long[count];
+        for (int i = 0; i < count; i++) {
+            int cref = crefs[i];
+            order[i] = ((long) arena.size(cref) << 33) | ((arena.isLearned(cref) ? 1L : 0L) << 32) | i;
+        }
+        Arrays.sort(order);
+        long ticks = count;
+        long[] signatures = new long[count];
+        IntVec[] occurrences = new IntVec[stamps.length];
+        int[] data = arena.getData();
+        int deleted = 0;
+        for (int k = 0; k < count && ticks <= budget; k++) {
+            int index = (int) order[k];
+            int cref = crefs[index];
+            int start = arena.start(cref);
+            int end = start + arena.size(cref);
+            int mark = nextStamp();
+            long signature = 0;
+            for (int i = start; i < end; i++) {
+                stamps[data[i]] = mark;
+                signature |= 1L << (Literal.var(data[i]) & 63);
+            }
+            signatures[index] = signature;
+            int subsuming = -1;
+            for (int i = start; i < end && subsuming < 0; i++) {
+                IntVec list = occurrences[data[i]];
+                for (int j = 0; list != null && j < list.size(); j++) {
+                    int other = list.get(j);
+                    ticks++;
+                    if ((signatures[other] & ~signature) == 0 && allMarked(crefs[other], mark)) {
+                        subsuming = other;
+                        break;
+                    }
+                }
+            }
+            ticks += end - start;
+            if (subsuming >= 0) {
+                if (arena.isLearned(cref) && !instance.isLocked(cref)) {
+                    //the subsuming clause takes over a better LBD
+                    int other = crefs[subsuming];
+                    if (arena.isLearned(other) && arena.getLBD(cref) < arena.getLBD(other)) {
+                        arena.setLBD(other, arena.getLBD(cref));
+                    }
+                    arena.delete(cref);
+                    deleted++;
+                }
+                continue;
+            }
+            int best = data[start];
+            for (int i = start + 1; i < end; i++) {
+                if (occurrences[data[i]] == null || (occurrences[best] != null
+                        && occurrences[data[i]].size() < occurrences[best].size())) {
+                    best = data[i];
+                }
+            }
+            if (occurrences[best] == null) {
+                occurrences[best] = new IntVec(4);
+            }
+            occurrences[best].push(index);
+        }
+        if (deleted > 0) {
+            instance.removeDeletedClauses();
+        }
+        instance.getStatistics().subsumptionTicks += ticks;
+        instance.getStatistics().subsumedLearnedClauses += deleted;
+    }
+
+    private boolean allMarked(int cref, int mark) {
+        ClauseArena arena = instance.getArena();
+        int[] data = arena.getData();
+        int start = arena.start(cref);
+        for (int i = start; i < start + arena.size(cref); i++) {
+            if (stamps[data[i]] != mark) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Vivifies the learned clauses of the core and tier-2 that were not vivified before, lowest LBD first.
+     *
+     * @param budget budget in ticks
+     * @return false if the clause set turned out to be unsatisfiable
+     */
+    private boolean vivify(long budget) {
+        ClauseArena arena = instance.getArena();
+        IntVec learnts = instance.getLearnts();
+        long[] order = new long[learnts.size()];
+        int count = 0;
+        for (int i = 0; i < learnts.size(); i++) {
+            int cref = learnts.get(i);
+            if (arena.size(cref) > 2 && arena.getLBD(cref) <= LearnedClauseDatabase.TIER2_LBD
+                    && !arena.isVivified(cref) && !instance.isLocked(cref)) {
+                order[count++] = ((long) arena.getLBD(cref) << 32) | i;
+            }
+        }
+        Arrays.sort(order, 0, count);
+        //new clauses are appended to learnts, so the references are taken before
+        int[] crefs = new int[count];
+        for (int k = 0; k < count; k++) {
+            crefs[k] = learnts.get((int) order[k]);
+        }
+        Statistics statistics = instance.getStatistics();
+        long startTicks = statistics.getPropagationTicks();
+        boolean ok = true;
+        int deleted = 0;
+        for (int k = 0; k < count && ok && statistics.getPropagationTicks() - startTicks <= budget; k++) {
+            int result = vivifyClause(crefs[k]);
+            if (result != VIVIFY_KEPT) {
+                deleted++;
+            }
+            ok = result != VIVIFY_CONFLICT && instance.propagate() == ClauseArena.CREF_UNDEF;
+        }
+        if (deleted > 0) {
+            instance.removeDeletedClauses();
+        }
+        statistics.vivificationTicks += statistics.getPropagationTicks() - startTicks;
+        return ok;
+    }
+
+    private static final int VIVIFY_KEPT = 0;
+    private static final int VIVIFY_REPLACED = 1;
+    private static final int VIVIFY_CONFLICT = 2;
+
+    /**
+     * Shortens a learned clause. The negation of the literals is assigned and propagated one after
+     * another, with the clause itself detached. A literal that becomes false is implied and removed.
+     * If a literal becomes true or a conflict occurs, the remaining literals are not needed.
+     *
+     * @param cref clause reference
+     * @return VIVIFY_KEPT, VIVIFY_REPLACED if the clause was deleted or replaced by a shorter one,
+     * VIVIFY_CONFLICT if the shorter clause is false
+     */
+    private int vivifyClause(int cref) {
+        ClauseArena arena = instance.getArena();
+        VariableTable table = instance.getVariableTable();
+        int size = arena.size(cref);
+        arena.setVivified(cref, true);
+        if (instance.isLocked(cref)) {
+            //became the reason of a unit found in this round
+            return VIVIFY_KEPT;
+        }
+        for (int k = 0; k < size; k++) {
+            int literal = arena.literal(cref, k);
+            if (table.literalValue(literal) == VariableTable.TRUE && table.getLevel(Literal.var(literal)) == 0) {
+                //satisfied forever
+                arena.delete(cref);
+                return VIVIFY_REPLACED;
+            }
+        }
+        instance.detachClause(cref);
+        literals.clear();
+        for (int k = 0; k < size; k++) {
+            int literal = arena.literal(cref, k);
+            byte value = table.literalValue(literal);
+            if (value == VariableTable.FALSE) {
+                continue;
+            }
+            literals.push(literal);
+            if (value == VariableTable.TRUE || k == size - 1) {
+                break;
+            }
+            instance.newDecisionLevel();
+            instance.enqueue(Literal.negate(literal), ClauseArena.CREF_UNDEF);
+            if (instance.propagate() != ClauseArena.CREF_UNDEF) {
+                break;
+            }
+        }
+        instance.cancelUntil(0, false);
+        if (literals.size() == size) {
+            instance.attachClause(cref);
+            return VIVIFY_KEPT;
+        }
+        instance.getStatistics().vivifiedClauses++;
+        arena.delete(cref);
+        if (literals.isEmpty()) {
+            return VIVIFY_CONFLICT;
+        }
+        int existing = instance.findLearnedClause(literals);
+        if (existing == ClauseArena.CREF_UNDEF || arena.isDeleted(existing)) {
+            int lbd = Math.min(arena.getLBD(cref), literals.size());
+            float activity = arena.getActivity(cref);
+            int shorter = instance.addClause(literals, true);
+            arena.setLBD(shorter, lbd);
+            arena.setActivity(shorter, activity);
+            arena.setVivified(shorter, true);
+        }
+        return instance.isOk() ? VIVIFY_REPLACED : VIVIFY_CONFLICT;
+    }
+
+    /**
+     * Probes the variables starting at the cursor until the budget is used up.
+     * A literal whose propagation fails is false; a literal implied by both values of a variable is true.
+     * The found literals are added as learned unit clauses.
+     *
+     * @param budget budget in ticks
+     * @return false if the clause set turned out to be unsatisfiable
+     */
+    private boolean probe(long budget) {
+        VariableTable table = instance.getVariableTable();
+        Statistics statistics = instance.getStatistics();
+        int varNum = table.getVarNum();
+        long startTicks = statistics.getPropagationTicks();
+        boolean ok = true;
+        for (int probed = 0; probed < varNum && ok && statistics.getPropagationTicks() - startTicks <= budget; probed++) {
+            int var = probeCursor;
+            probeCursor = probeCursor % varNum + 1;
+            if (table.get(var) == null || table.value(var) != VariableTable.OPEN) {
+                continue;
+            }
+            int positive = Literal.of(var, false);
+            int mark = nextStamp();
+            if (!propagateProbe(positive, mark)) {
+                ok = learnUnit(Literal.negate(positive));
+                continue;
+            }
+            if (!propagateProbe(Literal.negate(positive), 0)) {
+                ok = learnUnit(positive);
+                continue;
+            }
+            //literals implied by both values
+            literals.clear();
+            int[] trail = instance.getTrail();
+            for (int i = instance.getLevelStart(0) + 1; i < instance.getTrailSize(); i++) {
+                if (stamps[trail[i]] == mark) {
+                    literals.push(trail[i]);
+                }
+            }
+            instance.cancelUntil(0, false);
+            for (int i = 0; i < literals.size() && ok; i++) {
+                ok = learnUnit(literals.get(i));
+            }
+        }
+        instance.cancelUntil(0, false);
+        statistics.probingTicks += statistics.getPropagationTicks() - startTicks;
+        return ok;
+    }
+
+    /**
+     * Assigns a literal on a new level and propagates it.
+     * Without conflict, the assignments stay and are marked if a mark is given.
+     *
+     * @param literal probed literal
+     * @param mark    stamp for the implied literals, 0 for none
+     * @return false on a conflict, the assignments are undone then
+     */
+    private boolean propagateProbe(int literal, int mark) {
+        instance.cancelUntil(0, false);
+        instance.newDecisionLevel();
+        instance.enqueue(literal, ClauseArena.CREF_UNDEF);
+        if (instance.propagate() != ClauseArena.CREF_UNDEF) {
+            instance.cancelUntil(0, false);
+            return false;
+        }
+        if (mark != 0) {
+            int[] trail = instance.getTrail();
+            for (int i = instance.getLevelStart(0) + 1; i < instance.getTrailSize(); i++) {
+                stamps[trail[i]] = mark;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Adds a unit clause at level 0 and propagates it.
+     *
+     * @param literal literal that is true in every model
+     * @return false if the clause set turned out to be unsatisfiable
+     */
+    private boolean learnUnit(int literal) {
+        instance.cancelUntil(0, false);
+        if (instance.getVariableTable().literalValue(literal) == VariableTable.TRUE) {
+            return true;
+        }
+        IntVec unit = new IntVec(1);
+        unit.push(literal);
+        instance.addClause(unit, true);
+        instance.getStatistics().probingUnits++;
+        return instance.isOk() && instance.propagate() == ClauseArena.CREF_UNDEF;
+    }
+
+    public void setEnabled(Technique technique, boolean enabled) {
+        this.enabled[technique.ordinal()] = enabled;
+    }
+
+    public boolean isEnabled(Technique technique) {
+        return enabled[technique.ordinal()];
+    }
+
+    /**
+     * Sets the budget of a technique relative to the search effort.
+     *
+     * @param technique the technique
+     * @param perMille  ticks per thousand search ticks
+     */
+    public void setEffort(Technique technique, int perMille) {
+        this.effort[technique.ordinal()] = perMille;
+    }
+
+    /**
+     * Sets the conflicts before the first round. The interval between later rounds grows from there.
+     *
+     * @param conflicts number of conflicts
+     */
+    public void setInterval(int conflicts) {
+        this.interval = conflicts;
+        this.nextRound = conflicts;
+    }
+
+    /**
+     * Sets the conflicts before the first round and the growth of the interval after every round.
+     *
+     * @param conflicts number of conflicts
+     * @param increment growth of the interval
+     */
+    void setInterval(int conflicts, int increment) {
+        setInterval(conflicts);
+        this.roundIncrement = increment;
+    }
+}
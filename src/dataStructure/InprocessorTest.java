@@ -0,0 +1,109 @@
+package dataStructure;
+
+import org.junit.Test;
+
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+public class InprocessorTest {
+
+    /**
+     * 1 implies 3 through the original clauses, so the learned clause (-1 3 4 5) is shortened to (-1 3)
+     */
+    @Test
+    public void testVivification() {
+        ClauseSet clauseSet = new ClauseSet(6);
+        clauseSet.addClause(new int[]{-1, 2});
+        clauseSet.addClause(new int[]{-2, 3});
+        clauseSet.addClause(new int[]{4, 5, 6});
+        int cref = addLearned(clauseSet, 3, -1, 3, 4, 5);
+
+        Inprocessor inprocessor = only(clauseSet, Inprocessor.Technique.VIVIFICATION);
+        assertTrue(inprocessor.inprocess());
+        assertEquals(1, clauseSet.getStatistics().getVivifiedClauses());
+        assertEquals(1, clauseSet.getLearnts().size());
+        assertFalse(clauseSet.getLearnts().contains(cref));
+        assertLearned(clauseSet, 0, -1, 3);
+        assertEquals(2, clauseSet.getArena().getLBD(clauseSet.getLearnts().get(0)));
+    }
+
+    /**
+     * Learned clauses that contain a short original clause or another learned clause are deleted,
+     * the subsuming learned clause takes over the lower LBD
+     */
+    @Test
+    public void testSubsumption() {
+        ClauseSet clauseSet = new ClauseSet(8);
+        clauseSet.addClause(new int[]{1, 2});
+        clauseSet.addClause(new int[]{3, 4, 5, 6});
+        addLearned(clauseSet, 4, 1, 2, 3, 4);
+        addLearned(clauseSet, 3, 5, 6, 7);
+        addLearned(clauseSet, 2, 5, 6, 7, 8);
+        addLearned(clauseSet, 3, 3, -5, 8);
+
+        Inprocessor inprocessor = only(clauseSet, Inprocessor.Technique.SUBSUMPTION);
+        assertTrue(inprocessor.inprocess());
+        assertEquals(2, clauseSet.getStatistics().getSubsumedLearnedClauses());
+        assertEquals(2, clauseSet.getLearnts().size());
+        assertLearned(clauseSet, 0, 5, 6, 7);
+        assertLearned(clauseSet, 1, 3, -5, 8);
+        assertEquals(2, clauseSet.getArena().getLBD(clauseSet.getLearnts().get(0)));
+    }
+
+    /**
+     * With a round of all techniques after every conflict the results match the default solver
+     */
+    @Test
+    public void testInprocessingEveryConflict() {
+        Random random = new Random(13);
+        int varNum = 50;
+        long rounds = 0;
+        int sat = 0;
+        for (int i = 0; i < 30; i++) {
+            List<int[]> clauses = CDCLTest.randomClauses(random, varNum, 215);
+            ClauseSet clauseSet = CDCLTest.clauseSet(varNum, clauses);
+            CDCL cdcl = new CDCL(clauseSet);
+            cdcl.setQuiet(true);
+            cdcl.setMaxIterations(Integer.MAX_VALUE);
+            cdcl.getInprocessor().setInterval(1, 0);
+            cdcl.solve();
+            assertEquals(CDCLTest.solveDefault(varNum, clauses), cdcl.getResult());
+            if (cdcl.getResult() == CDCL.Result.SAT) {
+                CDCLTest.assertModel(clauseSet, clauses);
+                sat++;
+            }
+            rounds += clauseSet.getStatistics().getInprocessings();
+        }
+        assertTrue(sat > 0 && sat < 30);
+        assertTrue(rounds > 100);
+    }
+
+    private static Inprocessor only(ClauseSet clauseSet, Inprocessor.Technique technique) {
+        Inprocessor inprocessor = new Inprocessor(clauseSet);
+        for (Inprocessor.Technique other : Inprocessor.Technique.values()) {
+            inprocessor.setEnabled(other, other == technique);
+        }
+        return inprocessor;
+    }
+
+    private static int addLearned(ClauseSet clauseSet, int lbd, int... dimacs) {
+        IntVec literals = new IntVec();
+        for (int literal : dimacs) {
+            literals.push(Literal.fromDimacs(literal));
+        }
+        int cref = clauseSet.addClause(literals, true);
+        clauseSet.getArena().setLBD(cref, lbd);
+        return cref;
+    }
+
+    private static void assertLearned(ClauseSet clauseSet, int index, int... dimacs) {
+        ClauseArena arena = clauseSet.getArena();
+        int cref = clauseSet.getLearnts().get(index);
+        assertEquals(dimacs.length, arena.size(cref));
+        for (int k = 0; k < dimacs.length; k++) {
+            assertEquals(Literal.fromDimacs(dimacs[k]), arena.literal(cref, k));
+        }
+    }
+}
@@ -0,0 +1,155 @@
+package dataStructure;
+
+import java.util.Arrays;
+
+/**
+ * A growable list of primitive ints.
+ * Used instead of Vector<Integer> wherever literals or clause references are collected.
+ */
+public class IntVec {
+    /* Backing array, only the first size entries are valid */
+    private int[] data;
+
+    /* Number of valid entries */
+    private int size;
+
+    /**
+     * Creates an empty list with a small default capacity.
+     */
+    public IntVec() {
+        this(4);
+    }
+
+    /**
+     * Creates an empty list with the given capacity.
+     *
+     * @param capacity initial capacity
+     */
+    public IntVec(int capacity) {
+        data = new int[Math.max(capacity, 1)];
+        size = 0;
+    }
+
+    /**
+     * Appends a value to the end of the list.
+     *
+     * @param value value to be appended
+     */
+    public void push(int value) {
+        if (size == data.length) {
+            data = Arrays.copyOf(data, data.length * 2);
+        }
+        data[size++] = value;
+    }
+
+    /**
+     * Removes and returns the last value.
+     *
+     * @return last value of the list
+     */
+    public int pop() {
+        return data[--size];
+    }
+
+    /**
+     * Returns the last value without removing it.
+     *
+     * @return last value of the list
+     */
+    public int last() {
+        return data[size - 1];
+    }
+
+    public int get(int index) {
+        return data[index];
+    }
+
+    public void set(int index, int value) {
+        data[index] = value;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * Shrinks the list to the given size.
+     *
+     * @param newSize new size, must not be larger than the current size
+     */
+    public void shrink(int newSize) {
+        size = newSize;
+    }
+
+    /**
+     * Removes the value at the given index and shifts the following values left.
+     *
+     * @param index index of the value to be removed
+     */
+    public void remove(int index) {
+        System.arraycopy(data, index + 1, data, index, size - index - 1);
+        size--;
+    }
+
+    public void clear() {
+        size = 0;
+    }
+
+    /**
+     * Makes sure that at least capacity values fit without growing.
+     *
+     * @param capacity required capacity
+     */
+    public void ensureCapacity(int capacity) {
+        if (capacity > data.length) {
+            data = Arrays.copyOf(data, Math.max(capacity, data.length * 2));
+        }
+    }
+
+    /**
+     * Grows the list to the given size. New entries are zero unless they were used before.
+     *
+     * @param newSize new size, not smaller than the current size
+     */
+    public void growTo(int newSize) {
+        ensureCapacity(newSize);
+        size = newSize;
+    }
+
+    /**
+     * Returns true if the list contains the value (linear scan).
+     *
+     * @param value value to search
+     * @return true if value is contained
+     */
+    public boolean contains(int value) {
+        for (int i = 0; i < size; i++) {
+            if (data[i] == value) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Returns the backing array. Only the first size() entries are valid.
+     *
+     * @return backing array
+     */
+    public int[] getData() {
+        return data;
+    }
+
+    /**
+     * Returns a copy of the valid entries.
+     *
+     * @return copy of the list as array
+     */
+    public int[] toArray() {
+        return Arrays.copyOf(data, size);
+    }
+}
@@ -0,0 +1,93 @@
+package dataStructure;
+
+/**
+ * Learning rate based branching (Liang et al., SAT 2016).
+ * The score of a variable is an exponential moving average of its learning rate: the share of
+ * conflicts it took part in while it was assigned. The reason side rate extension also rewards
+ * variables that occur in the reasons of the learned clause.
+ * The rewards are computed when a variable becomes unassigned.
+ */
+public class LRBHeuristic extends HeapHeuristic {
+    private static final double INITIAL_ALPHA = 0.4;
+    private static final double MIN_ALPHA = 0.06;
+    private static final double ALPHA_STEP = 1e-6;
+
+    /* Step size of the moving average */
+    private double alpha = INITIAL_ALPHA;
+
+    /* Number of conflicts so far */
+    private long learnedCounter = 0;
+
+    /* Conflict counter at the time each variable was assigned */
+    private long[] assignedAt;
+
+    /* Conflicts each variable took part in since it was assigned */
+    private long[] participated;
+
+    /* Learned clauses each variable was reason side for since it was assigned */
+    private long[] reasoned;
+
+    /* Marks the variables of the current learned clause */
+    private boolean[] inClause;
+
+    @Override
+    protected double[] createScores() {
+        int n = table.getVarNum() + 1;
+        assignedAt = new long[n];
+        participated = new long[n];
+        reasoned = new long[n];
+        inClause = new boolean[n];
+        return new double[n];
+    }
+
+    @Override
+    public void onAssign(int var) {
+        assignedAt[var] = learnedCounter;
+        participated[var] = 0;
+        reasoned[var] = 0;
+    }
+
+    @Override
+    public void onUnassign(int var) {
+        long interval = learnedCounter - assignedAt[var];
+        if (interval > 0) {
+            double reward = (double) (participated[var] + reasoned[var]) / interval;
+            setScore(var, (1.0 - alpha) * scores[var] + alpha * reward);
+        }
+        super.onUnassign(var);
+    }
+
+    @Override
+    public void onConflict(IntVec conflictVariables) {
+        for (int i = 0; i < conflictVariables.size(); i++) {
+            participated[conflictVariables.get(i)]++;
+        }
+        learnedCounter++;
+        if (alpha > MIN_ALPHA) {
+            alpha = Math.max(MIN_ALPHA, alpha - ALPHA_STEP);
+        }
+    }
+
+    @Override
+    public void onLearnedClause(IntVec literals) {
+        ClauseArena arena = instance.getArena();
+        for (int i = 0; i < literals.size(); i++) {
+            inClause[Literal.var(literals.get(i))] = true;
+        }
+        for (int i = 0; i < literals.size(); i++) {
+            int reason = table.getReason(Literal.var(literals.get(i)));
+            if (reason == ClauseArena.CREF_UNDEF) {
+                continue;
+            }
+            for (int k = 0; k < arena.size(reason); k++) {
+                int var = Literal.var(arena.literal(reason, k));
+                if (!inClause[var]) {
+                    reasoned[var]++;
+                }
+            }
+        }
+        for (int i = 0; i < literals.size(); i++) {
+            inClause[Literal.var(literals.get(i))] = false;
+        }
+    }
+}
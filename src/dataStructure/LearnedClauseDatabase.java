@@ -0,0 +1,143 @@
+package dataStructure;
+
+import java.util.Arrays;
+
+/**
+ * Keeps the number of learned clauses bounded.
+ * Every learned clause carries its LBD (number of distinct decision levels) and an activity that
+ * is bumped whenever the clause takes part in a conflict. The LBD puts a clause in one of three tiers:
+ * core clauses (LBD <= 2, and binary clauses) are kept forever, tier-2 clauses (LBD <= 6) are kept as
+ * long as they were used since the last reduction, all other clauses are local. On every reduction the
+ * less active half of the local clauses is deleted. Clauses that are reasons are never deleted.
+ */
+public class LearnedClauseDatabase {
+    /* Upper LBD bounds of the core and tier-2 clauses */
+    static final int CORE_LBD = 2;
+    static final int TIER2_LBD = 6;
+
+    /* Conflicts before the first reduction, the interval grows by the increment */
+    private static final int FIRST_REDUCE = 2000;
+    private static final int REDUCE_INCREMENT = 300;
+
+    private static final float ACTIVITY_DECAY = 0.999f;
+    private static final float RESCALE_LIMIT = 1e20f;
+
+    private final ClauseSet instance;
+
+    /* Amount added to the activity of a used clause, grows to decay older bumps */
+    private float activityIncrement = 1;
+
+    private long reduceInterval = FIRST_REDUCE;
+    private long nextReduce = FIRST_REDUCE;
+    private int reduceIncrement = REDUCE_INCREMENT;
+
+    /**
+     * @param instance clause set holding the learned clauses
+     */
+    public LearnedClauseDatabase(ClauseSet instance) {
+        this.instance = instance;
+    }
+
+    /**
+     * Registers a new learned clause.
+     *
+     * @param cref clause reference
+     * @param lbd  LBD of the clause when it was learned
+     */
+    void onLearned(int cref, int lbd) {
+        instance.getArena().setLBD(cref, lbd);
+        bump(cref);
+    }
+
+    /**
+     * Called for learned clauses that took part in conflict analysis.
+     * Keeps the smaller LBD if it went down since the clause was learned.
+     *
+     * @param cref clause reference
+     * @param lbd  current LBD of the clause
+     */
+    void onAnalyzed(int cref, int lbd) {
+        ClauseArena arena = instance.getArena();
+        if (lbd < arena.getLBD(cref)) {
+            arena.setLBD(cref, lbd);
+        }
+        arena.setUsed(cref, true);
+        bump(cref);
+    }
+
+    private void bump(int cref) {
+        ClauseArena arena = instance.getArena();
+        float activity = arena.getActivity(cref) + activityIncrement;
+        arena.setActivity(cref, activity);
+        if (activity > RESCALE_LIMIT) {
+            IntVec learnts = instance.getLearnts();
+            for (int i = 0; i < learnts.size(); i++) {
+                arena.setActivity(learnts.get(i), arena.getActivity(learnts.get(i)) / RESCALE_LIMIT);
+            }
+            activityIncrement /= RESCALE_LIMIT;
+        }
+    }
+
+    /**
+     * Decays all activities, called once per conflict.
+     */
+    void decayActivity() {
+        activityIncrement /= ACTIVITY_DECAY;
+    }
+
+    /**
+     * Sets the conflicts before the first reduction and the growth of the interval per reduction.
+     *
+     * @param first     conflicts before the first reduction
+     * @param increment growth of the interval
+     */
+    void setReduceInterval(int first, int increment) {
+        reduceInterval = first;
+        nextReduce = first;
+        reduceIncrement = increment;
+    }
+
+    /**
+     * @param conflicts number of conflicts so far
+     * @return true if the next reduction is due
+     */
+    boolean reduceDue(long conflicts) {
+        if (conflicts < nextReduce) {
+            return false;
+        }
+        reduceInterval += reduceIncrement;
+        nextReduce = conflicts + reduceInterval;
+        return true;
+    }
+
+    /**
+     * Deletes the less active half of the local clauses and detaches them.
+     */
+    void reduce() {
+        ClauseArena arena = instance.getArena();
+        IntVec learnts = instance.getLearnts();
+        //activity bits in the upper half, index in the lower half; non-negative floats sort like their bits
+        long[] candidates = new long[learnts.size()];
+        int count = 0;
+        for (int i = 0; i < learnts.size(); i++) {
+            int cref = learnts.get(i);
+            int lbd = arena.getLBD(cref);
+            if (lbd <= CORE_LBD || arena.size(cref) <= 2) {
+                continue;
+            }
+            boolean used = arena.isUsed(cref);
+            arena.setUsed(cref, false);
+            if ((lbd <= TIER2_LBD && used) || instance.isLocked(cref)) {
+                continue;
+            }
+            candidates[count++] = ((long) Float.floatToRawIntBits(arena.getActivity(cref)) << 32) | i;
+        }
+        Arrays.sort(candidates, 0, count);
+        for (int k = 0; k < count / 2; k++) {
+            arena.delete(learnts.get((int) candidates[k]));
+        }
+        instance.getStatistics().reductions++;
+        instance.getStatistics().deletedClauses += count / 2;
+        instance.removeDeletedClauses();
+    }
+}
@@ -0,0 +1,81 @@
+package dataStructure;
+
+import org.junit.Test;
+
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+public class LearnedClauseDatabaseTest {
+
+    /**
+     * Core clauses and used tier-2 clauses are kept, the less active half of the others is deleted
+     */
+    @Test
+    public void testReduceByTier() {
+        ClauseSet clauseSet = new ClauseSet(10);
+        LearnedClauseDatabase database = new LearnedClauseDatabase(clauseSet);
+        int[][] clauses = {{1, 2, 3}, {2, 3, 4}, {3, 4, 5}, {4, 5, 6}, {5, 6, 7}, {6, 7, 8}, {7, 8, 9}};
+        int[] lbds = {2, 5, 5, 8, 8, 8, 8};
+        for (int c = 0; c < clauses.length; c++) {
+            int cref = clauseSet.addClause(encode(clauses[c]), true);
+            database.onLearned(cref, lbds[c]);
+            clauseSet.getArena().setActivity(cref, c);
+        }
+        //the first tier-2 clause took part in a conflict
+        clauseSet.getArena().setUsed(find(clauseSet, clauses[1]), true);
+
+        //candidates are clauses 2 to 6, the two least active are deleted
+        database.reduce();
+        assertEquals(5, clauseSet.getLearnts().size());
+        assertEquals(ClauseArena.CREF_UNDEF, find(clauseSet, clauses[2]));
+        assertEquals(ClauseArena.CREF_UNDEF, find(clauseSet, clauses[3]));
+        for (int c : new int[]{0, 1, 4, 5, 6}) {
+            assertTrue(find(clauseSet, clauses[c]) != ClauseArena.CREF_UNDEF);
+        }
+
+        //the tier-2 clause was not used since the last reduction
+        database.reduce();
+        assertEquals(ClauseArena.CREF_UNDEF, find(clauseSet, clauses[1]));
+        assertTrue(find(clauseSet, clauses[0]) != ClauseArena.CREF_UNDEF);
+        assertEquals(2, clauseSet.getStatistics().getReductions());
+    }
+
+    /**
+     * Reductions every few conflicts compact the arena during the search, the relocated reasons
+     * and watchers must still give the results of a solver without reductions
+     */
+    @Test
+    public void testGarbageCollectionDuringSearch() {
+        Random random = new Random(11);
+        long collections = 0;
+        for (int round = 0; round < 20; round++) {
+            int varNum = 100;
+            List<int[]> clauses = CDCLTest.randomClauses(random, varNum, 430);
+            ClauseSet clauseSet = CDCLTest.clauseSet(varNum, clauses);
+            CDCL cdcl = new CDCL(clauseSet);
+            cdcl.setMaxIterations(Integer.MAX_VALUE);
+            cdcl.getClauseDatabase().setReduceInterval(10, 1);
+            boolean sat = cdcl.solve();
+            assertEquals(CDCLTest.solveDefault(varNum, clauses), cdcl.getResult());
+            if (sat) {
+                CDCLTest.assertModel(clauseSet, clauses);
+            }
+            collections += clauseSet.getStatistics().getGarbageCollections();
+        }
+        assertTrue(collections > 10);
+    }
+
+    private static IntVec encode(int[] dimacs) {
+        IntVec literals = new IntVec();
+        for (int literal : dimacs) {
+            literals.push(Literal.fromDimacs(literal));
+        }
+        return literals;
+    }
+
+    private static int find(ClauseSet clauseSet, int[] dimacs) {
+        return clauseSet.findLearnedClause(encode(dimacs));
+    }
+}
@@ -0,0 +1,67 @@
+package dataStructure;
+
+/**
+ * Helper functions for the internal literal encoding.
+ * A literal of variable v is encoded as 2*v for the positive and 2*v+1 for the negative phase,
+ * so the negation of a literal is a single xor and literals can index arrays directly.
+ */
+public final class Literal {
+
+    private Literal() {
+    }
+
+    /**
+     * Converts a DIMACS literal (e.g. -5) into the internal encoding.
+     *
+     * @param dimacs DIMACS literal, must not be 0
+     * @return encoded literal
+     */
+    public static int fromDimacs(int dimacs) {
+        return dimacs > 0 ? dimacs << 1 : ((-dimacs) << 1) | 1;
+    }
+
+    /**
+     * Converts an encoded literal back into DIMACS notation.
+     *
+     * @param literal encoded literal
+     * @return DIMACS literal
+     */
+    public static int toDimacs(int literal) {
+        return (literal & 1) == 0 ? literal >> 1 : -(literal >> 1);
+    }
+
+    /**
+     * Creates the literal of the given variable.
+     *
+     * @param var      variable ID (>= 1)
+     * @param negative true for the negative phase
+     * @return encoded literal
+     */
+    public static int of(int var, boolean negative) {
+        return (var << 1) | (negative ? 1 : 0);
+    }
+
+    /**
+     * @param literal encoded literal
+     * @return variable ID of the literal
+     */
+    public static int var(int literal) {
+        return literal >> 1;
+    }
+
+    /**
+     * @param literal encoded literal
+     * @return the negated literal
+     */
+    public static int negate(int literal) {
+        return literal ^ 1;
+    }
+
+    /**
+     * @param literal encoded literal
+     * @return true if the literal is the negative phase of its variable
+     */
+    public static boolean isNegative(int literal) {
+        return (literal & 1) != 0;
+    }
+}
@@ -0,0 +1,62 @@
+package dataStructure;
+
+/**
+ * Restarts after unit * luby(i) conflicts, where luby is the sequence 1 1 2 1 1 2 4 1 1 2 ...
+ */
+public class LubyRestartPolicy implements RestartPolicy {
+    /* Conflicts of the shortest run */
+    private final int unit;
+
+    /* Index in the Luby sequence */
+    private int index = 0;
+
+    private long conflicts = 0;
+    private long limit;
+
+    /**
+     * @param unit number of conflicts of the shortest run
+     */
+    public LubyRestartPolicy(int unit) {
+        this.unit = unit;
+        this.limit = unit * luby(0);
+    }
+
+    /**
+     * Returns the i-th element (starting at 0) of the Luby sequence.
+     *
+     * @param i index
+     * @return element of the sequence
+     */
+    static long luby(int i) {
+        //find the finite subsequence that contains index i, and its size
+        int size = 1;
+        int seq = 0;
+        while (size < i + 1) {
+            seq++;
+            size = 2 * size + 1;
+        }
+        while (size - 1 != i) {
+            size = (size - 1) >> 1;
+            seq--;
+            i = i % size;
+        }
+        return 1L << seq;
+    }
+
+    @Override
+    public void onConflict(int lbd, int trailSize) {
+        conflicts++;
+    }
+
+    @Override
+    public boolean shouldRestart() {
+        return conflicts >= limit;
+    }
+
+    @Override
+    public void onRestart() {
+        conflicts = 0;
+        index++;
+        limit = unit * luby(index);
+    }
+}
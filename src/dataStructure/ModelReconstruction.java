@@ -0,0 +1,148 @@
+package dataStructure;
+
+import dimacs.parser.DIMACSFormula;
+
+/**
+ * Extends a model of a simplified formula to the variables that were removed from it.
+ * Removed clauses are saved on a stack together with the literal of the removed variable (pivot).
+ * Open variables that are still in the formula are set to false first. Then the stack is processed
+ * backwards: if a saved clause is not satisfied by its other literals, its pivot is made true.
+ * A removed variable that is not forced by any of its clauses is set to false.
+ * The formula before simplification is only kept on request, so the extended model can be verified against it.
+ */
+public class ModelReconstruction {
+    /* Saved clauses, each stored as pivot, other literals, size */
+    private final IntVec stack = new IntVec();
+
+    /* Formula before simplification, null if models are not verified against it */
+    private DIMACSFormula original;
+
+    /* Variables of the formula before simplification */
+    private final boolean[] occurred;
+
+    /* Variables of the saved pivots, computed on first use */
+    private boolean[] removed;
+
+    /**
+     * @param varNum highest variable ID of the formula before simplification
+     */
+    ModelReconstruction(int varNum) {
+        occurred = new boolean[varNum + 1];
+    }
+
+    /**
+     * Keeps the formula before simplification for {@link #satisfiesOriginal}.
+     *
+     * @param original formula before simplification, it is only read
+     */
+    void setOriginal(DIMACSFormula original) {
+        this.original = original;
+    }
+
+    void setOccurred(int var) {
+        occurred[var] = true;
+    }
+
+    /**
+     * Saves a clause that is removed together with the variable of the pivot.
+     *
+     * @param pivot  literal of the removed variable in the clause
+     * @param clause encoded literals, containing the pivot
+     */
+    void push(int pivot, int[] clause) {
+        stack.push(pivot);
+        for (int literal : clause) {
+            if (literal != pivot) {
+                stack.push(literal);
+            }
+        }
+        stack.push(clause.length);
+    }
+
+    /**
+     * @return true if no clause was saved
+     */
+    public boolean isEmpty() {
+        return stack.isEmpty();
+    }
+
+    /**
+     * Returns true if the variable was removed from the formula, it must not be used in new clauses
+     * or assumptions then.
+     *
+     * @param var variable ID
+     * @return true for removed variables
+     */
+    boolean isRemoved(int var) {
+        if (removed == null) {
+            removed = new boolean[occurred.length];
+            for (int i = stack.size() - 1; i >= 0; i -= stack.get(i) + 1) {
+                removed[Literal.var(stack.get(i - stack.get(i)))] = true;
+            }
+        }
+        return var < removed.length && removed[var];
+    }
+
+    /**
+     * Assigns the removed variables on the trail of the clause set, at the current level.
+     *
+     * @param set clause set with a complete model of the simplified formula
+     */
+    void extend(ClauseSet set) {
+        VariableTable table = set.getVariableTable();
+        //the remaining variables need values before the removed ones are computed
+        for (int var = 1; var < occurred.length; var++) {
+            if (occurred[var] && !isRemoved(var) && table.value(var) == VariableTable.OPEN) {
+                assign(set, Literal.of(var, true));
+            }
+        }
+        int i = stack.size() - 1;
+        while (i >= 0) {
+            int size = stack.get(i);
+            int start = i - size;
+            int pivot = stack.get(start);
+            boolean satisfied = table.literalValue(pivot) == VariableTable.TRUE;
+            for (int k = start + 1; !satisfied && k < i; k++) {
+                satisfied = table.literalValue(stack.get(k)) == VariableTable.TRUE;
+            }
+            if (!satisfied) {
+                assign(set, pivot);
+            }
+            i = start - 1;
+            //the clauses of a variable are saved together, it needs a value before the next variable is done
+            boolean last = i < 0 || Literal.var(stack.get(i - stack.get(i))) != Literal.var(pivot);
+            if (last && table.value(Literal.var(pivot)) == VariableTable.OPEN) {
+                assign(set, Literal.negate(pivot));
+            }
+        }
+    }
+
+    /**
+     * Checks the assignment against every clause of the formula before simplification.
+     *
+     * @param table variables with the extended model
+     * @return true if every original clause has a true literal or the formula was not kept
+     */
+    boolean satisfiesOriginal(VariableTable table) {
+        if (original == null) {
+            return true;
+        }
+        int[] literals = original.getLiterals();
+        for (int c = 0; c < original.getClauseCount(); c++) {
+            boolean satisfied = false;
+            int start = original.getClauseStart(c);
+            for (int k = start; !satisfied && k < start + original.getClauseSize(c); k++) {
+                satisfied = table.literalValue(Literal.fromDimacs(literals[k])) == VariableTable.TRUE;
+            }
+            if (!satisfied) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static void assign(ClauseSet set, int literal) {
+        set.getVariableTable().getOrCreate(Literal.var(literal));
+        set.enqueue(literal, ClauseArena.CREF_UNDEF);
+    }
+}
@@ -0,0 +1,20 @@
+package dataStructure;
+
+/**
+ * Never restarts.
+ */
+public class NoRestartPolicy implements RestartPolicy {
+
+    @Override
+    public void onConflict(int lbd, int trailSize) {
+    }
+
+    @Override
+    public boolean shouldRestart() {
+        return false;
+    }
+
+    @Override
+    public void onRestart() {
+    }
+}
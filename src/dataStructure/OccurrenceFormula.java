@@ -0,0 +1,280 @@
+package dataStructure;
+
+import dimacs.parser.DIMACSFormula;
+
+import java.util.Arrays;
+
+/**
+ * Mutable formula with occurrence lists, used by the {@link Preprocessor}.
+ * Clauses are sorted arrays of encoded literals, addressed by their index; removed clauses are null.
+ * Every literal has the list of the clauses it occurs in. Units are not stored as clauses but as
+ * assignments, which are propagated through the formula with {@link #propagateUnits()}.
+ */
+class OccurrenceFormula {
+    final int varNum;
+
+    /* Clauses by index, null if removed */
+    private int[][] clauses;
+    private long[] signatures;
+    private int slots = 0;
+    private int liveClauses = 0;
+
+    /* Indices of the clauses of every literal */
+    private final IntVec[] occurrences;
+
+    /* Values from units, VariableTable.TRUE, FALSE or OPEN */
+    private final byte[] values;
+    private final IntVec units = new IntVec();
+    private int unitHead = 0;
+
+    /* Variables of the input formula */
+    private final boolean[] occurred;
+
+    /* False if the formula is known to be unsatisfiable */
+    private boolean ok = true;
+
+    /* Called when a clause is added or shortened */
+    private Listener listener;
+
+    interface Listener {
+        void touched(int clause);
+    }
+
+    /**
+     * Creates the formula of a parsed DIMACS file, without duplicate literals and tautologies.
+     *
+     * @param formula parsed formula
+     */
+    OccurrenceFormula(DIMACSFormula formula) {
+        varNum = formula.getVarNum();
+        clauses = new int[Math.max(formula.getClauseCount(), 16)][];
+        signatures = new long[clauses.length];
+        occurrences = new IntVec[2 * (varNum + 1)];
+        for (int i = 0; i < occurrences.length; i++) {
+            occurrences[i] = new IntVec(2);
+        }
+        values = new byte[varNum + 1];
+        occurred = new boolean[varNum + 1];
+        int[] literals = formula.getLiterals();
+        IntVec clause = new IntVec();
+        for (int c = 0; c < formula.getClauseCount(); c++) {
+            clause.clear();
+            int start = formula.getClauseStart(c);
+            for (int k = start; k < start + formula.getClauseSize(c); k++) {
+                clause.push(Literal.fromDimacs(literals[k]));
+                occurred[Math.abs(literals[k])] = true;
+            }
+            addClause(clause);
+        }
+    }
+
+    void setListener(Listener listener) {
+        this.listener = listener;
+    }
+
+    /**
+     * Adds a clause. Duplicate literals, tautologies and assigned literals are handled here.
+     *
+     * @param literals encoded literals, sorted in place
+     * @return index of the new clause or -1 if no clause was stored
+     */
+    int addClause(IntVec literals) {
+        int[] data = literals.getData();
+        Arrays.sort(data, 0, literals.size());
+        int size = 0;
+        for (int i = 0; i < literals.size(); i++) {
+            int literal = data[i];
+            byte value = value(literal);
+            if (value == VariableTable.TRUE || (size > 0 && data[size - 1] == Literal.negate(literal))) {
+                return -1;
+            }
+            if (value == VariableTable.OPEN && (size == 0 || data[size - 1] != literal)) {
+                data[size++] = literal;
+            }
+        }
+        if (size == 0) {
+            ok = false;
+            return -1;
+        }
+        if (size == 1) {
+            assign(data[0]);
+            return -1;
+        }
+        if (slots == clauses.length) {
+            clauses = Arrays.copyOf(clauses, 2 * slots);
+            signatures = Arrays.copyOf(signatures, 2 * slots);
+        }
+        int index = slots++;
+        clauses[index] = Arrays.copyOf(data, size);
+        signatures[index] = signature(clauses[index]);
+        for (int k = 0; k < size; k++) {
+            occurrences[data[k]].push(index);
+        }
+        liveClauses++;
+        if (listener != null) {
+            listener.touched(index);
+        }
+        return index;
+    }
+
+    static long signature(int[] clause) {
+        long signature = 0;
+        for (int literal : clause) {
+            signature |= 1L << (Literal.var(literal) & 63);
+        }
+        return signature;
+    }
+
+    /**
+     * Removes a clause and its occurrences.
+     *
+     * @param index clause index
+     */
+    void removeClause(int index) {
+        int[] clause = clauses[index];
+        for (int literal : clause) {
+            removeOccurrence(literal, index);
+        }
+        clauses[index] = null;
+        liveClauses--;
+    }
+
+    private void removeOccurrence(int literal, int index) {
+        IntVec list = occurrences[literal];
+        int[] data = list.getData();
+        for (int i = 0; i < list.size(); i++) {
+            if (data[i] == index) {
+                data[i] = data[list.size() - 1];
+                list.shrink(list.size() - 1);
+                return;
+            }
+        }
+    }
+
+    /**
+     * Removes a literal from a clause. A clause that becomes unit is turned into an assignment.
+     *
+     * @param index   clause index
+     * @param literal literal to remove
+     */
+    void strengthen(int index, int literal) {
+        int[] clause = clauses[index];
+        int[] shorter = new int[clause.length - 1];
+        int j = 0;
+        for (int other : clause) {
+            if (other != literal) {
+                shorter[j++] = other;
+            }
+        }
+        removeOccurrence(literal, index);
+        if (shorter.length == 1) {
+            removeClause(index);
+            assign(shorter[0]);
+            return;
+        }
+        clauses[index] = shorter;
+        signatures[index] = signature(shorter);
+        if (listener != null) {
+            listener.touched(index);
+        }
+    }
+
+    /**
+     * Makes a literal true. The formula is updated by {@link #propagateUnits()}.
+     *
+     * @param literal encoded literal
+     */
+    void assign(int literal) {
+        byte value = value(literal);
+        if (value == VariableTable.FALSE) {
+            ok = false;
+        } else if (value == VariableTable.OPEN) {
+            values[Literal.var(literal)] = Literal.isNegative(literal) ? VariableTable.FALSE : VariableTable.TRUE;
+            units.push(literal);
+        }
+    }
+
+    /**
+     * Removes the clauses satisfied by the assignments and the false literals from the others.
+     *
+     * @return false if the formula became unsatisfiable
+     */
+    boolean propagateUnits() {
+        while (ok && unitHead < units.size()) {
+            int literal = units.get(unitHead++);
+            IntVec satisfied = occurrences[literal];
+            while (satisfied.size() > 0) {
+                removeClause(satisfied.last());
+            }
+            IntVec falsified = occurrences[Literal.negate(literal)];
+            while (ok && falsified.size() > 0) {
+                strengthen(falsified.last(), Literal.negate(literal));
+            }
+        }
+        return ok;
+    }
+
+    byte value(int literal) {
+        byte value = values[Literal.var(literal)];
+        return Literal.isNegative(literal) ? (byte) -value : value;
+    }
+
+    int[] getClause(int index) {
+        return clauses[index];
+    }
+
+    long getSignature(int index) {
+        return signatures[index];
+    }
+
+    /**
+     * @return number of clause indices in use, including removed ones
+     */
+    int getSlots() {
+        return slots;
+    }
+
+    int getLiveClauses() {
+        return liveClauses;
+    }
+
+    IntVec getOccurrences(int literal) {
+        return occurrences[literal];
+    }
+
+    boolean occurred(int var) {
+        return occurred[var];
+    }
+
+    boolean isOk() {
+        return ok;
+    }
+
+    /**
+     * Builds a clause set of the remaining clauses, assignments become unit clauses.
+     *
+     * @return the clause set
+     */
+    ClauseSet toClauseSet() {
+        IntVec literals = new IntVec();
+        IntVec starts = new IntVec();
+        starts.push(0);
+        if (!ok) {
+            //the empty clause
+            starts.push(0);
+        }
+        for (int i = 0; ok && i < units.size(); i++) {
+            literals.push(units.get(i));
+            starts.push(literals.size());
+        }
+        for (int index = 0; ok && index < slots; index++) {
+            if (clauses[index] != null) {
+                for (int literal : clauses[index]) {
+                    literals.push(literal);
+                }
+                starts.push(literals.size());
+            }
+        }
+        return new ClauseSet(varNum, literals.getData(), starts.getData(), starts.size() - 1, false);
+    }
+}
@@ -0,0 +1,158 @@
+package dataStructure;
+
+import java.util.Arrays;
+
+/**
+ * Chooses the value of decision variables.
+ * FIXED always uses the default value. SAVED reuses the last value of a variable before it was
+ * unassigned (phase saving). TARGET prefers the values of the longest conflict free trail since the
+ * last rephase and falls back to the saved values.
+ * With rephasing enabled, the saved values are periodically reset to the best trail seen so far,
+ * the default values or their inversion.
+ */
+public class PhaseSelector {
+
+    public enum PhaseMode {
+        FIXED, SAVED, TARGET
+    }
+
+    /* Kinds of rephasing, applied in this order */
+    private enum Rephase {
+        BEST, ORIGINAL, BEST2, INVERTED
+    }
+
+    private static final int REPHASE_INTERVAL = 1000;
+
+    private PhaseMode mode = PhaseMode.SAVED;
+    private boolean rephasing = false;
+    private boolean defaultPhase = false;
+
+    /* Phases per variable, VariableTable.OPEN if unknown */
+    private final byte[] saved;
+    private final byte[] target;
+    private final byte[] best;
+
+    /* Trail sizes the target and best phases were taken from */
+    private int targetSize = 0;
+    private int bestSize = 0;
+
+    private long conflicts = 0;
+    private long nextRephase = REPHASE_INTERVAL;
+    private int rephaseCount = 0;
+
+    /**
+     * Creates a selector for the variables 1 to varNum.
+     *
+     * @param varNum highest variable ID
+     */
+    public PhaseSelector(int varNum) {
+        saved = new byte[varNum + 1];
+        target = new byte[varNum + 1];
+        best = new byte[varNum + 1];
+    }
+
+    /**
+     * Returns the value of the next decision on the variable.
+     *
+     * @param var variable ID
+     * @return value to be assigned
+     */
+    public boolean pickPhase(int var) {
+        if (mode == PhaseMode.TARGET && target[var] != VariableTable.OPEN) {
+            return target[var] == VariableTable.TRUE;
+        }
+        if (mode != PhaseMode.FIXED && saved[var] != VariableTable.OPEN) {
+            return saved[var] == VariableTable.TRUE;
+        }
+        return defaultPhase;
+    }
+
+    /**
+     * Remembers the value of a variable that gets unassigned.
+     *
+     * @param var   variable ID
+     * @param value TRUE or FALSE
+     */
+    void save(int var, byte value) {
+        saved[var] = value;
+    }
+
+    /**
+     * Updates target and best phases on a conflict and rephases if it is due.
+     * The trail below the conflict level is free of conflicts.
+     *
+     * @param table          current assignment
+     * @param trail          the trail
+     * @param consistentSize number of trail literals below the conflict level
+     * @return true if a rephase took place
+     */
+    boolean onConflict(VariableTable table, int[] trail, int consistentSize) {
+        if (mode == PhaseMode.TARGET && consistentSize > targetSize) {
+            targetSize = consistentSize;
+            copyTrail(table, trail, consistentSize, target);
+        }
+        if (rephasing && consistentSize > bestSize) {
+            bestSize = consistentSize;
+            copyTrail(table, trail, consistentSize, best);
+        }
+        conflicts++;
+        if (rephasing && conflicts >= nextRephase) {
+            rephase();
+            rephaseCount++;
+            nextRephase = conflicts + (long) REPHASE_INTERVAL * (rephaseCount + 1);
+            return true;
+        }
+        return false;
+    }
+
+    private static void copyTrail(VariableTable table, int[] trail, int size, byte[] phases) {
+        for (int i = 0; i < size; i++) {
+            int var = Literal.var(trail[i]);
+            phases[var] = table.value(var);
+        }
+    }
+
+    private void rephase() {
+        Rephase kind = Rephase.values()[rephaseCount % Rephase.values().length];
+        switch (kind) {
+            case BEST:
+            case BEST2:
+                for (int var = 1; var < saved.length; var++) {
+                    if (best[var] != VariableTable.OPEN) {
+                        saved[var] = best[var];
+                    }
+                }
+                bestSize = 0;
+                break;
+            case ORIGINAL:
+                Arrays.fill(saved, defaultPhase ? VariableTable.TRUE : VariableTable.FALSE);
+                break;
+            default:
+                Arrays.fill(saved, defaultPhase ? VariableTable.FALSE : VariableTable.TRUE);
+                break;
+        }
+        //target phases follow the new saved phases
+        Arrays.fill(target, VariableTable.OPEN);
+        targetSize = 0;
+    }
+
+    public void setMode(PhaseMode mode) {
+        this.mode = mode;
+    }
+
+    public PhaseMode getMode() {
+        return mode;
+    }
+
+    public void setRephasing(boolean rephasing) {
+        this.rephasing = rephasing;
+    }
+
+    public void setDefaultPhase(boolean defaultPhase) {
+        this.defaultPhase = defaultPhase;
+    }
+
+    public boolean getDefaultPhase() {
+        return defaultPhase;
+    }
+}
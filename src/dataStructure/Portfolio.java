@@ -0,0 +1,199 @@
+package dataStructure;
+
+import dimacs.parser.DIMACSFormula;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Solves one formula with several differently configured {@link CDCL} solvers in parallel.
+ * Every worker builds its own {@link ClauseSet} from the shared formula, which is only read, because
+ * propagation reorders the literals of the clauses in place.
+ * The workers differ in branching heuristic, restart policy, default value of decisions and the seed of
+ * random decisions. The first worker that finds a result interrupts all others.
+ * Short learned clauses with a small LBD are shared between the workers through a {@link ClauseExchange}.
+ */
+public class Portfolio {
+    /* Configurations of the workers, worker i uses entry i modulo the length */
+    private static final HeuristicType[] HEURISTICS = {
+            HeuristicType.EVSIDS, HeuristicType.LRB, HeuristicType.CHB, HeuristicType.VSIDS};
+    private static final RestartStrategy[] RESTARTS = {
+            RestartStrategy.LUBY, RestartStrategy.GLUCOSE, RestartStrategy.GEOMETRIC};
+
+    private final CDCL[] workers;
+
+    /* Learned clauses shared between the workers */
+    private final ClauseExchange exchange;
+
+    /* Configuration of every worker for the output */
+    private final String[] descriptions;
+
+    /* Index of the first worker with a result, -1 while searching */
+    private final AtomicInteger winner = new AtomicInteger(-1);
+
+    /**
+     * Builds the clause sets of all workers and configures them.
+     * Worker 0 uses the configuration of a single solver, the others are diversified.
+     * The workers have no iteration limit, they stop when one of them has a result.
+     *
+     * @param formula     parsed DIMACS formula
+     * @param workerCount number of parallel solvers, at least 1
+     */
+    public Portfolio(DIMACSFormula formula, int workerCount) {
+        if (workerCount < 1) {
+            throw new IllegalArgumentException("Portfolio needs at least one worker");
+        }
+        workers = new CDCL[workerCount];
+        exchange = new ClauseExchange(workerCount);
+        descriptions = new String[workerCount];
+        for (int i = 0; i < workerCount; i++) {
+            CDCL cdcl = new CDCL(new ClauseSet(formula));
+            HeuristicType heuristic = HEURISTICS[i % HEURISTICS.length];
+            RestartStrategy restarts = RESTARTS[i % RESTARTS.length];
+            boolean defaultValue = (i / HEURISTICS.length) % 2 == 1;
+            cdcl.setBranchingHeuristic(heuristic);
+            cdcl.setRestartPolicy(restarts);
+            cdcl.setDEFAULT_ASSING(defaultValue);
+            cdcl.setMaxIterations(Integer.MAX_VALUE);
+            cdcl.setQuiet(true);
+            cdcl.setClauseExchange(exchange, i);
+            descriptions[i] = heuristic + ", " + restarts + " restarts, default value " + defaultValue;
+            if (i > 0) {
+                cdcl.setRandomSeed(i);
+                descriptions[i] += ", seed " + i;
+            }
+            workers[i] = cdcl;
+        }
+    }
+
+    /**
+     * Runs all workers, each on its own thread, until the first one finds a result.
+     * The result is printed like the result of a single solver, the workers print nothing.
+     *
+     * @return result of the first worker, UNKNOWN if no worker found one
+     */
+    public CDCL.Result solve() {
+        Thread[] threads = new Thread[workers.length];
+        Worker[] runs = new Worker[workers.length];
+        for (int i = 0; i < workers.length; i++) {
+            runs[i] = new Worker(i);
+            threads[i] = new Thread(runs[i], "portfolio-worker-" + i);
+            threads[i].start();
+        }
+        for (Thread thread : threads) {
+            try {
+                thread.join();
+            } catch (InterruptedException e) {
+                cancel();
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("Interrupted while solving", e);
+            }
+        }
+        for (Worker run : runs) {
+            if (run.error != null) {
+                throw run.error;
+            }
+        }
+        CDCL first = getWinner();
+        if (first == null) {
+            System.out.println("Search cancelled: UNKNOWN");
+            return CDCL.Result.UNKNOWN;
+        }
+        if (first.getResult() == CDCL.Result.SAT) {
+            System.out.println(CDCL.MODEL_FOUND);
+            first.printResultStack();
+        } else {
+            System.out.println(CDCL.EMPTY_CLAUSE_UNSAT);
+        }
+        return first.getResult();
+    }
+
+    /**
+     * Interrupts all workers.
+     */
+    public void cancel() {
+        for (CDCL worker : workers) {
+            worker.interrupt();
+        }
+    }
+
+    /**
+     * Enables the sharing of learned clauses between the workers, it is enabled by default.
+     *
+     * @param sharing false to let the workers search independently
+     */
+    public void setSharing(boolean sharing) {
+        for (int i = 0; i < workers.length; i++) {
+            workers[i].setClauseExchange(sharing ? exchange : null, i);
+        }
+    }
+
+    /**
+     * Returns the exchange of learned clauses, to tune its limits before solve is called.
+     *
+     * @return the exchange
+     */
+    public ClauseExchange getClauseExchange() {
+        return exchange;
+    }
+
+    /**
+     * Returns a worker, to change its configuration before solve is called.
+     *
+     * @param index worker index
+     * @return the solver of the worker
+     */
+    public CDCL getWorker(int index) {
+        return workers[index];
+    }
+
+    public int getWorkerCount() {
+        return workers.length;
+    }
+
+    /**
+     * Returns the first worker with a result. Its clause set holds the model if the result is SAT.
+     *
+     * @return the solver of the worker or null
+     */
+    public CDCL getWinner() {
+        int index = winner.get();
+        return index < 0 ? null : workers[index];
+    }
+
+    @Override
+    public String toString() {
+        int index = winner.get();
+        if (index < 0) {
+            return "Portfolio of " + workers.length + " workers: no result";
+        }
+        return "Portfolio of " + workers.length + " workers: " + workers[index].getResult() + " by worker "
+                + index + " (" + descriptions[index] + ")\n" + workers[index].getStatistics()
+                + "\nShared clauses lost by overrun: " + exchange.getOverruns(index);
+    }
+
+    /**
+     * Search of one worker.
+     */
+    private class Worker implements Runnable {
+        private final int index;
+        RuntimeException error;
+
+        Worker(int index) {
+            this.index = index;
+        }
+
+        @Override
+        public void run() {
+            try {
+                workers[index].solve();
+            } catch (RuntimeException e) {
+                error = e;
+                cancel();
+                return;
+            }
+            if (workers[index].getResult() != CDCL.Result.UNKNOWN && winner.compareAndSet(-1, index)) {
+                cancel();
+            }
+        }
+    }
+}
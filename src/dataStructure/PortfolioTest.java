@@ -0,0 +1,79 @@
+package dataStructure;
+
+import dimacs.parser.DIMACSStreamParser;
+import org.junit.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+public class PortfolioTest {
+
+    /**
+     * Workers that share clauses find the results of the sequential solver, only the portfolio prints one
+     */
+    @Test
+    public void testResultsWithSharing() throws Exception {
+        Random random = new Random(17);
+        int varNum = 120;
+        long exported = 0;
+        long imported = 0;
+        boolean[] seen = new boolean[2];
+        for (int i = 0; i < 8; i++) {
+            List<int[]> clauses = CDCLTest.randomClauses(random, varNum, 511);
+            Portfolio portfolio = new Portfolio(CDCLTest.formula(varNum, clauses), 3);
+            String output = captureOutput(portfolio);
+            CDCL.Result result = portfolio.getWinner().getResult();
+            assertEquals(CDCLTest.solveDefault(varNum, clauses), result);
+            if (result == CDCL.Result.SAT) {
+                CDCLTest.assertModel(portfolio.getWinner().getInstance(), clauses);
+                assertEquals(output, 1, count(output, CDCL.MODEL_FOUND));
+                seen[0] = true;
+            } else {
+                assertEquals(output, 1, count(output, CDCL.EMPTY_CLAUSE_UNSAT));
+                seen[1] = true;
+            }
+            for (int w = 0; w < portfolio.getWorkerCount(); w++) {
+                exported += portfolio.getWorker(w).getStatistics().getExportedClauses();
+                imported += portfolio.getWorker(w).getStatistics().getImportedClauses();
+            }
+        }
+        assertTrue(seen[0] && seen[1]);
+        assertTrue(exported > 0 && imported > 0);
+    }
+
+    @Test
+    public void testAim() throws Exception {
+        Portfolio sat = new Portfolio(new DIMACSStreamParser().parse("small_aim/yes/aim-50-1_6-yes1-1.cnf"), 2);
+        assertEquals(CDCL.Result.SAT, sat.solve());
+        Portfolio unsat = new Portfolio(new DIMACSStreamParser().parse("small_aim/no/aim-50-1_6-no-1.cnf"), 2);
+        assertEquals(CDCL.Result.UNSAT, unsat.solve());
+    }
+
+    /**
+     * Solves and returns what was printed meanwhile
+     */
+    private static String captureOutput(Portfolio portfolio) throws IOException {
+        PrintStream out = System.out;
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        System.setOut(new PrintStream(bytes, true, "UTF-8"));
+        try {
+            portfolio.solve();
+        } finally {
+            System.setOut(out);
+        }
+        return bytes.toString("UTF-8");
+    }
+
+    private static int count(String text, String part) {
+        int count = 0;
+        for (int i = text.indexOf(part); i >= 0; i = text.indexOf(part, i + 1)) {
+            count++;
+        }
+        return count;
+    }
+}
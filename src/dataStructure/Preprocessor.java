@@ -0,0 +1,446 @@
+package dataStructure;
+
+import dimacs.parser.DIMACSFormula;
+
+import java.util.Arrays;
+
+/**
+ * Simplifies a formula before it is loaded into a {@link ClauseSet}, in the style of SatELite.
+ * Runs unit propagation, failed literal probing and equivalent literal substitution on the binary
+ * clauses (see {@link EquivalenceProber}), backward subsumption with self-subsuming strengthening and bounded
+ * variable elimination: a variable is replaced by all resolvents of its clauses if that does not add
+ * more than the allowed number of clauses and no resolvent is too long. The removed clauses are saved,
+ * so models of the simplified formula can be extended by the solver (see {@link ModelReconstruction}).
+ * The work is limited by a budget of ticks, roughly the number of literals visited.
+ *
+ * <pre>
+ * Preprocessor preprocessor = new Preprocessor(new DIMACSParser(path).parse());
+ * CDCL cdcl = new CDCL(preprocessor.preprocess());
+ * </pre>
+ */
+public class Preprocessor {
+    private final OccurrenceFormula formula;
+    private final ModelReconstruction reconstruction;
+
+    private boolean probing = true;
+    private boolean equivalences = true;
+    private boolean subsumption = true;
+    private boolean variableElimination = true;
+
+    /* Formula before preprocessing, kept for the model reconstruction if models are verified */
+    private DIMACSFormula parsed;
+    private boolean verifyModel = false;
+
+    /* Allowed growth of the clause count per eliminated variable */
+    private int resolventGrowth = 0;
+
+    /* Longest resolvent that may be added */
+    private int resolventLengthLimit = 20;
+
+    /* Variables with more occurrences are not eliminated */
+    private int occurrenceLimit = 64;
+
+    /* Work budget in ticks */
+    private long effortLimit = 200000000L;
+    private long ticks = 0;
+
+    /* Variables that must not be eliminated */
+    private final boolean[] frozen;
+    private final boolean[] eliminated;
+
+    /* Clauses to check for subsumption */
+    private final IntVec queue = new IntVec();
+    private boolean[] queued = new boolean[16];
+
+    /* Counters */
+    private int originalClauses;
+    private int fixedVariables = 0;
+    private int mergedVariables = 0;
+    private int eliminatedVariables = 0;
+    private int subsumedClauses = 0;
+    private int strengthenedClauses = 0;
+
+    /**
+     * @param parsed parsed DIMACS formula
+     */
+    public Preprocessor(DIMACSFormula parsed) {
+        formula = new OccurrenceFormula(parsed);
+        originalClauses = parsed.getClauseCount();
+        this.parsed = parsed;
+        reconstruction = new ModelReconstruction(parsed.getVarNum());
+        for (int var = 1; var <= formula.varNum; var++) {
+            if (formula.occurred(var)) {
+                reconstruction.setOccurred(var);
+            }
+        }
+        frozen = new boolean[formula.varNum + 1];
+        eliminated = new boolean[formula.varNum + 1];
+        formula.setListener(new OccurrenceFormula.Listener() {
+            @Override
+            public void touched(int clause) {
+                enqueue(clause);
+            }
+        });
+    }
+
+    /**
+     * Runs the enabled techniques and loads the result.
+     *
+     * @return clause set of the simplified formula, with the model reconstruction attached
+     */
+    public ClauseSet preprocess() {
+        formula.propagateUnits();
+        if ((probing || equivalences) && formula.isOk()) {
+            EquivalenceProber prober = new EquivalenceProber(formula, reconstruction, frozen);
+            prober.simplify(probing, equivalences, effortLimit);
+            ticks += prober.getTicks();
+            fixedVariables = prober.getFixedVariables();
+            mergedVariables = prober.getMergedVariables();
+        }
+        for (int index = 0; index < formula.getSlots(); index++) {
+            if (formula.getClause(index) != null) {
+                enqueue(index);
+            }
+        }
+        if (subsumption) {
+            subsumeQueue();
+        } else {
+            queue.clear();
+        }
+        if (variableElimination) {
+            eliminateVariables();
+        }
+        if (verifyModel) {
+            reconstruction.setOriginal(parsed);
+        }
+        parsed = null;
+        ClauseSet set = formula.toClauseSet();
+        set.setModelReconstruction(reconstruction);
+        Statistics statistics = set.getStatistics();
+        statistics.fixedVariables += fixedVariables;
+        statistics.mergedVariables += mergedVariables;
+        statistics.eliminatedVariables += eliminatedVariables;
+        statistics.subsumedClauses += subsumedClauses;
+        statistics.strengthenedClauses += strengthenedClauses;
+        return set;
+    }
+
+    private void enqueue(int clause) {
+        if (clause >= queued.length) {
+            queued = Arrays.copyOf(queued, Math.max(clause + 1, 2 * queued.length));
+        }
+        if (!queued[clause]) {
+            queued[clause] = true;
+            queue.push(clause);
+        }
+    }
+
+    /**
+     * Uses every queued clause for backward subsumption and strengthening.
+     */
+    private void subsumeQueue() {
+        while (!queue.isEmpty() && formula.isOk()) {
+            int index = queue.pop();
+            queued[index] = false;
+            if (ticks > effortLimit) {
+                continue;
+            }
+            if (formula.getClause(index) != null) {
+                backwardSubsume(index);
+            }
+            formula.propagateUnits();
+        }
+    }
+
+    /**
+     * Removes all clauses subsumed by the given clause and strengthens the clauses it
+     * subsumes with one literal flipped.
+     *
+     * @param index clause index
+     */
+    private void backwardSubsume(int index) {
+        int[] clause = formula.getClause(index);
+        long signature = formula.getSignature(index);
+        //the variable with the fewest occurrences
+        int best = clause[0];
+        for (int literal : clause) {
+            if (occurrenceCount(literal) < occurrenceCount(best)) {
+                best = literal;
+            }
+        }
+        for (int sign = 0; sign < 2; sign++) {
+            int literal = sign == 0 ? best : Literal.negate(best);
+            int[] candidates = formula.getOccurrences(literal).toArray();
+            for (int other : candidates) {
+                int[] otherClause = formula.getClause(other);
+                if (other == index || otherClause == null || otherClause.length < clause.length
+                        || (signature & ~formula.getSignature(other)) != 0) {
+                    continue;
+                }
+                int result = subsumes(clause, otherClause);
+                if (result == SUBSUMES) {
+                    formula.removeClause(other);
+                    subsumedClauses++;
+                } else if (result != NONE) {
+                    formula.strengthen(other, Literal.negate(result));
+                    strengthenedClauses++;
+                    if (formula.getClause(index) == null) {
+                        return;
+                    }
+                }
+            }
+        }
+    }
+
+    private static final int NONE = -1;
+    private static final int SUBSUMES = -2;
+
+    /**
+     * Checks if clause subsumes other, or would subsume it with one literal flipped.
+     * Both clauses are sorted.
+     *
+     * @return SUBSUMES, NONE or the literal of clause that occurs negated in other
+     */
+    private int subsumes(int[] clause, int[] other) {
+        int flipped = SUBSUMES;
+        int j = 0;
+        for (int literal : clause) {
+            int var = Literal.var(literal);
+            while (j < other.length && Literal.var(other[j]) < var) {
+                j++;
+            }
+            ticks++;
+            if (j == other.length || Literal.var(other[j]) != var) {
+                return NONE;
+            }
+            if (other[j] != literal) {
+                if (flipped != SUBSUMES) {
+                    return NONE;
+                }
+                flipped = literal;
+            }
+            j++;
+        }
+        ticks += j;
+        return flipped;
+    }
+
+    private int occurrenceCount(int literal) {
+        return formula.getOccurrences(literal).size() + formula.getOccurrences(Literal.negate(literal)).size();
+    }
+
+    /**
+     * Tries to eliminate every variable, those with few occurrences first.
+     * Repeats while variables are eliminated.
+     */
+    private void eliminateVariables() {
+        boolean progress = true;
+        while (progress && formula.isOk() && ticks <= effortLimit) {
+            progress = false;
+            long[] order = new long[formula.varNum];
+            int count = 0;
+            for (int var = 1; var <= formula.varNum; var++) {
+                int occurrences = occurrenceCount(Literal.of(var, false));
+                if (!frozen[var] && !eliminated[var] && occurrences > 0 && occurrences <= occurrenceLimit) {
+                    order[count++] = ((long) occurrences << 32) | var;
+                }
+            }
+            Arrays.sort(order, 0, count);
+            for (int i = 0; i < count && formula.isOk() && ticks <= effortLimit; i++) {
+                int var = (int) order[i];
+                if (formula.value(Literal.of(var, false)) == VariableTable.OPEN && tryEliminate(var)) {
+                    progress = true;
+                    if (subsumption) {
+                        subsumeQueue();
+                    } else {
+                        queue.clear();
+                    }
+                    formula.propagateUnits();
+                }
+            }
+        }
+    }
+
+    /**
+     * Eliminates a variable by resolution if the number and length of the resolvents are within the limits.
+     *
+     * @param var variable ID
+     * @return true if the variable was eliminated
+     */
+    private boolean tryEliminate(int var) {
+        int positive = Literal.of(var, false);
+        int negative = Literal.of(var, true);
+        int[] positives = formula.getOccurrences(positive).toArray();
+        int[] negatives = formula.getOccurrences(negative).toArray();
+        if (positives.length + negatives.length == 0 || positives.length + negatives.length > occurrenceLimit) {
+            return false;
+        }
+        int limit = positives.length + negatives.length + resolventGrowth;
+        int resolvents = 0;
+        IntVec resolvent = new IntVec();
+        for (int p : positives) {
+            for (int n : negatives) {
+                if (resolve(formula.getClause(p), formula.getClause(n), var, resolvent)) {
+                    resolvents++;
+                    if (resolvents > limit || resolvent.size() > resolventLengthLimit) {
+                        return false;
+                    }
+                }
+            }
+        }
+        //save the clauses, then replace them by the resolvents
+        int[][] saved = new int[positives.length + negatives.length][];
+        int s = 0;
+        for (int p : positives) {
+            saved[s++] = formula.getClause(p);
+            reconstruction.push(positive, formula.getClause(p));
+        }
+        for (int n : negatives) {
+            saved[s++] = formula.getClause(n);
+            reconstruction.push(negative, formula.getClause(n));
+        }
+        for (int p : positives) {
+            formula.removeClause(p);
+        }
+        for (int n : negatives) {
+            formula.removeClause(n);
+        }
+        for (int p = 0; p < positives.length; p++) {
+            for (int n = positives.length; n < saved.length; n++) {
+                if (resolve(saved[p], saved[n], var, resolvent)) {
+                    formula.addClause(resolvent);
+                }
+            }
+        }
+        eliminated[var] = true;
+        eliminatedVariables++;
+        return true;
+    }
+
+    /**
+     * Computes the resolvent of two sorted clauses on a variable.
+     *
+     * @param positive clause with the positive literal
+     * @param negative clause with the negative literal
+     * @param var      variable to resolve on
+     * @param result   receives the sorted resolvent
+     * @return false if the resolvent is a tautology
+     */
+    private boolean resolve(int[] positive, int[] negative, int var, IntVec result) {
+        result.clear();
+        int i = 0;
+        int j = 0;
+        while (i < positive.length || j < negative.length) {
+            ticks++;
+            int a = i < positive.length ? positive[i] : Integer.MAX_VALUE;
+            int b = j < negative.length ? negative[j] : Integer.MAX_VALUE;
+            if (Literal.var(a) == var) {
+                i++;
+            } else if (Literal.var(b) == var) {
+                j++;
+            } else if (a == b) {
+                result.push(a);
+                i++;
+                j++;
+            } else if (Literal.var(a) == Literal.var(b)) {
+                return false;
+            } else if (a < b) {
+                result.push(a);
+                i++;
+            } else {
+                result.push(b);
+                j++;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Prevents the elimination of a variable, e.g. because it is used in assumptions.
+     *
+     * @param var variable ID
+     */
+    public void freeze(int var) {
+        frozen[var] = true;
+    }
+
+    public void setProbing(boolean probing) {
+        this.probing = probing;
+    }
+
+    public void setEquivalences(boolean equivalences) {
+        this.equivalences = equivalences;
+    }
+
+    public void setSubsumption(boolean subsumption) {
+        this.subsumption = subsumption;
+    }
+
+    public void setVariableElimination(boolean variableElimination) {
+        this.variableElimination = variableElimination;
+    }
+
+    /**
+     * Keeps the formula before preprocessing with the model reconstruction, so that
+     * {@link ClauseSet#satisfiesOriginalFormula()} and {@link CDCL#setVerifyModel} check models against it.
+     * Off by default, the formula stays in memory for the whole search then.
+     *
+     * @param verifyModel true to keep the formula for the check
+     */
+    public void setVerifyModel(boolean verifyModel) {
+        this.verifyModel = verifyModel;
+    }
+
+    /**
+     * Sets how many clauses an elimination may add, 0 means the clause count must not grow.
+     *
+     * @param resolventGrowth allowed growth per variable
+     */
+    public void setResolventGrowth(int resolventGrowth) {
+        this.resolventGrowth = resolventGrowth;
+    }
+
+    public void setResolventLengthLimit(int resolventLengthLimit) {
+        this.resolventLengthLimit = resolventLengthLimit;
+    }
+
+    public void setOccurrenceLimit(int occurrenceLimit) {
+        this.occurrenceLimit = occurrenceLimit;
+    }
+
+    public void setEffortLimit(long effortLimit) {
+        this.effortLimit = effortLimit;
+    }
+
+    public int getFixedVariables() {
+        return fixedVariables;
+    }
+
+    public int getMergedVariables() {
+        return mergedVariables;
+    }
+
+    public int getEliminatedVariables() {
+        return eliminatedVariables;
+    }
+
+    public int getSubsumedClauses() {
+        return subsumedClauses;
+    }
+
+    public int getStrengthenedClauses() {
+        return strengthenedClauses;
+    }
+
+    public long getTicks() {
+        return ticks;
+    }
+
+    @Override
+    public String toString() {
+        return "Preprocessing: " + originalClauses + " clauses -> " + formula.getLiveClauses()
+                + ", Fixed variables: " + fixedVariables + ", Merged variables: " + mergedVariables
+                + ", Eliminated variables: " + eliminatedVariables + ", Subsumed: " + subsumedClauses
+                + ", Strengthened: " + strengthenedClauses + ", Ticks: " + ticks;
+    }
+}
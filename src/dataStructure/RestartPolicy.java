@@ -0,0 +1,28 @@
+package dataStructure;
+
+/**
+ * Decides when the solver restarts, i.e. jumps back to level 0.
+ * Learned clauses, activities and saved phases survive a restart.
+ */
+public interface RestartPolicy {
+
+    /**
+     * Called once per conflict after the clause was learned.
+     *
+     * @param lbd       literal block distance of the learned clause
+     * @param trailSize number of assigned variables at the conflict
+     */
+    void onConflict(int lbd, int trailSize);
+
+    /**
+     * Called before each decision.
+     *
+     * @return true if the solver should restart now
+     */
+    boolean shouldRestart();
+
+    /**
+     * Called after the solver restarted.
+     */
+    void onRestart();
+}
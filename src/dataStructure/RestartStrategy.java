@@ -0,0 +1,33 @@
+package dataStructure;
+
+/**
+ * The restart policies shipped with the solver.
+ */
+public enum RestartStrategy {
+    /* Never restart */
+    NONE,
+    /* Conflict limits following the Luby sequence */
+    LUBY,
+    /* Conflict limits growing by a constant factor */
+    GEOMETRIC,
+    /* Glucose style: restart when recent learned clauses are worse than the average */
+    GLUCOSE;
+
+    /**
+     * Creates a new instance of the policy.
+     *
+     * @return new policy
+     */
+    public RestartPolicy create() {
+        switch (this) {
+            case NONE:
+                return new NoRestartPolicy();
+            case GEOMETRIC:
+                return new GeometricRestartPolicy(100, 1.5);
+            case GLUCOSE:
+                return new GlucoseRestartPolicy();
+            default:
+                return new LubyRestartPolicy(100);
+        }
+    }
+}
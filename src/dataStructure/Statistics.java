@@ -0,0 +1,236 @@
+package dataStructure;
+
+/**
+ * Counters collected while solving.
+ * The solver classes update the fields directly, everyone else reads them through the getters.
+ */
+public class Statistics {
+    /* Number of literals taken from the trail and propagated */
+    long propagations;
+
+    /* Number of watchers visited during propagation */
+    long watcherVisits;
+
+    /* Number of visited watchers that were skipped because their blocker was true */
+    long blockerHits;
+
+    /* Number of binary clauses visited in the implication lists */
+    long binaryVisits;
+
+    /* Number of conflicts */
+    long conflicts;
+
+    /* Number of decisions */
+    long decisions;
+
+    /* Number of resets of the saved phases */
+    long rephases;
+
+    /* Number of restarts */
+    long restarts;
+
+    /* Reductions of the learned clause database, deleted learned clauses and arena compactions */
+    long reductions;
+    long deletedClauses;
+    long garbageCollections;
+
+    /* Number of learned clauses that were already in the database */
+    long duplicateClauses;
+
+    /* Results of preprocessing */
+    long fixedVariables;
+    long mergedVariables;
+    long eliminatedVariables;
+    long subsumedClauses;
+    long strengthenedClauses;
+
+    /* Inprocessing rounds, the ticks used by each technique and their results */
+    long inprocessings;
+    long subsumptionTicks;
+    long vivificationTicks;
+    long probingTicks;
+    long subsumedLearnedClauses;
+    long vivifiedClauses;
+    long probingUnits;
+
+    /* Learned clauses shared with other solvers, see ClauseExchange */
+    long exportedClauses;
+    long importedClauses;
+    long rejectedImports;
+
+    /* Literals of all learned clauses before and after minimization */
+    long learnedLiteralsBeforeMinimization;
+    long learnedLiterals;
+
+    public long getPropagations() {
+        return propagations;
+    }
+
+    public long getWatcherVisits() {
+        return watcherVisits;
+    }
+
+    public long getBlockerHits() {
+        return blockerHits;
+    }
+
+    public long getBinaryVisits() {
+        return binaryVisits;
+    }
+
+    /**
+     * Returns the work of propagation in ticks, visited watchers and binary clauses.
+     *
+     * @return ticks
+     */
+    public long getPropagationTicks() {
+        return watcherVisits + binaryVisits;
+    }
+
+    /**
+     * Returns the share of visited watchers that were skipped by the blocker check.
+     *
+     * @return hit rate between 0 and 1
+     */
+    public double getBlockerHitRate() {
+        return watcherVisits == 0 ? 0.0 : (double) blockerHits / watcherVisits;
+    }
+
+    public long getConflicts() {
+        return conflicts;
+    }
+
+    public long getDecisions() {
+        return decisions;
+    }
+
+    public long getRephases() {
+        return rephases;
+    }
+
+    public long getRestarts() {
+        return restarts;
+    }
+
+    public long getReductions() {
+        return reductions;
+    }
+
+    public long getDeletedClauses() {
+        return deletedClauses;
+    }
+
+    public long getGarbageCollections() {
+        return garbageCollections;
+    }
+
+    public long getDuplicateClauses() {
+        return duplicateClauses;
+    }
+
+    public long getFixedVariables() {
+        return fixedVariables;
+    }
+
+    public long getMergedVariables() {
+        return mergedVariables;
+    }
+
+    public long getEliminatedVariables() {
+        return eliminatedVariables;
+    }
+
+    public long getSubsumedClauses() {
+        return subsumedClauses;
+    }
+
+    public long getStrengthenedClauses() {
+        return strengthenedClauses;
+    }
+
+    public long getInprocessings() {
+        return inprocessings;
+    }
+
+    public long getSubsumptionTicks() {
+        return subsumptionTicks;
+    }
+
+    public long getVivificationTicks() {
+        return vivificationTicks;
+    }
+
+    public long getProbingTicks() {
+        return probingTicks;
+    }
+
+    public long getSubsumedLearnedClauses() {
+        return subsumedLearnedClauses;
+    }
+
+    public long getVivifiedClauses() {
+        return vivifiedClauses;
+    }
+
+    public long getProbingUnits() {
+        return probingUnits;
+    }
+
+    public long getExportedClauses() {
+        return exportedClauses;
+    }
+
+    public long getImportedClauses() {
+        return importedClauses;
+    }
+
+    /**
+     * Returns the number of imported clauses that were dropped because they were satisfied or already known.
+     *
+     * @return rejected clauses
+     */
+    public long getRejectedImports() {
+        return rejectedImports;
+    }
+
+    public long getLearnedLiteralsBeforeMinimization() {
+        return learnedLiteralsBeforeMinimization;
+    }
+
+    public long getLearnedLiterals() {
+        return learnedLiterals;
+    }
+
+    @Override
+    public String toString() {
+        String res = "Decisions: " + decisions + ", Conflicts: " + conflicts
+                + ", Propagations: " + propagations + "\n";
+        res += "Restarts: " + restarts + ", Rephases: " + rephases + "\n";
+        res += "Reductions: " + reductions + ", Deleted clauses: " + deletedClauses
+                + ", Garbage collections: " + garbageCollections
+                + ", Duplicate learned clauses: " + duplicateClauses + "\n";
+        res += String.format("Watchers visited: %d, Blocker hits: %d (%.1f%%), Binary clauses visited: %d",
+                watcherVisits, blockerHits, 100.0 * getBlockerHitRate(), binaryVisits);
+        if (fixedVariables + mergedVariables + eliminatedVariables + subsumedClauses + strengthenedClauses > 0) {
+            res += "\nFixed variables: " + fixedVariables + ", Merged variables: " + mergedVariables
+                    + ", Eliminated variables: " + eliminatedVariables + ", Subsumed clauses: " + subsumedClauses
+                    + ", Strengthened clauses: " + strengthenedClauses;
+        }
+        if (inprocessings > 0) {
+            res += "\nInprocessing rounds: " + inprocessings
+                    + ", Subsumed learned clauses: " + subsumedLearnedClauses + " (" + subsumptionTicks + " ticks)"
+                    + ", Vivified clauses: " + vivifiedClauses + " (" + vivificationTicks + " ticks)"
+                    + ", Probing units: " + probingUnits + " (" + probingTicks + " ticks)";
+        }
+        if (exportedClauses + importedClauses + rejectedImports > 0) {
+            res += "\nExported clauses: " + exportedClauses + ", Imported clauses: " + importedClauses
+                    + ", Rejected imports: " + rejectedImports;
+        }
+        if (learnedLiteralsBeforeMinimization > 0) {
+            res += String.format("\nLearned literals: %d before minimization, %d after (%.1f%% removed)",
+                    learnedLiteralsBeforeMinimization, learnedLiterals,
+                    100.0 * (learnedLiteralsBeforeMinimization - learnedLiterals) / learnedLiteralsBeforeMinimization);
+        }
+        return res;
+    }
+}
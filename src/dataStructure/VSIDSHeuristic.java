@@ -0,0 +1,44 @@
+package dataStructure;
+
+/**
+ * The original activity heuristic of this solver.
+ * Activities start with the number of occurrences, variables of learned clauses are bumped
+ * and all activities decay by 0.95 before each decision. The decay is done by raising the
+ * bump increment instead of touching every variable.
+ */
+public class VSIDSHeuristic extends HeapHeuristic {
+    private static final double ACTIVITY_DECAY = 0.95;
+    private static final double ACTIVITY_LIMIT = 1e100;
+
+    /* Amount added to the activity of a bumped variable */
+    private double activityIncrement = 1.0;
+
+    @Override
+    protected double[] createScores() {
+        //works on the activities of the variable table, initialized with the occurrences
+        return table.getActivities();
+    }
+
+    @Override
+    public int pickBranchVariable() {
+        activityIncrement /= ACTIVITY_DECAY;
+        return super.pickBranchVariable();
+    }
+
+    @Override
+    public void onLearnedClause(IntVec literals) {
+        for (int i = 0; i < literals.size(); i++) {
+            bump(Literal.var(literals.get(i)));
+        }
+    }
+
+    private void bump(int var) {
+        setScore(var, scores[var] + activityIncrement);
+        if (scores[var] > ACTIVITY_LIMIT) {
+            for (int v = 1; v < scores.length; v++) {
+                scores[v] /= ACTIVITY_LIMIT;
+            }
+            activityIncrement /= ACTIVITY_LIMIT;
+        }
+    }
+}
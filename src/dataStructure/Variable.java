@@ -1,12 +1,10 @@
 package dataStructure;
 
 
-import java.util.HashMap;
-import java.util.ListIterator;
-import java.util.Vector;
-
 /**
  * A variable.
+ * Value, level, reason and activity are stored in the {@link VariableTable},
+ * this object is a view on the entries with its ID.
  */
 public class Variable {
 
@@ -15,41 +13,23 @@ public class Variable {
         TRUE, FALSE, OPEN
     }
 
-    /* Current assignment */
-    private State state;
-
     /* Variable ID (range from 1 to n) */
     private int id;
 
-    /* Clauses containing this variable */
-    private Vector<Clause> watched;
-    //iterates over watched
-    private ListIterator<Clause> watchedIterator;
-
-    //activity of this variable
-    private float activity;
-
-    //saves the reason clause
-    private Clause reason;
-
-    //saves the level of this variable
-    private int level;
+    /* Table holding the assignment of this variable */
+    private final VariableTable table;
 
 
     /**
      * Creates a variable with the given ID.
+     * The variable is OPEN until it is assigned in the table.
      *
-     * @param id ID of the variable
+     * @param id    ID of the variable
+     * @param table table holding the assignment
      */
-    public Variable(int id) {
+    Variable(int id, VariableTable table) {
         this.id = id;
-        this.state = State.OPEN;    //Open State at the beginning
-        //initialize a new Vector of Clauses
-        //the values will be set in ClauseSet (via the getter)
-        this.watched = new Vector<Clause>();
-        watchedIterator = watched.listIterator();
-        this.level = -1; // no level assigned yet
-        this.reason = null; //no reason assigned yet
+        this.table = table;
     }
 
     /**
@@ -58,7 +38,11 @@ public class Variable {
      * @return current assignment state
      */
     public State getState() {
-        return state;
+        byte value = table.value(id);
+        if (value == VariableTable.TRUE) {
+            return State.TRUE;
+        }
+        return value == VariableTable.FALSE ? State.FALSE : State.OPEN;
     }
 
     /**
@@ -70,93 +54,32 @@ public class Variable {
         return id;
     }
 
-    /**
-     * Returns the adjacency list of this variable.
-     *
-     * @return adjacency list of this variable
-     */
-    public Vector<Clause> getWatched() {
-        return watched;
-    }
-
-    public ListIterator<Clause> getWatchedIterator() {
-        return watchedIterator;
-    }
-
-    /**
-     * This is the new assign method.
-     *
-     * @param val assignment value
-     * @param variables hashmap of variables
-     * @param newUnitsQueue queue to store new units
-     * @return returns empty clause OR null
-     */
-    public Clause assign(boolean val, HashMap<Integer, Variable> variables, Vector<Clause> newUnitsQueue, int level, Clause reason) {
-
-        // assign variable
-        if (val) {
-            this.state = State.TRUE;
-        } else {
-            this.state = State.FALSE;
-        }
-
-        this.level = level;
-        this.reason = reason;
-        // Check how the literals of this variable evaluate in watched
-        watchedIterator = watched.listIterator();
-        //for (Clause clause : watched) {
-        while (watchedIterator.hasNext()) {
-            Clause clause = watchedIterator.next();
-            if (!val && clause.getPolarity(this.id) || val && !clause.getPolarity(this.id)) {
-                //literal will evaluate to 0
-                Clause.ClauseState newState = clause.reWatch(variables, clause.getLiteralFromVariableId(this.id));
-                //if reWatch return an empty clause, this method returns the empty clause
-                if (newState == Clause.ClauseState.EMPTY)
-                    return clause;
-
-                //if rewatch returns a unit clause, this method adds the
-                // unit clause to the units vector
-                if (newState == Clause.ClauseState.UNIT) {
-                    newUnitsQueue.addElement(clause);
-                }
-            }
-
-        }
-        return null;
-    }
-
-    /**
-     * Unassigned the variable
-     * used for backtracking
-     */
-    public void unassign() {
-        this.state = State.OPEN;
-        this.level = -1;
-        this.reason = null;
-        //learned from slides: watched pointer do not move on backtrack
-    }
-
     @Override
     public String toString() {
-        String res = "id: " + this.id + " [" + state + " ";
-        res += "\n\tWatched List: " + watched + ", Level: " + level + ", Reason: " + reason;
+        String res = "id: " + this.id + " [" + getState() + " ";
+        res += "\n\tLevel: " + getLevel() + ", Reason: " + getReason();
         return res + "\n]";
     }
 
     public int getLevel() {
-        return level;
+        return table.getLevel(id);
     }
 
-    public float getActivity() {
-        return activity;
+    public double getActivity() {
+        return table.getActivity(id);
     }
 
+    /**
+     * Returns the reason clause of this variable.
+     *
+     * @return reason clause or null for decisions and open variables
+     */
     public Clause getReason() {
-        return reason;
+        return table.getReasonClause(id);
     }
 
-    public void setActivity(float activity) {
-        this.activity = activity;
+    public void setActivity(double activity) {
+        table.setActivity(id, activity);
     }
 
-}
\ No newline at end of file
+}
@@ -0,0 +1,141 @@
+package dataStructure;
+
+/**
+ * Indexed binary max-heap of variable IDs ordered by a score such as the activity.
+ * Assigned variables are not removed eagerly: they stay in the heap until they are popped,
+ * and are inserted again when they become unassigned on backtrack.
+ */
+public class VariableOrderHeap {
+    /* Score of each variable, indexed by ID. Changed by the owner, see increased/decreased */
+    private final double[] scores;
+
+    /* Heap of variable IDs */
+    private int[] heap;
+    private int size;
+
+    /* Position of each variable in the heap, -1 if it is not contained */
+    private int[] indices;
+
+    /**
+     * Creates an empty heap for the variables 1 to scores.length - 1.
+     *
+     * @param scores score of each variable, indexed by ID
+     */
+    public VariableOrderHeap(double[] scores) {
+        this.scores = scores;
+        this.heap = new int[scores.length];
+        this.indices = new int[scores.length];
+        for (int i = 0; i < indices.length; i++) {
+            indices[i] = -1;
+        }
+        this.size = 0;
+    }
+
+    public boolean contains(int var) {
+        return indices[var] >= 0;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Inserts a variable if it is not contained yet.
+     *
+     * @param var variable ID
+     */
+    public void insert(int var) {
+        if (contains(var)) {
+            return;
+        }
+        indices[var] = size;
+        heap[size++] = var;
+        percolateUp(indices[var]);
+    }
+
+    /**
+     * Restores the heap order after the score of a variable was increased.
+     *
+     * @param var variable ID
+     */
+    public void increased(int var) {
+        if (contains(var)) {
+            percolateUp(indices[var]);
+        }
+    }
+
+    /**
+     * Restores the heap order after the score of a variable was decreased.
+     *
+     * @param var variable ID
+     */
+    public void decreased(int var) {
+        if (contains(var)) {
+            percolateDown(indices[var]);
+        }
+    }
+
+    /**
+     * Removes the variable with the highest score.
+     *
+     * @return variable ID
+     */
+    public int removeMax() {
+        int max = heap[0];
+        heap[0] = heap[--size];
+        indices[heap[0]] = 0;
+        indices[max] = -1;
+        if (size > 1) {
+            percolateDown(0);
+        }
+        return max;
+    }
+
+    /**
+     * Returns the variable with the highest score without removing it.
+     *
+     * @return variable ID
+     */
+    public int peek() {
+        return heap[0];
+    }
+
+    private void percolateUp(int pos) {
+        int var = heap[pos];
+        double score = scores[var];
+        while (pos > 0) {
+            int parent = (pos - 1) >> 1;
+            if (scores[heap[parent]] >= score) {
+                break;
+            }
+            heap[pos] = heap[parent];
+            indices[heap[pos]] = pos;
+            pos = parent;
+        }
+        heap[pos] = var;
+        indices[var] = pos;
+    }
+
+    private void percolateDown(int pos) {
+        int var = heap[pos];
+        double score = scores[var];
+        while (2 * pos + 1 < size) {
+            int child = 2 * pos + 1;
+            if (child + 1 < size && scores[heap[child + 1]] > scores[heap[child]]) {
+                child++;
+            }
+            if (scores[heap[child]] <= score) {
+                break;
+            }
+            heap[pos] = heap[child];
+            indices[heap[pos]] = pos;
+            pos = child;
+        }
+        heap[pos] = var;
+        indices[var] = pos;
+    }
+}
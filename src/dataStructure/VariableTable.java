@@ -0,0 +1,172 @@
+package dataStructure;
+
+/**
+ * Dense table of all variables, indexed by variable ID.
+ * Values, levels, reasons and activities are kept in parallel arrays,
+ * so evaluating a literal is a plain array access instead of a hash map lookup.
+ */
+public class VariableTable {
+    /* Values of an assignment */
+    public static final byte TRUE = 1;
+    public static final byte FALSE = -1;
+    public static final byte OPEN = 0;
+
+    /* Highest variable ID */
+    private final int varNum;
+
+    /* Current value of each variable */
+    private final byte[] values;
+
+    /* Decision level of each variable, -1 if unassigned */
+    private final int[] levels;
+
+    /* Reference of the reason clause of each variable, CREF_UNDEF for decisions and open variables */
+    private final int[] reasons;
+
+    /* Arena the reasons point into */
+    private final ClauseArena arena;
+
+    /* Activity of each variable */
+    private final double[] activities;
+
+    /* Variable objects, null for IDs that do not occur in the formula */
+    private final Variable[] variables;
+
+    /**
+     * Creates a table for the variables 1 to varNum.
+     *
+     * @param varNum highest variable ID
+     * @param arena  arena holding the reason clauses
+     */
+    public VariableTable(int varNum, ClauseArena arena) {
+        this.varNum = varNum;
+        this.arena = arena;
+        this.values = new byte[varNum + 1];
+        this.levels = new int[varNum + 1];
+        this.reasons = new int[varNum + 1];
+        this.activities = new double[varNum + 1];
+        this.variables = new Variable[varNum + 1];
+        for (int i = 0; i <= varNum; i++) {
+            levels[i] = -1; // no level assigned yet
+            reasons[i] = ClauseArena.CREF_UNDEF;
+        }
+    }
+
+    /**
+     * Returns the variable with the given ID and creates it on first access.
+     *
+     * @param id variable ID
+     * @return the variable
+     */
+    Variable getOrCreate(int id) {
+        if (variables[id] == null) {
+            variables[id] = new Variable(id, this);
+        }
+        return variables[id];
+    }
+
+    /**
+     * Returns the variable with the given ID.
+     *
+     * @param id variable ID
+     * @return the variable or null if it does not occur in the formula
+     */
+    public Variable get(int id) {
+        return variables[id];
+    }
+
+    public int getVarNum() {
+        return varNum;
+    }
+
+    /**
+     * @param var variable ID
+     * @return TRUE, FALSE or OPEN
+     */
+    public byte value(int var) {
+        return values[var];
+    }
+
+    /**
+     * Evaluates an encoded literal.
+     *
+     * @param literal encoded literal
+     * @return TRUE, FALSE or OPEN
+     */
+    public byte literalValue(int literal) {
+        byte value = values[literal >> 1];
+        return (literal & 1) == 0 ? value : (byte) -value;
+    }
+
+    public int getLevel(int var) {
+        return levels[var];
+    }
+
+    /**
+     * @param var variable ID
+     * @return reference of the reason clause or CREF_UNDEF
+     */
+    public int getReason(int var) {
+        return reasons[var];
+    }
+
+    /**
+     * @param var variable ID
+     * @return view on the reason clause or null
+     */
+    public Clause getReasonClause(int var) {
+        return reasons[var] == ClauseArena.CREF_UNDEF ? null : new Clause(arena, reasons[var]);
+    }
+
+    public double getActivity(int var) {
+        return activities[var];
+    }
+
+    public void setActivity(int var, double activity) {
+        activities[var] = activity;
+    }
+
+    /**
+     * Returns the activities of all variables, indexed by ID.
+     *
+     * @return activity array
+     */
+    public double[] getActivities() {
+        return activities;
+    }
+
+    /**
+     * Assigns a variable.
+     *
+     * @param var    variable ID
+     * @param val    assignment value
+     * @param level  decision level
+     * @param reason reference of the reason clause, CREF_UNDEF for decisions
+     */
+    void assign(int var, boolean val, int level, int reason) {
+        values[var] = val ? TRUE : FALSE;
+        levels[var] = level;
+        reasons[var] = reason;
+    }
+
+    /**
+     * Replaces the reason of an assigned variable, used when clauses are relocated.
+     *
+     * @param var    variable ID
+     * @param reason new reference of the reason clause
+     */
+    void setReason(int var, int reason) {
+        reasons[var] = reason;
+    }
+
+    /**
+     * Resets a variable to OPEN.
+     *
+     * @param var variable ID
+     */
+    void unassign(int var) {
+        values[var] = OPEN;
+        levels[var] = -1;
+        reasons[var] = ClauseArena.CREF_UNDEF;
+    }
+}
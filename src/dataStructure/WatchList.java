@@ -0,0 +1,85 @@
+package dataStructure;
+
+import java.util.Arrays;
+
+/**
+ * Watchers of one literal.
+ * Every watcher is a pair of a clause reference and a blocker literal of the same clause,
+ * stored interleaved in one int array. If the blocker is true the clause is satisfied
+ * and propagation can skip it without reading the clause.
+ */
+public class WatchList {
+    /* Interleaved pairs: data[2*i] = cref, data[2*i+1] = blocker */
+    private int[] data;
+
+    /* Number of watchers */
+    private int size;
+
+    public WatchList() {
+        this(2);
+    }
+
+    /**
+     * Creates an empty list with room for the given number of watchers.
+     *
+     * @param capacity number of watchers
+     */
+    public WatchList(int capacity) {
+        data = new int[2 * Math.max(capacity, 2)];
+        size = 0;
+    }
+
+    /**
+     * Adds a watcher.
+     *
+     * @param cref    clause reference
+     * @param blocker encoded literal of the clause other than the watched one
+     */
+    public void push(int cref, int blocker) {
+        if (2 * size == data.length) {
+            data = Arrays.copyOf(data, data.length * 2);
+        }
+        data[2 * size] = cref;
+        data[2 * size + 1] = blocker;
+        size++;
+    }
+
+    /**
+     * Returns the interleaved watcher pairs. Only the first 2*size() entries are valid.
+     * Propagation compacts the list in place on this array and calls {@link #shrink} afterwards.
+     *
+     * @return backing array
+     */
+    public int[] getData() {
+        return data;
+    }
+
+    /**
+     * @return number of watchers
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Keeps only the first newSize watchers.
+     *
+     * @param newSize new number of watchers
+     */
+    public void shrink(int newSize) {
+        size = newSize;
+    }
+
+    /**
+     * Sets the number of watchers, after the pairs were written into {@link #getData()} directly.
+     *
+     * @param newSize new number of watchers, at most the capacity
+     */
+    void setSize(int newSize) {
+        size = newSize;
+    }
+
+    public void clear() {
+        size = 0;
+    }
+}
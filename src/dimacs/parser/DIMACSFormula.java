@@ -0,0 +1,157 @@
+package dimacs.parser;
+
+import java.util.Arrays;
+
+/**
+ * Clauses of a DIMACS file in flat primitive arrays.
+ * The literals of all clauses are stored one after another as DIMACS integers (variable ID with sign),
+ * clause i consists of the literals from getClauseStart(i) to getClauseStart(i) + getClauseSize(i) - 1.
+ */
+public class DIMACSFormula {
+    /* Most clauses reserved for the problem line, the header is not trusted, the arrays grow beyond it */
+    private static final int MAX_RESERVED_CLAUSES = 1 << 20;
+
+    /* Values of the problem line, -1 without problem line */
+    private int declaredVarNum = -1;
+    private int declaredClauseNum = -1;
+
+    /* Highest variable ID that occurs in a clause */
+    private int maxVar = 0;
+
+    /* Literals of all clauses */
+    private int[] literals;
+    private int literalCount = 0;
+
+    /* Start of every clause in literals, clauseStarts[clauseCount] is the start of the open clause */
+    private int[] clauseStarts;
+    private int clauseCount = 0;
+
+    public DIMACSFormula() {
+        literals = new int[64];
+        clauseStarts = new int[16];
+    }
+
+    /**
+     * Sets the values of the problem line and reserves space for the declared clauses, up to a limit.
+     *
+     * @param varNum    declared number of variables
+     * @param clauseNum declared number of clauses
+     */
+    public void setHeader(int varNum, int clauseNum) {
+        this.declaredVarNum = varNum;
+        this.declaredClauseNum = clauseNum;
+        int reserved = Math.min(clauseNum, MAX_RESERVED_CLAUSES);
+        //DIMACS files of the usual benchmarks have about three literals per clause
+        ensureClauseCapacity(reserved + 1);
+        ensureLiteralCapacity(3 * reserved);
+    }
+
+    /**
+     * Appends a literal to the open clause.
+     *
+     * @param literal non-zero DIMACS literal
+     */
+    public void addLiteral(int literal) {
+        if (literalCount == literals.length) {
+            ensureLiteralCapacity(literalCount + 1);
+        }
+        literals[literalCount++] = literal;
+        int var = literal < 0 ? -literal : literal;
+        if (var > maxVar) {
+            maxVar = var;
+        }
+    }
+
+    /**
+     * Closes the open clause, it may be empty.
+     */
+    public void endClause() {
+        if (clauseCount + 2 > clauseStarts.length) {
+            ensureClauseCapacity(clauseCount + 2);
+        }
+        clauseStarts[++clauseCount] = literalCount;
+    }
+
+    /**
+     * @return true if literals were added since the last clause was closed
+     */
+    public boolean hasOpenClause() {
+        return literalCount > clauseStarts[clauseCount];
+    }
+
+    private void ensureLiteralCapacity(int capacity) {
+        if (capacity > literals.length) {
+            literals = Arrays.copyOf(literals, Math.max(capacity, literals.length + (literals.length >> 1)));
+        }
+    }
+
+    private void ensureClauseCapacity(int capacity) {
+        if (capacity > clauseStarts.length) {
+            clauseStarts = Arrays.copyOf(clauseStarts, Math.max(capacity, clauseStarts.length + (clauseStarts.length >> 1)));
+        }
+    }
+
+    /**
+     * Returns the number of variables, the larger one of the declared number and the highest ID in use.
+     *
+     * @return number of variables
+     */
+    public int getVarNum() {
+        return Math.max(declaredVarNum, maxVar);
+    }
+
+    /**
+     * @return declared number of variables or -1 without problem line
+     */
+    public int getDeclaredVarNum() {
+        return declaredVarNum;
+    }
+
+    /**
+     * @return declared number of clauses or -1 without problem line
+     */
+    public int getDeclaredClauseNum() {
+        return declaredClauseNum;
+    }
+
+    public int getClauseCount() {
+        return clauseCount;
+    }
+
+    /**
+     * @return number of literals of all closed clauses
+     */
+    public int getLiteralCount() {
+        return clauseStarts[clauseCount];
+    }
+
+    /**
+     * @param clause index of the clause
+     * @return index of its first literal in getLiterals()
+     */
+    public int getClauseStart(int clause) {
+        return clauseStarts[clause];
+    }
+
+    /**
+     * Returns the start of every clause, entry getClauseCount() is the end of the last clause.
+     *
+     * @return clause starts, only the first getClauseCount() + 1 entries are valid
+     */
+    public int[] getClauseStarts() {
+        return clauseStarts;
+    }
+
+    public int getClauseSize(int clause) {
+        return clauseStarts[clause + 1] - clauseStarts[clause];
+    }
+
+    /**
+     * Returns the literals of all clauses. Only the first getLiteralCount() entries are valid.
+     *
+     * @return DIMACS literals
+     */
+    public int[] getLiterals() {
+        return literals;
+    }
+}
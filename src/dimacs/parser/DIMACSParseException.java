@@ -0,0 +1,26 @@
+package dimacs.parser;
+
+/**
+ * Thrown on malformed DIMACS input.
+ * Carries the position of the error, line and column start at 1.
+ */
+public class DIMACSParseException extends RuntimeException {
+    private static final long serialVersionUID = 1L;
+
+    private final long line;
+    private final long column;
+
+    public DIMACSParseException(String message, long line, long column) {
+        super(message + " (line " + line + ", column " + column + ")");
+        this.line = line;
+        this.column = column;
+    }
+
+    public long getLine() {
+        return line;
+    }
+
+    public long getColumn() {
+        return column;
+    }
+}
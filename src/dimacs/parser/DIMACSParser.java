@@ -1,84 +1,79 @@
 package dimacs.parser;
 
-import java.io.BufferedReader;
-import java.io.FileReader;
 import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
 import java.util.Vector;
 
 /**
  * Created by Benjamin Vollmer Matr. 3590766 and Kien-Van Quang Matr. 3746183 on 31.10.16.
  * Parser for DIMACS files
- * Opens file at file path on construction
+ * Maps the file into memory and runs a {@link DIMACSTokenizer} over its bytes.
  */
 public class DIMACSParser {
-    private static final String SPACE_SEPARATOR = "\\s+";
+    /* Files are mapped in windows of this size, a single mapping is limited to 2 GB */
+    private static final long MAP_WINDOW = 1L << 30;
+
     private final String m_FilePath;
-    private BufferedReader m_bufferedReader;
 
     public DIMACSParser(String filePath) {
         this.m_FilePath = filePath;
-        openFile();
     }
 
-    private void openFile() {
+    /**
+     * Parses the file into flat clause arrays.
+     *
+     * @return the parsed formula
+     * @throws IOException           if the file cannot be read
+     * @throws DIMACSParseException on malformed input
+     */
+    public DIMACSFormula parse() throws IOException {
+        DIMACSTokenizer tokenizer = new DIMACSTokenizer(new DIMACSFormula());
+        FileChannel channel = FileChannel.open(Paths.get(m_FilePath), StandardOpenOption.READ);
         try {
-            m_bufferedReader = new BufferedReader(new FileReader(m_FilePath));
-        } catch (IOException e) {
-            e.printStackTrace();
+            long size = channel.size();
+            for (long offset = 0; offset < size; offset += MAP_WINDOW) {
+                MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, offset,
+                        Math.min(MAP_WINDOW, size - offset));
+                tokenizer.feed(buffer);
+            }
+        } finally {
+            channel.close();
         }
+        return tokenizer.finish();
     }
 
     /**
-     * Get DIMACSStatistics
+     * Parses the file into one vector per clause.
+     * Kept for compatibility, {@link #parse()} avoids the boxing.
      *
-     * @return Returns Object of Type DIMACSStatistics.
-     * This contains the statistics of the input file
+     * @return clauses as vectors of DIMACS literals
+     * @throws UncheckedIOException if the file cannot be read
+     * @throws DIMACSParseException on malformed input
      */
     public Vector<Vector<Integer>> parseFile() {
-        if (m_bufferedReader == null) throw new NullPointerException();
-        String[] tokens;
-        String sCurrentLine;
         Vector<Vector<Integer>> formula = new Vector<Vector<Integer>>();
+        DIMACSFormula parsed;
         try {
-            while (null != (sCurrentLine = m_bufferedReader.readLine())) {
-                //split line string into single tokens
-                tokens = sCurrentLine.split(SPACE_SEPARATOR);
-                if (tokens.length > 0 && !tokens[0].equals("c")) {
-                    if (tokens[0].equals("p")) {
-                        //problem line found
-                        //Do nothing
-                    } else {
-                        //line with clause found
-                        handleClause(tokens, formula);
-                    }
-                }
-            }
+            parsed = parse();
         } catch (IOException e) {
-            e.printStackTrace();
+            throw new UncheckedIOException(e);
         }
-
-        return formula;
-    }
-
-    private void handleClause(String[] tokens, Vector<Vector<Integer>> formula) {
-        Vector<Integer> clauseVector = new Vector<Integer>();
-        for (String token : tokens) {
-            if (!token.equals("0") && !token.equals("")) {
-                try {
-                    Integer variable = Integer.parseInt(token);
-                    //add to vector
-                    clauseVector.add(variable);
-                } catch (Exception e) {
-                    System.err.println("Could not parse symbol in formula!");
-                    System.exit(1);
-                }
-
+        int[] literals = parsed.getLiterals();
+        for (int i = 0; i < parsed.getClauseCount(); i++) {
+            Vector<Integer> clauseVector = new Vector<Integer>();
+            int start = parsed.getClauseStart(i);
+            for (int k = start; k < start + parsed.getClauseSize(i); k++) {
+                clauseVector.add(literals[k]);
+            }
+            if (clauseVector.size() != 0) {
+                formula.add(clauseVector);
             }
         }
-        if (clauseVector.size() != 0) {
-            formula.add(clauseVector);
-        }
-
+        return formula;
     }
 
 }
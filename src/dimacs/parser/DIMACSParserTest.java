@@ -0,0 +1,236 @@
+package dimacs.parser;
+
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Arrays;
+import java.util.Vector;
+import java.util.zip.GZIPOutputStream;
+
+import static org.junit.Assert.*;
+
+public class DIMACSParserTest {
+
+    @Test
+    public void testParse() throws Exception {
+        DIMACSFormula formula = parse("c comment\np cnf 3 2\n1 -2 0\n-3\t2 0\n");
+        assertEquals(3, formula.getDeclaredVarNum());
+        assertEquals(2, formula.getDeclaredClauseNum());
+        assertEquals(2, formula.getClauseCount());
+        assertClause(formula, 0, 1, -2);
+        assertClause(formula, 1, -3, 2);
+    }
+
+    /**
+     * Windows line endings are whitespace, also in the problem line
+     */
+    @Test
+    public void testCRLF() throws Exception {
+        DIMACSFormula formula = parse("c comment\r\np cnf 2 2\r\n1 -2 0\r\n2 0\r\n");
+        assertEquals(2, formula.getDeclaredVarNum());
+        assertEquals(2, formula.getClauseCount());
+        assertClause(formula, 0, 1, -2);
+        assertClause(formula, 1, 2);
+    }
+
+    /**
+     * The last clause is closed at the end of the input
+     */
+    @Test
+    public void testMissingFinalZero() throws Exception {
+        DIMACSFormula formula = parse("p cnf 3 2\n1 -2 0\n3 -1");
+        assertEquals(2, formula.getClauseCount());
+        assertClause(formula, 1, 3, -1);
+    }
+
+    /**
+     * The declared clause count does not decide the memory that is reserved
+     */
+    @Test
+    public void testOversizedHeader() throws Exception {
+        DIMACSFormula formula = parse("p cnf 3 2000000000\n1 -2 0\n");
+        assertEquals(2000000000, formula.getDeclaredClauseNum());
+        assertEquals(1, formula.getClauseCount());
+        assertClause(formula, 0, 1, -2);
+    }
+
+    @Test
+    public void testErrorPosition() throws Exception {
+        assertError("p cnf 3 2\n1 2 0\n-3 x 0\n", 3, 4);
+        assertError("p cnf 3 1\n1 2a 0\n", 2, 4);
+        assertError("p cnf 3 1\n1 - 2 0\n", 2, 4);
+        assertError("p cnf 3 1\r\n1 ? 0\r\n", 2, 3);
+        assertError("p cnf 3\n1 2 0\n", 1, 8);
+        assertError("p cnf 3 1\np cnf 3 1\n", 2, 1);
+    }
+
+    /**
+     * Mapped files report errors like streams, the compatibility adapter does not swallow them
+     */
+    @Test
+    public void testFileError() throws Exception {
+        File file = File.createTempFile("malformed", ".cnf");
+        file.deleteOnExit();
+        FileOutputStream out = new FileOutputStream(file);
+        try {
+            out.write("p cnf 2 1\n1 -2 0\n2 # 0\n".getBytes("US-ASCII"));
+        } finally {
+            out.close();
+        }
+        try {
+            new DIMACSParser(file.getPath()).parse();
+            fail("No exception for malformed file");
+        } catch (DIMACSParseException e) {
+            assertEquals(3, e.getLine());
+            assertEquals(3, e.getColumn());
+        }
+        try {
+            Vector<Vector<Integer>> clauses = new DIMACSParser(file.getPath()).parseFile();
+            fail("Malformed file parsed into " + clauses.size() + " clauses");
+        } catch (DIMACSParseException e) {
+            assertEquals(3, e.getLine());
+        }
+    }
+
+    /**
+     * Compressed input is detected by its magic bytes in streams and by the extension of files
+     */
+    @Test
+    public void testGzip() throws Exception {
+        byte[] plain = largeInput();
+        DIMACSFormula expected = new DIMACSStreamParser().parse(new ByteArrayInputStream(plain));
+        byte[] compressed = gzip(plain);
+        assertSameClauses(expected, new DIMACSStreamParser().parse(new ByteArrayInputStream(compressed)));
+
+        File file = File.createTempFile("formula", ".cnf.gz");
+        file.deleteOnExit();
+        write(file, compressed);
+        assertSameClauses(expected, new DIMACSStreamParser().parse(file.getPath()));
+    }
+
+    @Test(expected = IOException.class)
+    public void testTruncatedGzip() throws Exception {
+        byte[] compressed = gzip(largeInput());
+        File file = File.createTempFile("truncated", ".cnf.gz");
+        file.deleteOnExit();
+        write(file, Arrays.copyOf(compressed, compressed.length / 2));
+        new DIMACSStreamParser().parse(file.getPath());
+    }
+
+    /**
+     * Reads that return no bytes do not use up the buffers of the reader thread
+     */
+    @Test(timeout = 10000)
+    public void testEmptyReads() throws Exception {
+        byte[] plain = largeInput();
+        DIMACSFormula expected = new DIMACSStreamParser().parse(new ByteArrayInputStream(plain));
+        InputStream stuttering = new FilterInputStream(new ByteArrayInputStream(plain)) {
+            private int calls = 0;
+
+            @Override
+            public int read(byte[] b, int off, int len) throws IOException {
+                //some bytes, then two reads without bytes
+                calls++;
+                return calls % 3 == 1 ? super.read(b, off, Math.min(len, 1000)) : 0;
+            }
+        };
+        //without codec, a buffered stream would take a read without bytes for the end
+        assertSameClauses(expected, new DIMACSStreamParser().parse(stuttering, null));
+    }
+
+    /**
+     * After a parse error the stream is not read any further
+     */
+    @Test
+    public void testReaderStopsAfterError() throws Exception {
+        byte[] plain = largeInput();
+        plain[10] = 'x';
+        final int[] reads = new int[1];
+        InputStream counting = new FilterInputStream(new ByteArrayInputStream(plain)) {
+            @Override
+            public int read(byte[] b, int off, int len) throws IOException {
+                reads[0]++;
+                //a slow stream, the reader is busy when the error is found
+                try {
+                    Thread.sleep(5);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                return super.read(b, off, Math.min(len, 1000));
+            }
+        };
+        try {
+            new DIMACSStreamParser().parse(counting);
+            fail("No exception for malformed input");
+        } catch (DIMACSParseException e) {
+            int readsAfterError = reads[0];
+            Thread.sleep(200);
+            assertEquals(readsAfterError, reads[0]);
+            assertTrue(counting.available() > 0);
+        }
+    }
+
+    /**
+     * About 400 KB of clauses, more than the buffers of the stream parser hold
+     */
+    private byte[] largeInput() throws IOException {
+        StringBuilder input = new StringBuilder("p cnf 1000 40000\n");
+        for (int c = 0; c < 40000; c++) {
+            input.append(1 + c % 1000).append(' ').append(-(1 + (7 * c) % 1000)).append(' ')
+                    .append(1 + (13 * c) % 1000).append(" 0\n");
+        }
+        return input.toString().getBytes("US-ASCII");
+    }
+
+    private byte[] gzip(byte[] data) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        GZIPOutputStream out = new GZIPOutputStream(bytes);
+        out.write(data);
+        out.close();
+        return bytes.toByteArray();
+    }
+
+    private void write(File file, byte[] data) throws IOException {
+        FileOutputStream out = new FileOutputStream(file);
+        try {
+            out.write(data);
+        } finally {
+            out.close();
+        }
+    }
+
+    private void assertSameClauses(DIMACSFormula expected, DIMACSFormula actual) {
+        assertEquals(expected.getClauseCount(), actual.getClauseCount());
+        assertEquals(expected.getLiteralCount(), actual.getLiteralCount());
+        assertArrayEquals(Arrays.copyOf(expected.getLiterals(), expected.getLiteralCount()),
+                Arrays.copyOf(actual.getLiterals(), actual.getLiteralCount()));
+    }
+
+    private DIMACSFormula parse(String input) throws IOException {
+        return new DIMACSStreamParser().parse(new ByteArrayInputStream(input.getBytes("US-ASCII")));
+    }
+
+    private void assertClause(DIMACSFormula formula, int clause, int... literals) {
+        assertEquals(literals.length, formula.getClauseSize(clause));
+        int start = formula.getClauseStart(clause);
+        for (int i = 0; i < literals.length; i++) {
+            assertEquals(literals[i], formula.getLiterals()[start + i]);
+        }
+    }
+
+    private void assertError(String input, long line, long column) throws IOException {
+        try {
+            parse(input);
+            fail("No exception for: " + input);
+        } catch (DIMACSParseException e) {
+            assertEquals("line of " + e.getMessage(), line, e.getLine());
+            assertEquals("column of " + e.getMessage(), column, e.getColumn());
+        }
+    }
+}
@@ -0,0 +1,221 @@
+package dimacs.parser;
+
+import java.io.BufferedInputStream;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.nio.channels.Channels;
+import java.nio.channels.ReadableByteChannel;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+
+/**
+ * Parser for DIMACS input from streams, optionally compressed.
+ * Reading and decompression run on a separate thread that hands filled chunks to the
+ * {@link DIMACSTokenizer} on the calling thread through a bounded queue, so I/O, inflation and
+ * tokenizing overlap. The chunks are recycled, the memory in flight is bounded by
+ * CHUNK_COUNT * CHUNK_SIZE.
+ */
+public class DIMACSStreamParser {
+    private static final int CHUNK_SIZE = 1 << 16;
+    private static final int CHUNK_COUNT = 8;
+
+    /* Registered codecs, gzip is always available */
+    private final List<DecompressionCodec> codecs = new ArrayList<DecompressionCodec>();
+
+    public DIMACSStreamParser() {
+        codecs.add(new GzipCodec());
+    }
+
+    /**
+     * Registers a codec for a compression format. Replaces a codec with the same extension.
+     *
+     * @param codec the codec
+     */
+    public void registerCodec(DecompressionCodec codec) {
+        for (int i = 0; i < codecs.size(); i++) {
+            if (codecs.get(i).getExtension().equals(codec.getExtension())) {
+                codecs.set(i, codec);
+                return;
+            }
+        }
+        codecs.add(codec);
+    }
+
+    /**
+     * Parses a file. Compressed files are recognized by the extension of a registered codec,
+     * plain files are mapped into memory (see {@link DIMACSParser}).
+     *
+     * @param filePath file path of the DIMACS file
+     * @return the parsed formula
+     * @throws IOException           if the file cannot be read
+     * @throws DIMACSParseException on malformed input
+     */
+    public DIMACSFormula parse(String filePath) throws IOException {
+        for (DecompressionCodec codec : codecs) {
+            if (filePath.endsWith(codec.getExtension())) {
+                InputStream in = new FileInputStream(filePath);
+                try {
+                    return parse(in, codec);
+                } finally {
+                    in.close();
+                }
+            }
+        }
+        return new DIMACSParser(filePath).parse();
+    }
+
+    /**
+     * Parses a stream. Gzip data is detected by its magic bytes, everything else is read as plain text.
+     * The stream is not closed.
+     *
+     * @param in DIMACS input
+     * @return the parsed formula
+     * @throws IOException           if the stream cannot be read
+     * @throws DIMACSParseException on malformed input
+     */
+    public DIMACSFormula parse(InputStream in) throws IOException {
+        BufferedInputStream buffered = new BufferedInputStream(in, CHUNK_SIZE);
+        buffered.mark(2);
+        int b0 = buffered.read();
+        int b1 = buffered.read();
+        buffered.reset();
+        if (b0 == GzipCodec.MAGIC_0 && b1 == GzipCodec.MAGIC_1) {
+            return parse(buffered, new GzipCodec());
+        }
+        return parse(buffered, null);
+    }
+
+    /**
+     * Parses a channel, see {@link #parse(InputStream)}. The channel is not closed.
+     *
+     * @param channel DIMACS input
+     * @return the parsed formula
+     * @throws IOException           if the channel cannot be read
+     * @throws DIMACSParseException on malformed input
+     */
+    public DIMACSFormula parse(ReadableByteChannel channel) throws IOException {
+        return parse(Channels.newInputStream(channel));
+    }
+
+    /**
+     * Parses a stream that is decompressed with the given codec.
+     *
+     * @param in    DIMACS input
+     * @param codec codec of the input or null for plain text
+     * @return the parsed formula
+     * @throws IOException           if the stream cannot be read
+     * @throws DIMACSParseException on malformed input
+     */
+    public DIMACSFormula parse(InputStream in, DecompressionCodec codec) throws IOException {
+        InputStream source = codec == null ? in : codec.open(in);
+        Reader reader = new Reader(source);
+        Thread thread = new Thread(reader, "dimacs-reader");
+        thread.setDaemon(true);
+        thread.start();
+        DIMACSTokenizer tokenizer = new DIMACSTokenizer(new DIMACSFormula());
+        try {
+            while (true) {
+                Chunk chunk = reader.full.take();
+                if (chunk.length < 0) {
+                    break;
+                }
+                tokenizer.feed(chunk.data, 0, chunk.length);
+                reader.free.put(chunk);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while parsing");
+        } finally {
+            //stops the reader if the tokenizer failed, the stream must not be read after parse returned
+            reader.stopped = true;
+            thread.interrupt();
+            join(thread);
+        }
+        if (reader.error != null) {
+            throw reader.error;
+        }
+        return tokenizer.finish();
+    }
+
+    /**
+     * Waits for the reader thread to end. An interrupt of the waiting thread is kept for the caller.
+     *
+     * @param thread reader thread
+     */
+    private static void join(Thread thread) {
+        boolean interrupted = false;
+        while (thread.isAlive()) {
+            try {
+                thread.join();
+            } catch (InterruptedException e) {
+                interrupted = true;
+            }
+        }
+        if (interrupted) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /* Buffer passed between the threads */
+    private static class Chunk {
+        final byte[] data;
+        int length;
+
+        Chunk(int size) {
+            data = new byte[size];
+        }
+    }
+
+    /**
+     * Fills free chunks from the stream and queues them. A chunk with negative length marks the end.
+     */
+    private static class Reader implements Runnable {
+        final ArrayBlockingQueue<Chunk> free = new ArrayBlockingQueue<Chunk>(CHUNK_COUNT);
+        final ArrayBlockingQueue<Chunk> full = new ArrayBlockingQueue<Chunk>(CHUNK_COUNT + 1);
+        private final InputStream in;
+        volatile IOException error;
+
+        /* Set when the tokenizer is done, the reader stops after the current read */
+        volatile boolean stopped = false;
+
+        Reader(InputStream in) {
+            this.in = in;
+            for (int i = 0; i < CHUNK_COUNT; i++) {
+                free.add(new Chunk(CHUNK_SIZE));
+            }
+        }
+
+        @Override
+        public void run() {
+            try {
+                while (!stopped) {
+                    Chunk chunk = free.take();
+                    int length = 0;
+                    int read = 0;
+                    while (length < CHUNK_SIZE && (read = in.read(chunk.data, length, CHUNK_SIZE - length)) > 0) {
+                        length += read;
+                    }
+                    if (length > 0) {
+                        chunk.length = length;
+                        full.put(chunk);
+                    } else {
+                        free.put(chunk);
+                    }
+                    if (read < 0) {
+                        break;
+                    }
+                }
+            } catch (IOException e) {
+                error = e;
+            } catch (InterruptedException e) {
+                return;
+            }
+            Chunk end = new Chunk(0);
+            end.length = -1;
+            full.add(end);
+        }
+    }
+}
@@ -0,0 +1,208 @@
+package dimacs.parser;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Byte level state machine for the DIMACS CNF format.
+ * Input is pushed in chunks of any size, tokens may span chunk boundaries. Literals are written
+ * directly into a {@link DIMACSFormula}, no objects are created per token.
+ * Comment lines start with 'c', the problem line with 'p', a line starting with '%' ends the
+ * input (SATLIB convention). Every clause is terminated by 0; a clause that is still open at
+ * the end of the input is closed.
+ */
+public class DIMACSTokenizer {
+    private static final int LINE_START = 0;
+    private static final int COMMENT = 1;
+    private static final int HEADER = 2;
+    private static final int CLAUSES = 3;
+    private static final int NUMBER = 4;
+    private static final int END = 5;
+
+    private final DIMACSFormula formula;
+
+    private int state = LINE_START;
+
+    /* Number being read */
+    private long value;
+    private boolean negative;
+    private boolean hasDigits;
+
+    /* Problem line being read */
+    private final StringBuilder header = new StringBuilder();
+    private boolean headerSeen = false;
+
+    /* Position for error messages */
+    private long line = 1;
+    private long position = 0;
+    private long lineStart = 0;
+
+    /**
+     * @param formula target of the parsed clauses
+     */
+    public DIMACSTokenizer(DIMACSFormula formula) {
+        this.formula = formula;
+    }
+
+    /**
+     * Consumes all remaining bytes of the buffer.
+     *
+     * @param buffer input chunk
+     */
+    public void feed(ByteBuffer buffer) {
+        int end = buffer.limit();
+        for (int i = buffer.position(); i < end; i++) {
+            consume(buffer.get(i));
+        }
+        buffer.position(end);
+    }
+
+    /**
+     * Consumes the bytes bytes[offset] to bytes[offset + length - 1].
+     *
+     * @param bytes  input chunk
+     * @param offset index of the first byte
+     * @param length number of bytes
+     */
+    public void feed(byte[] bytes, int offset, int length) {
+        for (int i = offset; i < offset + length; i++) {
+            consume(bytes[i]);
+        }
+    }
+
+    private void consume(byte b) {
+        switch (state) {
+            case NUMBER:
+                if (b >= '0' && b <= '9') {
+                    value = value * 10 + (b - '0');
+                    hasDigits = true;
+                    if (value > Integer.MAX_VALUE) {
+                        throw error("Number too large");
+                    }
+                } else if (isSpace(b)) {
+                    endNumber();
+                    state = CLAUSES;
+                    newLine(b);
+                } else {
+                    throw error("Unexpected character '" + (char) b + "' in number");
+                }
+                break;
+            case LINE_START:
+                if (b == 'c') {
+                    state = COMMENT;
+                } else if (b == 'p') {
+                    if (headerSeen) {
+                        throw error("Second problem line");
+                    }
+                    state = HEADER;
+                    header.setLength(0);
+                    header.append('p');
+                } else if (b == '%') {
+                    state = END;
+                } else {
+                    startToken(b);
+                }
+                break;
+            case CLAUSES:
+                startToken(b);
+                break;
+            case COMMENT:
+                if (b == '\n') {
+                    newLine(b);
+                }
+                break;
+            case HEADER:
+                if (b == '\n') {
+                    parseHeader();
+                    newLine(b);
+                } else {
+                    header.append((char) b);
+                }
+                break;
+            default:
+                //END: ignore the rest of the input
+                break;
+        }
+        position++;
+    }
+
+    private void startToken(byte b) {
+        if (b >= '0' && b <= '9') {
+            state = NUMBER;
+            negative = false;
+            value = b - '0';
+            hasDigits = true;
+        } else if (b == '-') {
+            state = NUMBER;
+            negative = true;
+            value = 0;
+            hasDigits = false;
+        } else if (isSpace(b)) {
+            newLine(b);
+        } else {
+            throw error("Unexpected character '" + (char) b + "'");
+        }
+    }
+
+    private void newLine(byte b) {
+        if (b == '\n') {
+            line++;
+            lineStart = position + 1;
+            state = LINE_START;
+        }
+    }
+
+    private void endNumber() {
+        if (!hasDigits) {
+            throw error("Missing digits after '-'");
+        }
+        if (value == 0) {
+            formula.endClause();
+        } else {
+            formula.addLiteral(negative ? (int) -value : (int) value);
+        }
+    }
+
+    private void parseHeader() {
+        String[] tokens = header.toString().trim().split("\\s+");
+        if (tokens.length != 4 || !tokens[0].equals("p") || !tokens[1].equals("cnf")) {
+            throw error("Malformed problem line, expected 'p cnf <variables> <clauses>'");
+        }
+        try {
+            int varNum = Integer.parseInt(tokens[2]);
+            int clauseNum = Integer.parseInt(tokens[3]);
+            if (varNum < 0 || clauseNum < 0) {
+                throw error("Negative number in problem line");
+            }
+            formula.setHeader(varNum, clauseNum);
+        } catch (NumberFormatException e) {
+            throw error("Malformed number in problem line");
+        }
+        headerSeen = true;
+    }
+
+    private static boolean isSpace(byte b) {
+        return b == ' ' || b == '\n' || b == '\t' || b == '\r' || b == '\f';
+    }
+
+    private DIMACSParseException error(String message) {
+        return new DIMACSParseException(message, line, position - lineStart + 1);
+    }
+
+    /**
+     * Ends the input. Closes a number or clause that is still open.
+     *
+     * @return the formula
+     */
+    public DIMACSFormula finish() {
+        if (state == NUMBER) {
+            endNumber();
+        } else if (state == HEADER) {
+            parseHeader();
+        }
+        if (formula.hasOpenClause()) {
+            formula.endClause();
+        }
+        state = END;
+        return formula;
+    }
+}
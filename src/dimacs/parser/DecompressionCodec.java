@@ -0,0 +1,28 @@
+package dimacs.parser;
+
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * Decompressor for compressed DIMACS files, selected by the file name extension.
+ * Gzip is built in ({@link GzipCodec}); codecs for other formats such as xz or bz2 can be
+ * registered with {@link DIMACSStreamParser#registerCodec}.
+ */
+public interface DecompressionCodec {
+
+    /**
+     * Returns the file name extension of the format including the dot, e.g. ".gz".
+     *
+     * @return file name extension
+     */
+    String getExtension();
+
+    /**
+     * Wraps a stream of compressed data.
+     *
+     * @param in compressed data
+     * @return stream of decompressed data
+     * @throws IOException if the data cannot be decompressed
+     */
+    InputStream open(InputStream in) throws IOException;
+}
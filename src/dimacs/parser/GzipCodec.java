@@ -0,0 +1,24 @@
+package dimacs.parser;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.zip.GZIPInputStream;
+
+/**
+ * Gzip decompression with the JDK inflater.
+ */
+public class GzipCodec implements DecompressionCodec {
+    /* First two bytes of every gzip stream */
+    static final int MAGIC_0 = 0x1f;
+    static final int MAGIC_1 = 0x8b;
+
+    @Override
+    public String getExtension() {
+        return ".gz";
+    }
+
+    @Override
+    public InputStream open(InputStream in) throws IOException {
+        return new GZIPInputStream(in, 1 << 16);
+    }
+}